@@ -39,6 +39,48 @@ public class DockerApiMetadata extends BaseHttpApiMetadata<DockerApi> {
 
     public static final String DOCKER_CA_CERT_PATH = "docker.cacert.path";
     public static final String DOCKER_CA_CERT_DATA = "docker.cacert.data";
+    /**
+     * Maximum number of concurrent inspect calls made while listing nodes and images
+     */
+    public static final String DOCKER_INSPECT_CONCURRENCY = "docker.inspect.concurrency";
+    /**
+     * Maximum number of concurrent create and start calls made while creating the nodes of a group
+     */
+    public static final String DOCKER_CREATE_CONCURRENCY = "docker.create.concurrency";
+    /**
+     * Whether to keep the state of the containers in memory, updated from the events stream of the daemon, instead of
+     * inspecting the containers whenever nodes are listed or polled
+     */
+    public static final String DOCKER_EVENTS_CACHE = "docker.events.cache";
+    /**
+     * When images requested by name are pulled: <code>always</code>, <code>if-not-present</code> or
+     * <code>never</code>
+     */
+    public static final String DOCKER_IMAGE_PULL_POLICY = "docker.image.pull-policy";
+    /**
+     * Maximum number of idle connections kept open to the daemon
+     */
+    public static final String DOCKER_MAX_IDLE_CONNECTIONS = "docker.max-idle-connections";
+    /**
+     * Time, in milliseconds, an idle connection is kept open before being closed
+     */
+    public static final String DOCKER_KEEP_ALIVE = "docker.keep-alive";
+    /**
+     * Read timeout, in milliseconds, of the streaming calls (attach, logs, events, stats, exec, build and pull), which
+     * can stay idle far longer than the other calls. Zero means no timeout.
+     */
+    public static final String DOCKER_STREAM_READ_TIMEOUT = "docker.stream.read-timeout";
+    /**
+     * Comma-separated endpoints of other daemons the compute service creates containers on, besides the daemon of
+     * the context endpoint. Each daemon is exposed as a location.
+     */
+    public static final String DOCKER_HOSTS = "docker.hosts";
+    /**
+     * How the daemon of a new container is chosen when there are several hosts: <code>least-containers</code>,
+     * <code>least-memory</code> or the class name of a
+     * {@link org.jclouds.docker.compute.strategy.PlacementStrategy}
+     */
+    public static final String DOCKER_PLACEMENT = "docker.placement";
 
    @Override
    public Builder toBuilder() {
@@ -60,6 +102,15 @@ public class DockerApiMetadata extends BaseHttpApiMetadata<DockerApi> {
       properties.setProperty(TEMPLATE, "osFamily=UBUNTU,os64Bit=true");
       properties.setProperty(DOCKER_CA_CERT_PATH, "");
       properties.setProperty(DOCKER_CA_CERT_DATA, "");
+      properties.setProperty(DOCKER_INSPECT_CONCURRENCY, "10");
+      properties.setProperty(DOCKER_CREATE_CONCURRENCY, "10");
+      properties.setProperty(DOCKER_EVENTS_CACHE, "false");
+      properties.setProperty(DOCKER_IMAGE_PULL_POLICY, "if-not-present");
+      properties.setProperty(DOCKER_MAX_IDLE_CONNECTIONS, "10");
+      properties.setProperty(DOCKER_KEEP_ALIVE, "300000"); // 5 minutes
+      properties.setProperty(DOCKER_STREAM_READ_TIMEOUT, "3600000"); // 1 hour
+      properties.setProperty(DOCKER_HOSTS, "");
+      properties.setProperty(DOCKER_PLACEMENT, "least-containers");
       return properties;
    }
 
@@ -16,16 +16,25 @@
  */
 package org.jclouds.docker.compute.config;
 
+import static org.jclouds.docker.DockerApiMetadata.DOCKER_PLACEMENT;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
 import org.jclouds.compute.ComputeServiceAdapter;
 import org.jclouds.compute.config.ComputeServiceAdapterContextModule;
 import org.jclouds.compute.domain.Hardware;
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.options.TemplateOptions;
+import org.jclouds.compute.strategy.CreateNodesInGroupThenAddToSet;
 import org.jclouds.docker.compute.functions.ContainerToNodeMetadata;
 import org.jclouds.docker.compute.functions.ImageToImage;
 import org.jclouds.docker.compute.functions.StateToStatus;
 import org.jclouds.docker.compute.options.DockerTemplateOptions;
 import org.jclouds.docker.compute.strategy.DockerComputeServiceAdapter;
+import org.jclouds.docker.compute.strategy.DockerCreateNodesInGroupThenAddToSet;
+import org.jclouds.docker.compute.strategy.LeastLoadedPlacement;
+import org.jclouds.docker.compute.strategy.PlacementStrategy;
 import org.jclouds.docker.domain.Container;
 import org.jclouds.docker.domain.Image;
 import org.jclouds.docker.domain.State;
@@ -33,6 +42,8 @@ import org.jclouds.domain.Location;
 import org.jclouds.functions.IdentityFunction;
 
 import com.google.common.base.Function;
+import com.google.inject.Injector;
+import com.google.inject.Provides;
 import com.google.inject.TypeLiteral;
 
 public class DockerComputeServiceContextModule extends
@@ -55,8 +66,33 @@ public class DockerComputeServiceContextModule extends
       bind(new TypeLiteral<Function<State, NodeMetadata.Status>>() {
       }).to(StateToStatus.class);
       bind(TemplateOptions.class).to(DockerTemplateOptions.class);
+      bind(CreateNodesInGroupThenAddToSet.class).to(DockerCreateNodesInGroupThenAddToSet.class);
 
       install(new LoginPortLookupModule());
    }
 
+   /**
+    * Maps {@value org.jclouds.docker.DockerApiMetadata#DOCKER_PLACEMENT} to a built-in strategy, or to a
+    * {@link PlacementStrategy} class created by the injector.
+    */
+   @Provides
+   @Singleton
+   protected PlacementStrategy providePlacementStrategy(@Named(DOCKER_PLACEMENT) String placement, Injector injector) {
+      PlacementStrategy strategy;
+      if ("least-containers".equals(placement)) {
+         strategy = LeastLoadedPlacement.leastContainers();
+      } else if ("least-memory".equals(placement)) {
+         strategy = LeastLoadedPlacement.leastMemory();
+      } else {
+         try {
+            return injector.getInstance(Class.forName(placement).asSubclass(PlacementStrategy.class));
+         } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException(String.format("%s must be least-containers, least-memory or the "
+                  + "name of a PlacementStrategy class, not %s", DOCKER_PLACEMENT, placement), e);
+         }
+      }
+      injector.injectMembers(strategy);
+      return strategy;
+   }
+
 }
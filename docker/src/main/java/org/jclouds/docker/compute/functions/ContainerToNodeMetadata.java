@@ -24,16 +24,19 @@ import java.util.Set;
 import javax.inject.Inject;
 
 import org.jclouds.collect.Memoized;
-import org.jclouds.compute.domain.HardwareBuilder;
 import org.jclouds.compute.domain.Image;
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.domain.NodeMetadataBuilder;
-import org.jclouds.compute.domain.Processor;
 import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.docker.compute.internal.DockerHosts;
+import org.jclouds.docker.compute.internal.DockerHosts.Host;
+import org.jclouds.docker.compute.internal.HardwareProfiles;
+import org.jclouds.docker.compute.internal.ImageMetadataCache;
 import org.jclouds.docker.domain.Container;
 import org.jclouds.docker.domain.NetworkSettings;
 import org.jclouds.docker.domain.State;
 import org.jclouds.domain.Location;
+import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.providers.ProviderMetadata;
 
 import com.google.common.base.Function;
@@ -57,52 +60,66 @@ public class ContainerToNodeMetadata implements Function<Container, NodeMetadata
    private final ProviderMetadata providerMetadata;
    private final Function<State, NodeMetadata.Status> toPortableStatus;
    private final GroupNamingConvention nodeNamingConvention;
-   private final Supplier<Map<String, ? extends Image>> images;
+   private final ImageMetadataCache images;
    private final Supplier<Set<? extends Location>> locations;
    private final LoginPortForContainer loginPortForContainer;
+   private final DockerHosts hosts;
 
    @Inject
    ContainerToNodeMetadata(ProviderMetadata providerMetadata,
                            Function<State, NodeMetadata.Status> toPortableStatus, GroupNamingConvention.Factory namingConvention,
-                           Supplier<Map<String, ? extends Image>> images, @Memoized Supplier<Set<? extends Location>> locations,
-                           LoginPortForContainer loginPortForContainer) {
+                           ImageMetadataCache images, @Memoized Supplier<Set<? extends Location>> locations,
+                           LoginPortForContainer loginPortForContainer, DockerHosts hosts) {
       this.providerMetadata = providerMetadata;
       this.toPortableStatus = toPortableStatus;
       this.nodeNamingConvention = namingConvention.createWithoutPrefix();
       this.images = images;
       this.locations = locations;
       this.loginPortForContainer = loginPortForContainer;
+      this.hosts = hosts;
    }
 
    @Override
    public NodeMetadata apply(Container container) {
       String name = cleanUpName(container.name());
       String group = nodeNamingConvention.extractGroup(name);
+      // the daemon of the container, in multi-host mode
+      Host host = hosts.isMultiHost() ? hosts.hostOf(container.id()) : null;
       NodeMetadataBuilder builder = new NodeMetadataBuilder();
       builder.ids(container.id())
               .name(name)
               .group(group)
               .hostname(container.config().hostname())
-              // TODO Set up hardware
-              .hardware(new HardwareBuilder()
-                      .id("")
-                      .ram(container.config().memory())
-                      .processor(new Processor(container.config().cpuShares(), container.config().cpuShares()))
-                      .build());
+              .hardware(HardwareProfiles.of(container.config(), container.hostConfig()));
       builder.status(toPortableStatus.apply(container.state()));
       builder.loginPort(loginPortForContainer.apply(container).or(NO_LOGIN_PORT));
-      builder.publicAddresses(getPublicIpAddresses(container));
+      builder.publicAddresses(getPublicIpAddresses(container, host));
       builder.privateAddresses(getPrivateIpAddresses(container));
-      builder.location(Iterables.getOnlyElement(locations.get()));
+      builder.location(getLocation(host));
       String imageId = container.image();
       builder.imageId(imageId);
-      if (images.get().containsKey(imageId)) {
-         Image image = images.get().get(imageId);
-         builder.operatingSystem(image.getOperatingSystem());
+      if (imageId != null) {
+         // only the image of the container is inspected, rather than every image of the daemon
+         Host imageHost = host != null ? host : hosts.getHosts().get(0);
+         Image image = images.get(imageHost.getApi(), imageId, container.config().image());
+         if (image != null) {
+            builder.operatingSystem(image.getOperatingSystem());
+         }
       }
       return builder.build();
    }
 
+   private Location getLocation(@Nullable Host host) {
+      if (host != null) {
+         return host.getLocation();
+      }
+      if (hosts.isMultiHost()) {
+         // not seen on any daemon yet, so only known to be in the pool
+         return hosts.getHosts().get(0).getLocation().getParent();
+      }
+      return Iterables.getOnlyElement(locations.get());
+   }
+
    private String cleanUpName(String name) {
       return name.startsWith("/") ? name.substring(1) : name;
    }
@@ -128,12 +145,17 @@ public class ContainerToNodeMetadata implements Function<Container, NodeMetadata
       return builder.build();
    }
 
-   private List<String> getPublicIpAddresses(Container container) {
+   private List<String> getPublicIpAddresses(Container container, @Nullable Host host) {
       String dockerIpAddress;
       if (container.node().isPresent()) {
          dockerIpAddress = container.node().get().ip();
       } else {
-         dockerIpAddress = URI.create(providerMetadata.getEndpoint()).getHost();
+         URI endpoint = host != null ? host.getEndpoint() : URI.create(providerMetadata.getEndpoint());
+         dockerIpAddress = endpoint.getHost();
+         if (dockerIpAddress == null) {
+            // unix:// endpoints reach a daemon on this host
+            dockerIpAddress = "127.0.0.1";
+         }
       }
       return ImmutableList.of(dockerIpAddress);
    }
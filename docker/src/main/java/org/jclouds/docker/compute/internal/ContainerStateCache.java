@@ -0,0 +1,264 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.compute.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.docker.DockerApiMetadata.DOCKER_EVENTS_CACHE;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.docker.DockerApi;
+import org.jclouds.docker.domain.Container;
+import org.jclouds.docker.domain.ContainerSummary;
+import org.jclouds.docker.domain.Event;
+import org.jclouds.docker.domain.Image;
+import org.jclouds.docker.options.ListContainerOptions;
+import org.jclouds.docker.util.DockerEventReader;
+import org.jclouds.json.Json;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.io.Closeables;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Keeps the state of the containers of the daemon in memory, so that listing and polling nodes does not have to
+ * inspect every container. The cache subscribes to the events stream of the daemon, resynchronizes by inspecting all
+ * containers whenever the stream is (re)connected, and then re-inspects a container only when an event reports that
+ * its state has changed. Image events refresh the {@link ImageMetadataCache}.
+ * <p>
+ * The cache is disabled unless {@value org.jclouds.docker.DockerApiMetadata#DOCKER_EVENTS_CACHE} is set, and is only
+ * used while {@link #isLive()} is true; callers fall back to the remote API otherwise.
+ * <p>
+ * The subscription runs on a daemon thread of its own, since it never ends until the cache is closed along with the
+ * context.
+ */
+@Singleton
+public class ContainerStateCache implements Closeable {
+
+   /**
+    * Container events after which the container is inspected again. <code>destroy</code> removes the container, and
+    * other events (exec, attach, resize...) do not change what is cached.
+    */
+   private static final Set<String> CONTAINER_STATE_EVENTS = ImmutableSet.of("create", "start", "restart", "die",
+         "kill", "oom", "stop", "pause", "unpause", "rename", "update");
+
+   private static final long MIN_BACKOFF_MILLIS = 1000;
+   private static final long MAX_BACKOFF_MILLIS = 30000;
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final DockerApi api;
+   private final Json json;
+   private final boolean enabled;
+   private final ImageMetadataCache imageMetadata;
+
+   private final ConcurrentMap<String, Container> containers = Maps.newConcurrentMap();
+   private final AtomicBoolean started = new AtomicBoolean();
+   /** Released on close, to end the wait before resubscribing. */
+   private final CountDownLatch closing = new CountDownLatch(1);
+   @VisibleForTesting
+   volatile Thread subscriber;
+   private volatile boolean live;
+   private volatile boolean closed;
+   private volatile InputStream events;
+
+   private long imageGeneration;
+   private Set<Image> images;
+
+   @Inject
+   ContainerStateCache(DockerApi api, Json json, @Named(DOCKER_EVENTS_CACHE) boolean enabled,
+         ImageMetadataCache imageMetadata, Closer closer) {
+      this.api = checkNotNull(api, "api");
+      this.json = checkNotNull(json, "json");
+      this.enabled = enabled;
+      this.imageMetadata = checkNotNull(imageMetadata, "imageMetadata");
+      closer.addToClose(this);
+   }
+
+   /**
+    * Whether the cache is in sync with the daemon. The first call starts the subscription when the cache is enabled,
+    * so the cache becomes live some time after it is first used.
+    */
+   public boolean isLive() {
+      if (enabled && !closed && started.compareAndSet(false, true)) {
+         Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+               subscribe();
+            }
+         }, "docker-events-cache");
+         thread.setDaemon(true);
+         subscriber = thread;
+         thread.start();
+      }
+      return live;
+   }
+
+   /**
+    * @return the cached container, or null if it is not known
+    */
+   public Container getContainer(String id) {
+      return containers.get(id);
+   }
+
+   public Collection<Container> getContainers() {
+      return ImmutableList.copyOf(containers.values());
+   }
+
+   /**
+    * Records the state of a container the caller has just inspected.
+    */
+   public void update(Container container) {
+      if (live) {
+         containers.put(container.id(), container);
+      }
+   }
+
+   public void remove(String id) {
+      containers.remove(id);
+   }
+
+   /**
+    * Images change far less often than containers, so the cache only keeps the last listing until an image event is
+    * received. Read the generation before listing the images and pass it to {@link #putImages(Set, long)}, so that
+    * a listing that raced with an image event is not cached.
+    */
+   public synchronized long imageGeneration() {
+      return imageGeneration;
+   }
+
+   /**
+    * @return the cached images, or null if they have changed since they were last listed
+    */
+   public synchronized Set<Image> getImages() {
+      return live ? images : null;
+   }
+
+   public synchronized void putImages(Set<Image> images, long generation) {
+      if (live && generation == imageGeneration) {
+         this.images = ImmutableSet.copyOf(images);
+      }
+   }
+
+   private synchronized void invalidateImages() {
+      imageGeneration++;
+      images = null;
+   }
+
+   private void subscribe() {
+      long backoff = MIN_BACKOFF_MILLIS;
+      while (!closed) {
+         try {
+            events = api.getMiscApi().events();
+            DockerEventReader reader = new DockerEventReader(events, json);
+            try {
+               if (closed) {
+                  // closed while subscribing, too early to close the stream
+                  return;
+               }
+               // the stream is open before resyncing, so changes made while resyncing are replayed afterwards
+               resync();
+               live = true;
+               backoff = MIN_BACKOFF_MILLIS;
+               logger.debug("<< container state cache is live with %d containers", containers.size());
+               for (Event event = reader.readEvent(); event != null; event = reader.readEvent()) {
+                  onEvent(event);
+               }
+            } finally {
+               live = false;
+               Closeables.close(reader, true);
+               events = null;
+            }
+         } catch (Exception e) {
+            if (!closed) {
+               logger.warn(e, "docker events stream failed, resubscribing in %d ms", backoff);
+            }
+         }
+         if (!closed) {
+            Uninterruptibles.awaitUninterruptibly(closing, backoff, TimeUnit.MILLISECONDS);
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+         }
+      }
+   }
+
+   private void resync() {
+      invalidateImages();
+      Map<String, Container> inspected = Maps.newHashMap();
+      for (ContainerSummary summary : api.getContainerApi().listContainers(ListContainerOptions.Builder.all(true))) {
+         Container container = api.getContainerApi().inspectContainer(summary.id());
+         if (container != null) {
+            inspected.put(container.id(), container);
+         }
+      }
+      containers.keySet().retainAll(inspected.keySet());
+      containers.putAll(inspected);
+   }
+
+   @VisibleForTesting
+   void onEvent(Event event) {
+      String type = event.type();
+      // daemons older than API 1.22 do not report the type, but only container events have an image
+      if ("image".equals(type) || (type == null && event.from() == null)) {
+         invalidateImages();
+         imageMetadata.refresh(api, event.id());
+      } else if (type == null || "container".equals(type)) {
+         if ("destroy".equals(event.status())) {
+            containers.remove(event.id());
+         } else if (CONTAINER_STATE_EVENTS.contains(event.status())) {
+            Container container = api.getContainerApi().inspectContainer(event.id());
+            if (container == null) {
+               containers.remove(event.id());
+            } else {
+               containers.put(event.id(), container);
+            }
+         }
+      }
+   }
+
+   @Override
+   public void close() throws IOException {
+      closed = true;
+      live = false;
+      closing.countDown();
+      InputStream stream = events;
+      if (stream != null) {
+         Closeables.close(stream, true);
+      }
+   }
+}
@@ -0,0 +1,259 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.compute.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static org.jclouds.docker.DockerApiMetadata.DOCKER_HOSTS;
+import static org.jclouds.util.Closeables2.closeQuietly;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.ContextBuilder;
+import org.jclouds.docker.DockerApi;
+import org.jclouds.domain.Credentials;
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LocationBuilder;
+import org.jclouds.domain.LocationScope;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.location.Provider;
+import org.jclouds.location.suppliers.all.JustProvider;
+import org.jclouds.providers.ProviderMetadata;
+
+import com.google.common.base.Splitter;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+
+/**
+ * The daemons the compute service creates containers on: the daemon of the context endpoint and, in multi-host mode,
+ * the daemons listed in {@value org.jclouds.docker.DockerApiMetadata#DOCKER_HOSTS}. Each of the other daemons is
+ * reached through its own {@link DockerApi}, built with the credentials and properties of the context.
+ * <p>
+ * In multi-host mode, each daemon is exposed as a {@link LocationScope#HOST host} location, whose parent is a
+ * {@link LocationScope#ZONE zone} standing for the whole pool: templates in the zone let the
+ * {@link org.jclouds.docker.compute.strategy.PlacementStrategy} choose the daemon, while templates in a host location
+ * create their containers on that daemon. The daemon of each container is remembered, so that it is not searched for
+ * again.
+ */
+@Singleton
+public class DockerHosts implements Closeable {
+
+   /**
+    * A daemon of the pool.
+    */
+   public static final class Host {
+      private final String id;
+      private final URI endpoint;
+      private final DockerApi api;
+      private final Location location;
+
+      public Host(String id, URI endpoint, DockerApi api, @Nullable Location location) {
+         this.id = checkNotNull(id, "id");
+         this.endpoint = checkNotNull(endpoint, "endpoint");
+         this.api = checkNotNull(api, "api");
+         this.location = location;
+      }
+
+      public String getId() {
+         return id;
+      }
+
+      public URI getEndpoint() {
+         return endpoint;
+      }
+
+      public DockerApi getApi() {
+         return api;
+      }
+
+      /**
+       * @return the location of the daemon, or null when there is a single daemon
+       */
+      @Nullable
+      public Location getLocation() {
+         return location;
+      }
+
+      @Override
+      public String toString() {
+         return id;
+      }
+   }
+
+   private final List<Host> hosts;
+   private final Map<String, Host> hostsById;
+   private final Set<Location> locations;
+   private final ConcurrentMap<String, Host> containerHosts = Maps.newConcurrentMap();
+
+   @Inject
+   DockerHosts(DockerApi api, ProviderMetadata providerMetadata, @Provider Supplier<Credentials> credentials,
+         JustProvider justProvider, @Named(DOCKER_HOSTS) String otherHosts, Closer closer) {
+      URI primary = URI.create(providerMetadata.getEndpoint());
+      List<String> endpoints = Splitter.on(',').trimResults().omitEmptyStrings().splitToList(otherHosts);
+      if (endpoints.isEmpty()) {
+         this.hosts = ImmutableList.of(new Host(hostId(primary), primary, api, null));
+         this.locations = ImmutableSet.of();
+      } else {
+         Location pool = new LocationBuilder().scope(LocationScope.ZONE).id(providerMetadata.getId() + "-hosts")
+               .description("all hosts").parent(getOnlyElement(justProvider.get())).build();
+         ImmutableList.Builder<Host> hosts = ImmutableList.builder();
+         hosts.add(new Host(hostId(primary), primary, api, hostLocation(primary, pool)));
+         Properties properties = childProperties(providerMetadata);
+         Credentials creds = credentials.get();
+         for (String endpoint : endpoints) {
+            URI uri = URI.create(endpoint);
+            if (uri.equals(primary)) {
+               continue;
+            }
+            DockerApi hostApi = ContextBuilder.newBuilder(providerMetadata.getApiMetadata())
+                  .endpoint(endpoint)
+                  .credentials(creds.identity, creds.credential)
+                  .overrides(properties)
+                  .buildApi(DockerApi.class);
+            hosts.add(new Host(hostId(uri), uri, hostApi, hostLocation(uri, pool)));
+         }
+         this.hosts = hosts.build();
+         ImmutableSet.Builder<Location> locations = ImmutableSet.<Location>builder().add(pool);
+         for (Host host : this.hosts) {
+            locations.add(host.getLocation());
+         }
+         this.locations = locations.build();
+      }
+      this.hostsById = indexById(this.hosts);
+      closer.addToClose(this);
+   }
+
+   /**
+    * Creates a pool of the given daemons. The first one is the daemon of the context, and is not closed with the
+    * pool.
+    */
+   public DockerHosts(List<Host> hosts) {
+      checkArgument(!hosts.isEmpty(), "there must be at least one host");
+      this.hosts = ImmutableList.copyOf(hosts);
+      this.hostsById = indexById(this.hosts);
+      ImmutableSet.Builder<Location> locations = ImmutableSet.builder();
+      for (Host host : this.hosts) {
+         if (host.getLocation() != null) {
+            locations.add(host.getLocation());
+            if (host.getLocation().getParent() != null) {
+               locations.add(host.getLocation().getParent());
+            }
+         }
+      }
+      this.locations = locations.build();
+   }
+
+   private static Map<String, Host> indexById(List<Host> hosts) {
+      ImmutableMap.Builder<String, Host> hostsById = ImmutableMap.builder();
+      for (Host host : hosts) {
+         hostsById.put(host.getId(), host);
+      }
+      return hostsById.build();
+   }
+
+   /**
+    * Identifies a daemon by the authority of its endpoint, or by the path of its socket.
+    */
+   private static String hostId(URI endpoint) {
+      return endpoint.getAuthority() != null ? endpoint.getAuthority() : endpoint.getPath();
+   }
+
+   private static Location hostLocation(URI endpoint, Location pool) {
+      return new LocationBuilder().scope(LocationScope.HOST).id(hostId(endpoint)).description(endpoint.toString())
+            .parent(pool).build();
+   }
+
+   /**
+    * The properties of the APIs of the other daemons, which are single hosts reached at their own endpoint.
+    */
+   private static Properties childProperties(ProviderMetadata providerMetadata) {
+      Properties properties = new Properties();
+      properties.putAll(providerMetadata.getDefaultProperties());
+      properties.setProperty(DOCKER_HOSTS, "");
+      properties.remove(Constants.PROPERTY_ENDPOINT);
+      properties.remove(providerMetadata.getId() + ".endpoint");
+      return properties;
+   }
+
+   public boolean isMultiHost() {
+      return hosts.size() > 1;
+   }
+
+   /**
+    * @return the daemons, starting with the daemon of the context endpoint
+    */
+   public List<Host> getHosts() {
+      return hosts;
+   }
+
+   /**
+    * @return the daemon with the given id, or null
+    */
+   @Nullable
+   public Host getHost(String id) {
+      return hostsById.get(id);
+   }
+
+   /**
+    * @return the pool and host locations in multi-host mode, or an empty set
+    */
+   public Set<Location> getLocations() {
+      return locations;
+   }
+
+   /**
+    * @return the daemon the container was last seen on, or null if it is not known
+    */
+   @Nullable
+   public Host hostOf(String containerId) {
+      return isMultiHost() ? containerHosts.get(containerId) : hosts.get(0);
+   }
+
+   public void remember(String containerId, Host host) {
+      if (isMultiHost()) {
+         containerHosts.put(containerId, host);
+      }
+   }
+
+   public void forget(String containerId) {
+      containerHosts.remove(containerId);
+   }
+
+   @Override
+   public void close() {
+      // the daemon of the context is closed with the context
+      for (Host host : hosts.subList(1, hosts.size())) {
+         closeQuietly(host.getApi());
+      }
+   }
+}
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.compute.internal;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.jclouds.compute.domain.Hardware;
+import org.jclouds.compute.domain.HardwareBuilder;
+import org.jclouds.compute.domain.Processor;
+import org.jclouds.docker.domain.Config;
+import org.jclouds.docker.domain.HostConfig;
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Hardware profiles of containers, which are the CPU and memory limits the daemon enforces with cgroups.
+ * <p>
+ * The profiles offered by a daemon are sized after its capacity: every power of two of CPUs up to the CPUs of the
+ * daemon, combined with every power of two of memory from 512 MB up to the memory of the daemon. They are listed
+ * with an {@link #UNLIMITED} profile, which is the smallest one and therefore the default of the template builder, so
+ * that containers are only limited when the template asks for a minimum of CPUs or memory.
+ */
+public final class HardwareProfiles {
+
+   public static final String UNLIMITED_ID = "unlimited";
+
+   /**
+    * The profile of containers without CPU or memory limit.
+    */
+   public static final Hardware UNLIMITED = new HardwareBuilder().ids(UNLIMITED_ID).name(UNLIMITED_ID)
+         .hypervisor("lxc").ram(0).build();
+
+   public static final long NANO_CPUS_PER_CPU = 1000000000L;
+
+   /**
+    * The CPU scheduling period of the daemon, when the container does not set one.
+    */
+   public static final long DEFAULT_CPU_PERIOD = 100000L;
+
+   private static final long BYTES_PER_MB = 1024L * 1024L;
+   private static final int MIN_RAM_MB = 512;
+
+   private HardwareProfiles() {
+   }
+
+   /**
+    * @param ncpu the CPUs of the daemon
+    * @param memTotal the memory of the daemon, in bytes
+    * @return the unlimited profile, followed by the profiles that fit in the capacity
+    */
+   public static List<Hardware> fromCapacity(int ncpu, long memTotal) {
+      ImmutableList.Builder<Hardware> profiles = ImmutableList.<Hardware>builder().add(UNLIMITED);
+      int ramTotal = (int) Math.min(memTotal / BYTES_PER_MB, Integer.MAX_VALUE);
+      for (int cpus = 1; cpus <= ncpu; cpus *= 2) {
+         for (int ram = MIN_RAM_MB; ram <= ramTotal; ram *= 2) {
+            profiles.add(of(cpus, ram));
+            if (ram > Integer.MAX_VALUE / 2) {
+               break;
+            }
+         }
+      }
+      return profiles.build();
+   }
+
+   /**
+    * @param cpus the CPU limit, or 0 if the CPUs are not limited
+    * @param ram the memory limit in MB, or 0 if the memory is not limited
+    */
+   public static Hardware of(double cpus, int ram) {
+      if (cpus <= 0 && ram <= 0) {
+         return UNLIMITED;
+      }
+      String id = id(cpus, ram);
+      HardwareBuilder hardware = new HardwareBuilder().ids(id).name(id).hypervisor("lxc").ram(Math.max(ram, 0));
+      if (cpus > 0) {
+         hardware.processor(new Processor(cpus, 1));
+      }
+      return hardware.build();
+   }
+
+   /**
+    * @return ids such as <code>2cpu-4096mb</code>, <code>0.5cpu</code> or <code>1024mb</code>
+    */
+   public static String id(double cpus, int ram) {
+      String cpuPart = cpus == Math.rint(cpus) ? Long.toString((long) cpus) : String.format(Locale.ENGLISH, "%s", cpus);
+      if (cpus > 0 && ram > 0) {
+         return cpuPart + "cpu-" + ram + "mb";
+      }
+      return cpus > 0 ? cpuPart + "cpu" : ram + "mb";
+   }
+
+   /**
+    * Describes the limits of a container. The memory limit is read from the host configuration, or from the
+    * configuration on daemons older than API 1.19, and the CPU limit from <code>NanoCpus</code> or else from the
+    * CPU quota.
+    */
+   public static Hardware of(Config config, @Nullable HostConfig hostConfig) {
+      long memory = 0;
+      double cpus = 0;
+      if (hostConfig != null) {
+         if (hostConfig.memory() != null) {
+            memory = hostConfig.memory();
+         }
+         if (hostConfig.nanoCpus() != null && hostConfig.nanoCpus() > 0) {
+            cpus = hostConfig.nanoCpus() / (double) NANO_CPUS_PER_CPU;
+         } else if (hostConfig.cpuQuota() != null && hostConfig.cpuQuota() > 0) {
+            long period = hostConfig.cpuPeriod() != null && hostConfig.cpuPeriod() > 0 ? hostConfig.cpuPeriod()
+                  : DEFAULT_CPU_PERIOD;
+            cpus = hostConfig.cpuQuota() / (double) period;
+         }
+      }
+      if (memory <= 0) {
+         memory = config.memory();
+      }
+      return of(cpus, (int) Math.min(Math.max(memory, 0) / BYTES_PER_MB, Integer.MAX_VALUE));
+   }
+
+   /**
+    * @return the memory limit in bytes of a profile, or null if it does not limit the memory
+    */
+   @Nullable
+   public static Long memoryLimit(Hardware hardware) {
+      return hardware.getRam() > 0 ? hardware.getRam() * BYTES_PER_MB : null;
+   }
+
+   /**
+    * @return the CPU quota of a profile for the {@link #DEFAULT_CPU_PERIOD default period}, which daemons enforce
+    *         since API 1.19, or null if it does not limit the CPUs
+    */
+   @Nullable
+   public static Long cpuQuota(Hardware hardware) {
+      double cpus = 0;
+      for (Processor processor : hardware.getProcessors()) {
+         cpus += processor.getCores();
+      }
+      return cpus > 0 ? Math.round(cpus * DEFAULT_CPU_PERIOD) : null;
+   }
+
+   /**
+    * @return the number of bytes in the given number of MB
+    */
+   public static long bytes(int mb) {
+      return mb * BYTES_PER_MB;
+   }
+}
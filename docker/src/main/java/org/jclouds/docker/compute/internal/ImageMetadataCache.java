@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.compute.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.docker.DockerApi;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.logging.Logger;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Keeps the portable description of the images of the containers, keyed by image id, so that converting containers
+ * to nodes does not have to list every image. An image is inspected the first time a container using it is converted,
+ * and the image events seen by the {@link ContainerStateCache} refresh it; entries otherwise expire after the
+ * {@value org.jclouds.Constants#PROPERTY_SESSION_INTERVAL} like the other memoized resources.
+ */
+@Singleton
+public class ImageMetadataCache {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final Function<org.jclouds.docker.domain.Image, Image> toImage;
+   private final Cache<String, Optional<Image>> images;
+
+   @Inject
+   public ImageMetadataCache(Function<org.jclouds.docker.domain.Image, Image> toImage,
+         @Named(Constants.PROPERTY_SESSION_INTERVAL) long sessionIntervalSeconds) {
+      this.toImage = checkNotNull(toImage, "toImage");
+      this.images = CacheBuilder.newBuilder().expireAfterWrite(sessionIntervalSeconds, TimeUnit.SECONDS).build();
+   }
+
+   /**
+    * Gets the image, inspecting it on the daemon if it is not cached. Concurrent calls for the same image share a
+    * single inspection.
+    *
+    * @param api the daemon of the container using the image
+    * @param imageId the image of the container
+    * @param repoTag the name the container was created from, describing the image when the daemon does not return
+    *           its tags
+    * @return the image, or null if it is not found or cannot be described
+    */
+   @Nullable
+   public Image get(final DockerApi api, final String imageId, @Nullable final String repoTag) {
+      try {
+         return images.get(imageId, new Callable<Optional<Image>>() {
+            @Override
+            public Optional<Image> call() {
+               return inspect(api, imageId, repoTag);
+            }
+         }).orNull();
+      } catch (ExecutionException e) {
+         throw Throwables.propagate(e.getCause());
+      }
+   }
+
+   /**
+    * Inspects the image reported by an image event again, so that the next conversions find it up to date.
+    *
+    * @param api the daemon that reported the event
+    * @param imageIdOrName the id or name of the image, as reported by the event
+    */
+   public void refresh(DockerApi api, String imageIdOrName) {
+      Optional<Image> image;
+      try {
+         image = inspect(api, imageIdOrName, null);
+      } catch (RuntimeException e) {
+         logger.warn(e, "could not inspect image(%s), it will be inspected again when used", imageIdOrName);
+         image = Optional.absent();
+      }
+      if (image.isPresent()) {
+         images.put(image.get().getId(), image);
+      } else {
+         // deleted, or untagged so that only the containers using it can describe it
+         images.invalidate(imageIdOrName);
+      }
+   }
+
+   private Optional<Image> inspect(DockerApi api, String imageIdOrName, @Nullable String repoTag) {
+      org.jclouds.docker.domain.Image image = api.getImageApi().inspectImage(imageIdOrName);
+      if (image == null) {
+         return Optional.absent();
+      }
+      if (image.repoTags() == null || image.repoTags().isEmpty()) {
+         // containers created from an image id do not know its name either
+         if (repoTag == null || repoTag.startsWith("sha256:")) {
+            return Optional.absent();
+         }
+         String lastSegment = repoTag.substring(repoTag.lastIndexOf('/') + 1);
+         image = withRepoTags(image, ImmutableList.of(lastSegment.contains(":") ? repoTag : repoTag + ":latest"));
+      }
+      return Optional.of(toImage.apply(image));
+   }
+
+   private static org.jclouds.docker.domain.Image withRepoTags(org.jclouds.docker.domain.Image image,
+         List<String> repoTags) {
+      return org.jclouds.docker.domain.Image.create(image.id(), image.author(), image.comment(), image.config(),
+            image.containerConfig(), image.parent(), image.created(), image.container(), image.dockerVersion(),
+            image.architecture(), image.os(), image.size(), image.virtualSize(), repoTags);
+   }
+}
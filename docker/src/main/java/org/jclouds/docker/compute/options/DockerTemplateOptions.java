@@ -86,6 +86,10 @@ public class DockerTemplateOptions extends TemplateOptions implements Cloneable
    @Nullable protected String hostname;
    @Nullable protected Integer memory;
    @Nullable protected Integer cpuShares;
+   @Nullable protected Double cpus;
+   @Nullable protected Long cpuQuota;
+   @Nullable protected Long cpuPeriod;
+   @Nullable protected Integer memoryReservation;
    @Nullable List<String> entrypoint;
    @Nullable List<String> commands;
    protected Map<String, String> volumes = ImmutableMap.of();
@@ -115,6 +119,10 @@ public class DockerTemplateOptions extends TemplateOptions implements Cloneable
          eTo.dns(dns);
          eTo.memory(memory);
          eTo.cpuShares(cpuShares);
+         eTo.cpus(cpus);
+         eTo.cpuQuota(cpuQuota);
+         eTo.cpuPeriod(cpuPeriod);
+         eTo.memoryReservation(memoryReservation);
          eTo.entrypoint(entrypoint);
          eTo.commands(commands);
          eTo.env(env);
@@ -141,6 +149,10 @@ public class DockerTemplateOptions extends TemplateOptions implements Cloneable
               equal(this.dns, that.dns) &&
               equal(this.memory, that.memory) &&
               equal(this.cpuShares, that.cpuShares) &&
+              equal(this.cpus, that.cpus) &&
+              equal(this.cpuQuota, that.cpuQuota) &&
+              equal(this.cpuPeriod, that.cpuPeriod) &&
+              equal(this.memoryReservation, that.memoryReservation) &&
               equal(this.entrypoint, that.entrypoint) &&
               equal(this.commands, that.commands) &&
               equal(this.env, that.env) &&
@@ -164,7 +176,8 @@ public class DockerTemplateOptions extends TemplateOptions implements Cloneable
    @Override
    public int hashCode() {
       return Objects.hashCode(super.hashCode(), volumes, hostname, dns, memory, entrypoint, commands, cpuShares, env,
-            portBindings, extraHosts, volumesFrom, privileged, openStdin, configBuilder);
+            portBindings, extraHosts, volumesFrom, privileged, openStdin, configBuilder, cpus, cpuQuota, cpuPeriod,
+            memoryReservation);
    }
 
    @Override
@@ -175,6 +188,10 @@ public class DockerTemplateOptions extends TemplateOptions implements Cloneable
               .add("dns", dns)
               .add("memory", memory)
               .add("cpuShares", cpuShares)
+              .add("cpus", cpus)
+              .add("cpuQuota", cpuQuota)
+              .add("cpuPeriod", cpuPeriod)
+              .add("memoryReservation", memoryReservation)
               .add("entrypoint", entrypoint)
               .add("commands", commands)
               .add("env", env)
@@ -238,6 +255,50 @@ public class DockerTemplateOptions extends TemplateOptions implements Cloneable
       return this;
    }
 
+   /**
+    * Limits the CPUs the container may use, such as <code>1.5</code>. Requires API 1.25 or later; use
+    * {@link #cpuQuota(Long)} on older daemons. Overrides the CPUs of the hardware profile.
+    *
+    * @param cpus the number of CPUs
+    * @return this instance
+    */
+   public DockerTemplateOptions cpus(@Nullable Double cpus) {
+      this.cpus = cpus;
+      return this;
+   }
+
+   /**
+    * Limits the CPU time the container may use in each {@link #cpuPeriod(Long) period}, so that a quota of twice the
+    * period allows two CPUs. Overrides the CPUs of the hardware profile.
+    *
+    * @param cpuQuota the CPU time in microseconds
+    * @return this instance
+    */
+   public DockerTemplateOptions cpuQuota(@Nullable Long cpuQuota) {
+      this.cpuQuota = cpuQuota;
+      return this;
+   }
+
+   /**
+    * @param cpuPeriod the length in microseconds of the CPU scheduling period, 100000 by default
+    * @return this instance
+    */
+   public DockerTemplateOptions cpuPeriod(@Nullable Long cpuPeriod) {
+      this.cpuPeriod = cpuPeriod;
+      return this;
+   }
+
+   /**
+    * Sets a soft memory limit, which the container is held to when the host runs short of memory.
+    *
+    * @param memoryReservation the memory in MB
+    * @return this instance
+    */
+   public DockerTemplateOptions memoryReservation(@Nullable Integer memoryReservation) {
+      this.memoryReservation = memoryReservation;
+      return this;
+   }
+
    public DockerTemplateOptions env(Iterable<String> env) {
       this.env = NullSafeCopies.copyWithNullOf(env);
       return this;
@@ -353,6 +414,14 @@ public class DockerTemplateOptions extends TemplateOptions implements Cloneable
 
    public Integer getCpuShares() { return cpuShares; }
 
+   public Double getCpus() { return cpus; }
+
+   public Long getCpuQuota() { return cpuQuota; }
+
+   public Long getCpuPeriod() { return cpuPeriod; }
+
+   public Integer getMemoryReservation() { return memoryReservation; }
+
    public List<String> getEnv() { return env; }
 
    public Map<Integer, Integer> getPortBindings() { return portBindings; }
@@ -449,6 +518,38 @@ public class DockerTemplateOptions extends TemplateOptions implements Cloneable
          return options.cpuShares(cpuShares);
       }
 
+      /**
+       * @see DockerTemplateOptions#cpus(Double)
+       */
+      public static DockerTemplateOptions cpus(@Nullable Double cpus) {
+         DockerTemplateOptions options = new DockerTemplateOptions();
+         return options.cpus(cpus);
+      }
+
+      /**
+       * @see DockerTemplateOptions#cpuQuota(Long)
+       */
+      public static DockerTemplateOptions cpuQuota(@Nullable Long cpuQuota) {
+         DockerTemplateOptions options = new DockerTemplateOptions();
+         return options.cpuQuota(cpuQuota);
+      }
+
+      /**
+       * @see DockerTemplateOptions#cpuPeriod(Long)
+       */
+      public static DockerTemplateOptions cpuPeriod(@Nullable Long cpuPeriod) {
+         DockerTemplateOptions options = new DockerTemplateOptions();
+         return options.cpuPeriod(cpuPeriod);
+      }
+
+      /**
+       * @see DockerTemplateOptions#memoryReservation(Integer)
+       */
+      public static DockerTemplateOptions memoryReservation(@Nullable Integer memoryReservation) {
+         DockerTemplateOptions options = new DockerTemplateOptions();
+         return options.memoryReservation(memoryReservation);
+      }
+
       /**
        * @see DockerTemplateOptions#env(String...)
        */
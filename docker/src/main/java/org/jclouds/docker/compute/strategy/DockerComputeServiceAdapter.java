@@ -16,34 +16,65 @@
  */
 package org.jclouds.docker.compute.strategy;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Iterables.find;
-
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static org.jclouds.docker.DockerApiMetadata.DOCKER_CREATE_CONCURRENCY;
+import static org.jclouds.docker.DockerApiMetadata.DOCKER_IMAGE_PULL_POLICY;
+import static org.jclouds.docker.DockerApiMetadata.DOCKER_INSPECT_CONCURRENCY;
+import static org.jclouds.util.Closeables2.closeQuietly;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import com.google.common.base.Function;
 import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
 
+import org.jclouds.Constants;
 import org.jclouds.compute.ComputeServiceAdapter;
 import org.jclouds.compute.domain.Hardware;
-import org.jclouds.compute.domain.HardwareBuilder;
-import org.jclouds.compute.domain.Processor;
 import org.jclouds.compute.domain.Template;
 import org.jclouds.compute.options.TemplateOptions;
 import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.docker.DockerApi;
+import org.jclouds.docker.compute.internal.ContainerStateCache;
+import org.jclouds.docker.compute.internal.DockerHosts;
+import org.jclouds.docker.compute.internal.DockerHosts.Host;
+import org.jclouds.docker.compute.internal.HardwareProfiles;
 import org.jclouds.docker.compute.options.DockerTemplateOptions;
 import org.jclouds.docker.domain.Config;
 import org.jclouds.docker.domain.Container;
@@ -51,43 +82,333 @@ import org.jclouds.docker.domain.ContainerSummary;
 import org.jclouds.docker.domain.HostConfig;
 import org.jclouds.docker.domain.Image;
 import org.jclouds.docker.domain.ImageSummary;
+import org.jclouds.docker.domain.Info;
+import org.jclouds.docker.domain.ProgressMessage;
+import org.jclouds.docker.domain.State;
 import org.jclouds.docker.options.CreateImageOptions;
 import org.jclouds.docker.options.ListContainerOptions;
 import org.jclouds.docker.options.RemoveContainerOptions;
+import org.jclouds.docker.util.DockerProgressReader;
 import org.jclouds.domain.Location;
+import org.jclouds.domain.LocationScope;
 import org.jclouds.domain.LoginCredentials;
+import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.logging.Logger;
 
 /**
  * defines the connection between the {@link org.jclouds.docker.DockerApi} implementation and
  * the jclouds {@link org.jclouds.compute.ComputeService}
+ * <p>
+ * When several daemons are configured, the containers are spread across them by the {@link PlacementStrategy}, and
+ * the daemons are listed in parallel. See {@link DockerHosts}.
  */
 @Singleton
 public class DockerComputeServiceAdapter implements
         ComputeServiceAdapter<Container, Hardware, Image, Location> {
 
+   /**
+    * Label holding the group of the containers created by jclouds, so that the containers of a group can be listed
+    * by the daemon.
+    */
+   public static final String GROUP_LABEL = "org.apache.jclouds.group";
+
+   private static final Pattern EXITED_STATUS = Pattern.compile("Exited \\((-?\\d+)\\)");
+
    @Resource
    @Named(ComputeServiceConstants.COMPUTE_LOGGER)
    protected Logger logger = Logger.NULL;
 
-   private final DockerApi api;
+   private final DockerHosts hosts;
+   private final PlacementStrategy placement;
+   private final ListeningExecutorService userExecutor;
+   private final int inspectConcurrency;
+   private final int createConcurrency;
+   private final ContainerStateCache cache;
+   private final ConcurrentMap<String, ListenableFuture<Image>> imageResolutions = Maps.newConcurrentMap();
+   private final PullPolicy pullPolicy;
+
+   /**
+    * When images requested by name are pulled.
+    */
+   public enum PullPolicy {
+      /**
+       * Always pull, so that tags such as <code>latest</code> are kept up to date.
+       */
+      ALWAYS,
+      /**
+       * Only pull images that are not present locally.
+       */
+      IF_NOT_PRESENT,
+      /**
+       * Never pull, only use local images.
+       */
+      NEVER;
+
+      public static PullPolicy fromValue(String value) {
+         return valueOf(value.trim().toUpperCase(Locale.ENGLISH).replace('-', '_'));
+      }
+   }
 
    @Inject
-   public DockerComputeServiceAdapter(DockerApi api) {
-      this.api = checkNotNull(api, "api");
+   public DockerComputeServiceAdapter(DockerHosts hosts, PlacementStrategy placement,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(DOCKER_INSPECT_CONCURRENCY) int inspectConcurrency,
+         @Named(DOCKER_CREATE_CONCURRENCY) int createConcurrency,
+         @Named(DOCKER_IMAGE_PULL_POLICY) String pullPolicy, ContainerStateCache cache) {
+      checkArgument(inspectConcurrency > 0, "%s must be positive", DOCKER_INSPECT_CONCURRENCY);
+      checkArgument(createConcurrency > 0, "%s must be positive", DOCKER_CREATE_CONCURRENCY);
+      this.hosts = checkNotNull(hosts, "hosts");
+      this.placement = checkNotNull(placement, "placement");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.inspectConcurrency = inspectConcurrency;
+      this.createConcurrency = createConcurrency;
+      this.pullPolicy = PullPolicy.fromValue(checkNotNull(pullPolicy, "pullPolicy"));
+      this.cache = checkNotNull(cache, "cache");
    }
 
-   @SuppressWarnings({ "rawtypes", "unchecked" })
    @Override
    public NodeAndInitialCredentials<Container> createNodeWithGroupEncodedIntoName(String group, String name,
                                                                                   Template template) {
+      Config containerConfig = containerConfig(group, template);
+      Host host = getOnlyElement(place(template, 1));
+      DockerApi api = host.getApi();
+      ensureImage(host, template);
+
+      logger.debug(">> creating new container on host(%s) with containerConfig(%s)", host, containerConfig);
+      Container container = api.getContainerApi().createContainer(name, containerConfig);
+      logger.trace("<< container(%s)", container.id());
+      hosts.remember(container.id(), host);
+
+      HostConfig hostConfig = containerConfig.hostConfig();
+
+      try {
+         api.getContainerApi().startContainer(container.id(), hostConfig);
+         container = api.getContainerApi().inspectContainer(container.id());
+      } catch (RuntimeException e) {
+         removeFailedContainer(container.id());
+         throw e;
+      }
+      if (container.state().exitCode() != 0) {
+         destroyNode(container.id());
+         throw new IllegalStateException(String.format("Container %s has not started correctly", container.id()));
+      }
+      cache.update(container);
+      return new NodeAndInitialCredentials<Container>(container, container.id(), loginCredentials(template));
+   }
+
+   /**
+    * Creates the containers of a group in one go, for {@link DockerCreateNodesInGroupThenAddToSet}. The container
+    * configuration is built once, the containers are created and then started with at most
+    * {@value org.jclouds.docker.DockerApiMetadata#DOCKER_CREATE_CONCURRENCY} calls in flight, and their exit codes
+    * are checked with a single {@link org.jclouds.docker.features.ContainerApi#listContainers(ListContainerOptions)}
+    * call. The outcome for each name is returned as a future, completed by the time this method returns, which
+    * fails when that container could not be created. Containers which fail to start, have exited or cannot be
+    * listed are removed.
+    * <p>
+    * The containers are described from the listing rather than inspected, so they lack the network settings until
+    * the node is refreshed, which happens while waiting for it to be running.
+    * <p>
+    * With several daemons, the containers are placed first and each daemon creates its share in parallel.
+    */
+   public Map<String, ListenableFuture<NodeAndInitialCredentials<Container>>> createNodesWithGroupEncodedIntoName(
+         final String group, Iterable<String> names, final Template template) {
+      final Config containerConfig = containerConfig(group, template);
+      final LoginCredentials credentials = loginCredentials(template);
+      List<String> allNames = ImmutableList.copyOf(names);
+      List<Host> placed = place(template, allNames.size());
+      final ListMultimap<Host, String> namesByHost = ArrayListMultimap.create();
+      for (int i = 0; i < allNames.size(); i++) {
+         namesByHost.put(placed.get(i), allNames.get(i));
+      }
+      final Map<String, ListenableFuture<NodeAndInitialCredentials<Container>>> results = Maps.newConcurrentMap();
+      applyAll(ImmutableList.copyOf(namesByHost.keySet()), new Function<Host, Void>() {
+         @Override
+         public Void apply(Host host) {
+            results.putAll(createNodesOnHost(host, group, namesByHost.get(host), template, containerConfig,
+                  credentials));
+            return null;
+         }
+      }, namesByHost.keySet().size());
+      ImmutableMap.Builder<String, ListenableFuture<NodeAndInitialCredentials<Container>>> ordered = ImmutableMap
+            .builder();
+      for (String name : allNames) {
+         ordered.put(name, results.get(name));
+      }
+      return ordered.build();
+   }
+
+   /**
+    * Creates the containers of a daemon. This does not throw: the failures are returned for each name, so that the
+    * containers created on the other daemons are still handed out.
+    */
+   private Map<String, ListenableFuture<NodeAndInitialCredentials<Container>>> createNodesOnHost(final Host host,
+         String group, List<String> names, Template template, final Config containerConfig,
+         LoginCredentials credentials) {
+      final DockerApi api = host.getApi();
+      final Map<String, RuntimeException> failures = Maps.newConcurrentMap();
+      final Map<String, String> ids = Maps.newConcurrentMap();
+      Map<String, NodeAndInitialCredentials<Container>> created = Maps.newHashMap();
+      try {
+         ensureImage(host, template);
+      } catch (RuntimeException e) {
+         for (String name : names) {
+            failures.put(name, e);
+         }
+         return results(names, created, failures);
+      }
+
+      logger.debug(">> creating new containers %s on host(%s) with containerConfig(%s)", names, host, containerConfig);
+      applyAll(names, new Function<String, Void>() {
+         @Override
+         public Void apply(String name) {
+            try {
+               String id = api.getContainerApi().createContainer(name, containerConfig).id();
+               hosts.remember(id, host);
+               ids.put(name, id);
+            } catch (RuntimeException e) {
+               failures.put(name, e);
+            }
+            return null;
+         }
+      }, createConcurrency);
+
+      applyAll(ImmutableList.copyOf(ids.entrySet()), new Function<Map.Entry<String, String>, Void>() {
+         @Override
+         public Void apply(Map.Entry<String, String> nameAndId) {
+            try {
+               api.getContainerApi().startContainer(nameAndId.getValue(), containerConfig.hostConfig());
+            } catch (RuntimeException e) {
+               ids.remove(nameAndId.getKey());
+               failures.put(nameAndId.getKey(), e);
+               removeFailedContainer(nameAndId.getValue());
+            }
+            return null;
+         }
+      }, createConcurrency);
+
+      try {
+         Map<String, ContainerSummary> summaries = Maps.newHashMap();
+         for (ContainerSummary summary : api.getContainerApi().listContainers(inGroup(group))) {
+            summaries.put(summary.id(), summary);
+         }
+         for (Map.Entry<String, String> nameAndId : ids.entrySet()) {
+            String id = nameAndId.getValue();
+            ContainerSummary summary = summaries.get(id);
+            State state = summary == null ? null : stateFromStatus(summary.status());
+            if (state == null || state.exitCode() != 0) {
+               failures.put(nameAndId.getKey(),
+                     new IllegalStateException(String.format("Container %s has not started correctly", id)));
+            } else {
+               Container container = Container.builder().id(id).name("/" + nameAndId.getKey())
+                     .config(containerConfig).hostConfig(containerConfig.hostConfig()).state(state)
+                     .image(summary.image()).command(summary.command()).status(summary.status())
+                     .ports(summary.ports()).build();
+               created.put(nameAndId.getKey(), new NodeAndInitialCredentials<Container>(container, id, credentials));
+            }
+         }
+      } catch (RuntimeException e) {
+         // without the listing the state of the containers is unknown, so none of them is handed out
+         created.clear();
+         for (String name : ids.keySet()) {
+            failures.put(name, e);
+         }
+      }
+      for (Map.Entry<String, String> nameAndId : ids.entrySet()) {
+         if (!created.containsKey(nameAndId.getKey())) {
+            removeFailedContainer(nameAndId.getValue());
+         }
+      }
+      logger.trace("<< containers(%s) failed(%s)", created.keySet(), failures.keySet());
+      return results(names, created, failures);
+   }
+
+   private void removeFailedContainer(String id) {
+      try {
+         destroyNode(id);
+      } catch (RuntimeException e) {
+         logger.warn(e, "could not remove container %s which failed to start", id);
+      }
+   }
+
+   private static Map<String, ListenableFuture<NodeAndInitialCredentials<Container>>> results(List<String> names,
+         Map<String, NodeAndInitialCredentials<Container>> created, Map<String, RuntimeException> failures) {
+      Map<String, ListenableFuture<NodeAndInitialCredentials<Container>>> results = Maps.newHashMap();
+      for (String name : names) {
+         NodeAndInitialCredentials<Container> node = created.get(name);
+         results.put(name, node != null ? Futures.immediateFuture(node)
+               : Futures.<NodeAndInitialCredentials<Container>>immediateFailedFuture(failures.get(name)));
+      }
+      return results;
+   }
+
+   /**
+    * Chooses the daemons of new containers: the daemon of the template location when it is a host, or else the
+    * daemons chosen by the placement strategy.
+    */
+   private List<Host> place(Template template, int count) {
+      if (!hosts.isMultiHost()) {
+         return Collections.nCopies(count, hosts.getHosts().get(0));
+      }
+      Location location = template.getLocation();
+      if (location != null && location.getScope() == LocationScope.HOST) {
+         Host host = hosts.getHost(location.getId());
+         checkArgument(host != null, "location %s is not a docker host", location.getId());
+         return Collections.nCopies(count, host);
+      }
+      List<Host> placed = placement.place(hosts.getHosts(), count, template);
+      checkState(placed.size() == count, "%s placed %s containers instead of %s", placement, placed.size(), count);
+      return placed;
+   }
+
+   /**
+    * Pulls the image of the template on a daemon that lacks it. The images of a pool are listed from all its daemons,
+    * so the image may have been found on another one.
+    */
+   private void ensureImage(Host host, Template template) {
+      if (!hosts.isMultiHost() || pullPolicy == PullPolicy.NEVER) {
+         return;
+      }
+      if (host.getApi().getImageApi().inspectImage(template.getImage().getId()) == null) {
+         pullImage(host.getApi(), template.getImage().getDescription());
+      }
+   }
+
+   /**
+    * Parses the status column of the container listing, such as <code>Up 2 seconds</code> or
+    * <code>Exited (1) 2 seconds ago</code>.
+    *
+    * @return the state, or null if the status is not recognized
+    */
+   private static State stateFromStatus(String status) {
+      if (status == null) {
+         return null;
+      }
+      if (status.startsWith("Up")) {
+         return State.create(0, true, 0, "", "", status.endsWith("(Paused)"), false, "running", false, false, null);
+      }
+      if (status.startsWith("Restarting")) {
+         return State.create(0, true, 0, "", "", false, true, "restarting", false, false, null);
+      }
+      Matcher exited = EXITED_STATUS.matcher(status);
+      if (exited.lookingAt()) {
+         return State.create(0, false, Integer.parseInt(exited.group(1)), "", "", false, false, "exited", false,
+               false, null);
+      }
+      return null;
+   }
+
+   private static LoginCredentials loginCredentials(Template template) {
+      String loginUser = template.getImage().getDefaultCredentials().getUser();
+      String loginUserPassword = template.getImage().getDefaultCredentials().getOptionalPassword().or("password");
+      return LoginCredentials.builder().user(loginUser).password(loginUserPassword).build();
+   }
+
+   private static Config containerConfig(String group, Template template) {
       checkNotNull(template, "template was null");
       TemplateOptions options = template.getOptions();
       checkNotNull(options, "template options was null");
 
       String imageId = checkNotNull(template.getImage().getId(), "template image id must not be null");
-      String loginUser = template.getImage().getDefaultCredentials().getUser();
-      String loginUserPassword = template.getImage().getDefaultCredentials().getOptionalPassword().or("password");
 
       DockerTemplateOptions templateOptions = DockerTemplateOptions.class.cast(options);
 
@@ -149,6 +470,23 @@ public class DockerComputeServiceAdapter implements
 
          hostConfigBuilder.networkMode(templateOptions.getNetworkMode());
 
+         // the limits set in the options take precedence over those of the hardware profile
+         Hardware hardware = template.getHardware();
+         if (templateOptions.getMemory() == null && hardware != null) {
+            hostConfigBuilder.memory(HardwareProfiles.memoryLimit(hardware));
+         }
+         if (templateOptions.getMemoryReservation() != null) {
+            hostConfigBuilder.memoryReservation(HardwareProfiles.bytes(templateOptions.getMemoryReservation()));
+         }
+         if (templateOptions.getCpus() != null) {
+            hostConfigBuilder.nanoCpus(Math.round(templateOptions.getCpus() * HardwareProfiles.NANO_CPUS_PER_CPU));
+         } else if (templateOptions.getCpuQuota() != null) {
+            hostConfigBuilder.cpuQuota(templateOptions.getCpuQuota()).cpuPeriod(templateOptions.getCpuPeriod());
+         } else if (hardware != null && HardwareProfiles.cpuQuota(hardware) != null) {
+            hostConfigBuilder.cpuQuota(HardwareProfiles.cpuQuota(hardware))
+                  .cpuPeriod(HardwareProfiles.DEFAULT_CPU_PERIOD);
+         }
+
          containerConfigBuilder.hostConfig(hostConfigBuilder.build());
 
          // add the inbound ports into exposed ports map
@@ -187,135 +525,443 @@ public class DockerComputeServiceAdapter implements
          containerConfigBuilder.image(imageId);
       }
 
-      containerConfig = containerConfigBuilder.build();
-
-      logger.debug(">> creating new container with containerConfig(%s)", containerConfig);
-      Container container = api.getContainerApi().createContainer(name, containerConfig);
-      logger.trace("<< container(%s)", container.id());
-
-      HostConfig hostConfig = containerConfig.hostConfig();
-
-      api.getContainerApi().startContainer(container.id(), hostConfig);
-      container = api.getContainerApi().inspectContainer(container.id());
-      if (container.state().exitCode() != 0) {
-         destroyNode(container.id());
-         throw new IllegalStateException(String.format("Container %s has not started correctly", container.id()));
+      Config config = containerConfigBuilder.build();
+      Map<String, String> labels = Maps.newLinkedHashMap();
+      if (config.labels() != null) {
+         labels.putAll(config.labels());
       }
-      return new NodeAndInitialCredentials(container, container.id(),
-              LoginCredentials.builder().user(loginUser).password(loginUserPassword).build());
+      labels.put(GROUP_LABEL, group);
+      return config.toBuilder().labels(labels).build();
    }
 
+   /**
+    * Sizes the hardware profiles after the CPUs and memory reported by
+    * {@link org.jclouds.docker.features.MiscApi#getInfo()}. With several daemons, the profiles fit the smallest one,
+    * so that any daemon the placement strategy chooses can run them.
+    *
+    * @see HardwareProfiles
+    */
    @Override
    public Iterable<Hardware> listHardwareProfiles() {
-      Set<Hardware> hardware = Sets.newLinkedHashSet();
-      // todo they are only placeholders at the moment
-      hardware.add(new HardwareBuilder().ids("micro").hypervisor("lxc").name("micro").processor(new Processor(1, 1)).ram(512).build());
-      hardware.add(new HardwareBuilder().ids("small").hypervisor("lxc").name("small").processor(new Processor(1, 1)).ram(1024).build());
-      hardware.add(new HardwareBuilder().ids("medium").hypervisor("lxc").name("medium").processor(new Processor(2, 1)).ram(2048).build());
-      hardware.add(new HardwareBuilder().ids("large").hypervisor("lxc").name("large").processor(new Processor(2, 1)).ram(3072).build());
-      return hardware;
+      int ncpu = Integer.MAX_VALUE;
+      long memTotal = Long.MAX_VALUE;
+      for (Info info : forAllHosts(new Function<Host, Info>() {
+         @Override
+         public Info apply(Host host) {
+            return host.getApi().getMiscApi().getInfo();
+         }
+      })) {
+         ncpu = Math.min(ncpu, info.ncpu());
+         memTotal = Math.min(memTotal, info.memTotal());
+      }
+      return HardwareProfiles.fromCapacity(ncpu, memTotal);
    }
 
    /**
     * Method based on {@link org.jclouds.docker.features.ImageApi#listImages()}. It retrieves additional
-    * information by inspecting each image.
+    * information by inspecting each image, with the number of concurrent calls bounded by the
+    * {@value org.jclouds.docker.DockerApiMetadata#DOCKER_INSPECT_CONCURRENCY} property. The result is reused
+    * until the events stream reports an image change when the container state cache is live. With several daemons,
+    * they are all listed in parallel and an image found on several of them is returned once.
     *
     * @see org.jclouds.compute.ComputeServiceAdapter#listImages()
     */
    @Override
    public Set<Image> listImages() {
-      Set<Image> images = Sets.newHashSet();
-      for (ImageSummary imageSummary : api.getImageApi().listImages()) {
-         // less efficient than just listImages but returns richer json that needs repoTags coming from listImages
-         Image inspected = api.getImageApi().inspectImage(imageSummary.id());
-         inspected = Image.create(inspected.id(), inspected.author(), inspected.comment(), inspected.config(),
-                    inspected.containerConfig(), inspected.parent(), inspected.created(), inspected.container(),
-                 inspected.dockerVersion(), inspected.architecture(), inspected.os(), inspected.size(),
-                    inspected.virtualSize(), imageSummary.repoTags());
-         images.add(inspected);
+      if (useCache()) {
+         long generation = cache.imageGeneration();
+         Set<Image> images = cache.getImages();
+         if (images == null) {
+            images = inspectImages();
+            cache.putImages(images, generation);
+         }
+         return images;
       }
-      return images;
+      return inspectImages();
    }
 
+   private Set<Image> inspectImages() {
+      Map<String, Image> images = Maps.newLinkedHashMap();
+      for (Iterable<Image> hostImages : forAllHosts(new Function<Host, Iterable<Image>>() {
+         @Override
+         public Iterable<Image> apply(Host host) {
+            return inspectImages(host.getApi());
+         }
+      })) {
+         for (Image image : hostImages) {
+            if (!images.containsKey(image.id())) {
+               images.put(image.id(), image);
+            }
+         }
+      }
+      return ImmutableSet.copyOf(images.values());
+   }
+
+   private Iterable<Image> inspectImages(final DockerApi api) {
+      return applyAll(api.getImageApi().listImages(), new Function<ImageSummary, Image>() {
+         @Override
+         public Image apply(ImageSummary imageSummary) {
+            return inspectImage(api, imageSummary);
+         }
+      }, inspectConcurrency);
+   }
+
+   /**
+    * Gets an image by id or by name. Images requested by name are pulled according to the
+    * {@value org.jclouds.docker.DockerApiMetadata#DOCKER_IMAGE_PULL_POLICY} property, and concurrent requests for the
+    * same name share a single pull. With several daemons, images requested by name are made available on all of them.
+    */
    @Override
    public Image getImage(final String imageIdOrName) {
       checkNotNull(imageIdOrName);
       if (imageIdOrName.startsWith("sha256")) {
-         // less efficient than just inspectImage but listImages return repoTags
-         return find(listImages(), new Predicate<Image>() {
-            @Override
-            public boolean apply(Image input) {
-               // Only attempt match on id as we should try to pull again anyway if using name
-               return input.id().equals(imageIdOrName);
+         for (Host host : hosts.getHosts()) {
+            Image image = getImageById(host.getApi(), imageIdOrName);
+            if (image != null) {
+               return image;
             }
-         }, null);
+         }
+         return null;
       }
 
-      // Image is not cached or getting image by name so try to pull it
-      api.getImageApi().createImage(CreateImageOptions.Builder.fromImage(imageIdOrName));
+      SettableFuture<Image> resolution = SettableFuture.create();
+      ListenableFuture<Image> inFlight = imageResolutions.putIfAbsent(imageIdOrName, resolution);
+      if (inFlight != null) {
+         try {
+            return Uninterruptibles.getUninterruptibly(inFlight);
+         } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+         }
+      }
+      try {
+         Image image = resolveImage(imageIdOrName);
+         resolution.set(image);
+         return image;
+      } catch (RuntimeException e) {
+         resolution.setException(e);
+         throw e;
+      } finally {
+         imageResolutions.remove(imageIdOrName, resolution);
+      }
+   }
 
-      // as above this ensure repotags are returned
-      return find(listImages(), new Predicate<Image>() {
+   private static Image getImageById(DockerApi api, final String imageId) {
+      Image image = api.getImageApi().inspectImage(imageId);
+      if (image == null || (image.repoTags() != null && !image.repoTags().isEmpty())) {
+         return image;
+      }
+      // listImages returns the repoTags that inspectImage lacks on older daemons
+      ImageSummary imageSummary = find(api.getImageApi().listImages(), new Predicate<ImageSummary>() {
          @Override
-         public boolean apply(Image input) {
-            for (String tag : input.repoTags()) {
-               if (tag.equals(imageIdOrName) || tag.equals(imageIdOrName + ":latest")) {
-                  return true;
-               }
-            }
-            return false;
+         public boolean apply(ImageSummary input) {
+            return input.id().equals(imageId);
          }
       }, null);
+      return imageSummary == null ? null : withRepoTags(image, imageSummary.repoTags());
+   }
+
+   private Image resolveImage(final String imageName) {
+      return Iterables.getFirst(forAllHosts(new Function<Host, Image>() {
+         @Override
+         public Image apply(Host host) {
+            return resolveImage(host.getApi(), imageName);
+         }
+      }), null);
+   }
+
+   private Image resolveImage(DockerApi api, String imageName) {
+      Image image = pullPolicy == PullPolicy.ALWAYS ? null : api.getImageApi().inspectImage(imageName);
+      if (image == null && pullPolicy != PullPolicy.NEVER) {
+         pullImage(api, imageName);
+         image = api.getImageApi().inspectImage(imageName);
+      }
+      if (image == null || (image.repoTags() != null && !image.repoTags().isEmpty())) {
+         return image;
+      }
+      // older daemons do not return the tags when inspecting, but the image is known by the requested name
+      String lastSegment = imageName.substring(imageName.lastIndexOf('/') + 1);
+      return withRepoTags(image, ImmutableList.of(lastSegment.contains(":") ? imageName : imageName + ":latest"));
+   }
+
+   /**
+    * Pulls the image and waits for the pull to complete. A failed pull is only logged, as the image may still be
+    * available locally.
+    */
+   private void pullImage(DockerApi api, final String imageName) {
+      logger.debug(">> pulling image(%s)", imageName);
+      DockerProgressReader reader = new DockerProgressReader(api.getImageApi().createImage(
+            CreateImageOptions.Builder.fromImage(imageName)));
+      try {
+         ProgressMessage error = reader.readAll(new DockerProgressReader.Listener() {
+            @Override
+            public void onProgress(String layerId, long current, long total, long aggregateCurrent,
+                  long aggregateTotal) {
+               logger.trace("<< pulling image(%s) layer(%s) %d/%d bytes", imageName, layerId, current, total);
+            }
+         });
+         if (error != null) {
+            logger.warn("<< could not pull image(%s): %s", imageName, error.error());
+         } else {
+            logger.debug("<< pulled image(%s)", imageName);
+         }
+      } catch (IOException e) {
+         logger.warn(e, "<< could not read the progress of pulling image(%s)", imageName);
+      } finally {
+         closeQuietly(reader);
+      }
+   }
+
+   private static Image inspectImage(DockerApi api, ImageSummary imageSummary) {
+      Image inspected = api.getImageApi().inspectImage(imageSummary.id());
+      if (inspected == null) {
+         // removed since it was listed
+         return null;
+      }
+      return withRepoTags(inspected, imageSummary.repoTags());
+   }
+
+   private static Image withRepoTags(Image image, List<String> repoTags) {
+      return Image.create(image.id(), image.author(), image.comment(), image.config(), image.containerConfig(),
+            image.parent(), image.created(), image.container(), image.dockerVersion(), image.architecture(),
+            image.os(), image.size(), image.virtualSize(), repoTags);
    }
 
    @Override
    public Iterable<Container> listNodes() {
-      Set<Container> containers = Sets.newHashSet();
-      for (ContainerSummary containerSummary : api.getContainerApi().listContainers(ListContainerOptions.Builder.all(true))) {
-         // less efficient than just listNodes but returns richer json
-         containers.add(api.getContainerApi().inspectContainer(containerSummary.id()));
+      if (useCache()) {
+         return ImmutableSet.copyOf(cache.getContainers());
+      }
+      // less efficient than just listContainers but returns richer json
+      return inspectContainers(ListContainerOptions.Builder.all(true));
+   }
+
+   /**
+    * Lists the containers of every daemon in parallel, and inspects them.
+    */
+   private Set<Container> inspectContainers(final ListContainerOptions options) {
+      return ImmutableSet.copyOf(Iterables.concat(forAllHosts(new Function<Host, Iterable<Container>>() {
+         @Override
+         public Iterable<Container> apply(final Host host) {
+            return applyAll(host.getApi().getContainerApi().listContainers(options),
+                  new Function<ContainerSummary, Container>() {
+                     @Override
+                     public Container apply(ContainerSummary containerSummary) {
+                        hosts.remember(containerSummary.id(), host);
+                        return host.getApi().getContainerApi().inspectContainer(containerSummary.id());
+                     }
+                  }, inspectConcurrency);
+         }
+      })));
+   }
+
+   /**
+    * Lists the containers created by jclouds in the group. The daemon filters the containers on their
+    * {@link #GROUP_LABEL group label}, so that only the containers of the group are inspected.
+    */
+   public Iterable<Container> listNodesInGroup(final String group) {
+      checkNotNull(group, "group");
+      if (useCache()) {
+         return ImmutableSet.copyOf(Iterables.filter(cache.getContainers(), new Predicate<Container>() {
+            @Override
+            public boolean apply(Container container) {
+               return container.config() != null && container.config().labels() != null
+                     && group.equals(container.config().labels().get(GROUP_LABEL));
+            }
+         }));
+      }
+      return inspectContainers(inGroup(group));
+   }
+
+   /**
+    * Lists the names of the containers, without inspecting them, so that new names can be checked for conflicts.
+    *
+    * @param containing if not null, only the names containing this string are listed
+    */
+   public Set<String> listNodeNames(@Nullable String containing) {
+      final ListContainerOptions options = ListContainerOptions.Builder.all(true);
+      if (containing != null) {
+         options.filters(ImmutableMap.<String, List<String>>of("name", ImmutableList.of(containing)));
+      }
+      ImmutableSet.Builder<String> names = ImmutableSet.builder();
+      for (List<ContainerSummary> summaries : forAllHosts(new Function<Host, List<ContainerSummary>>() {
+         @Override
+         public List<ContainerSummary> apply(Host host) {
+            return host.getApi().getContainerApi().listContainers(options);
+         }
+      })) {
+         for (ContainerSummary summary : summaries) {
+            for (String name : summary.names()) {
+               names.add(name.startsWith("/") ? name.substring(1) : name);
+            }
+         }
       }
-      return containers;
+      return names.build();
+   }
+
+   private static ListContainerOptions inGroup(String group) {
+      return ListContainerOptions.Builder.all(true)
+            .filters(ImmutableMap.<String, List<String>>of("label", ImmutableList.of(GROUP_LABEL + "=" + group)));
    }
 
    @Override
    public Iterable<Container> listNodesByIds(final Iterable<String> ids) {
-      Set<Container> containers = Sets.newHashSet();
-      for (String id : ids) {
-         containers.add(api.getContainerApi().inspectContainer(id));
+      if (useCache()) {
+         ImmutableSet.Builder<Container> containers = ImmutableSet.builder();
+         for (String id : ids) {
+            Container container = getNode(id);
+            if (container != null) {
+               containers.add(container);
+            }
+         }
+         return containers.build();
       }
-      return containers;
+      return ImmutableSet.copyOf(applyAll(ImmutableList.copyOf(ids), new Function<String, Container>() {
+         @Override
+         public Container apply(String id) {
+            return inspectContainer(id);
+         }
+      }, inspectConcurrency));
+   }
+
+   /**
+    * Inspects the container on its daemon, searching all the daemons for containers that have not been seen yet or
+    * are looked up by name.
+    */
+   private Container inspectContainer(final String idOrName) {
+      Host host = hosts.hostOf(idOrName);
+      if (host != null) {
+         Container container = host.getApi().getContainerApi().inspectContainer(idOrName);
+         if (container == null) {
+            hosts.forget(idOrName);
+         }
+         return container;
+      }
+      return Iterables.getFirst(forAllHosts(new Function<Host, Container>() {
+         @Override
+         public Container apply(Host candidate) {
+            Container container = candidate.getApi().getContainerApi().inspectContainer(idOrName);
+            if (container != null) {
+               hosts.remember(container.id(), candidate);
+            }
+            return container;
+         }
+      }), null);
+   }
+
+   /**
+    * @return the daemon of the container, or the daemon of the context endpoint when the container is not found, so
+    *         that the call fails as it would with a single daemon
+    */
+   private Host hostFor(String id) {
+      Host host = hosts.hostOf(id);
+      if (host == null) {
+         Container container = inspectContainer(id);
+         host = container == null ? null : hosts.hostOf(container.id());
+      }
+      return host != null ? host : hosts.getHosts().get(0);
+   }
+
+   private boolean useCache() {
+      // the cache follows the events of the daemon of the context endpoint only
+      return !hosts.isMultiHost() && cache.isLive();
+   }
+
+   private <O> Iterable<O> forAllHosts(Function<Host, O> function) {
+      return applyAll(hosts.getHosts(), function, hosts.getHosts().size());
+   }
+
+   /**
+    * Applies the function to every input with at most {@code concurrency} calls in flight. The calling thread works
+    * alongside the tasks submitted to the user executor, so the call completes even when the executor has no free
+    * thread. Null results, such as inspected resources that have disappeared in the meantime, are skipped.
+    *
+    * @return the non-null results, in the order of the inputs
+    */
+   private <I, O> Iterable<O> applyAll(final List<I> inputs, final Function<? super I, O> function, int concurrency) {
+      final Object[] results = new Object[inputs.size()];
+      final AtomicInteger next = new AtomicInteger();
+      // counts the inputs that have been applied, whichever thread claimed them
+      final CountDownLatch applied = new CountDownLatch(inputs.size());
+      final AtomicReference<RuntimeException> failure = new AtomicReference<RuntimeException>();
+      Runnable worker = new Runnable() {
+         @Override
+         public void run() {
+            for (int index = next.getAndIncrement(); index < inputs.size(); index = next.getAndIncrement()) {
+               try {
+                  // after a failure, the remaining inputs are only claimed so that the count completes
+                  if (failure.get() == null) {
+                     results[index] = function.apply(inputs.get(index));
+                  }
+               } catch (RuntimeException e) {
+                  failure.compareAndSet(null, e);
+               } finally {
+                  applied.countDown();
+               }
+            }
+         }
+      };
+      List<ListenableFuture<?>> helpers = Lists.newArrayList();
+      for (int i = 1; i < Math.min(concurrency, inputs.size()); i++) {
+         helpers.add(userExecutor.submit(worker));
+      }
+      worker.run();
+      // every input has been claimed: helpers that have not started have nothing left to do, and the inputs claimed
+      // by the running ones are waited for
+      for (ListenableFuture<?> helper : helpers) {
+         helper.cancel(false);
+      }
+      Uninterruptibles.awaitUninterruptibly(applied);
+      if (failure.get() != null) {
+         throw failure.get();
+      }
+      @SuppressWarnings("unchecked")
+      List<O> list = (List<O>) Arrays.asList(results);
+      return Iterables.filter(list, Predicates.notNull());
    }
 
    @Override
    public Iterable<Location> listLocations() {
-      return ImmutableSet.of();
+      return hosts.getLocations();
    }
 
    @Override
    public Container getNode(String id) {
-      return api.getContainerApi().inspectContainer(id);
+      if (useCache()) {
+         Container container = cache.getContainer(id);
+         if (container != null) {
+            return container;
+         }
+      }
+      // not cached yet, or looked up by name
+      Container container = inspectContainer(id);
+      if (container != null) {
+         cache.update(container);
+      }
+      return container;
    }
 
    @Override
    public void destroyNode(String id) {
-      api.getContainerApi().removeContainer(id, RemoveContainerOptions.Builder.force(true));
+      hostFor(id).getApi().getContainerApi().removeContainer(id, RemoveContainerOptions.Builder.force(true));
+      cache.remove(id);
+      hosts.forget(id);
    }
 
    @Override
    public void rebootNode(String id) {
+      DockerApi api = hostFor(id).getApi();
       api.getContainerApi().stopContainer(id);
       api.getContainerApi().startContainer(id);
    }
 
    @Override
    public void resumeNode(String id) {
-      api.getContainerApi().unpause(id);
+      hostFor(id).getApi().getContainerApi().unpause(id);
    }
 
    @Override
    public void suspendNode(String id) {
-      api.getContainerApi().pause(id);
+      hostFor(id).getApi().getContainerApi().pause(id);
    }
 
 }
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.compute.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.compute.ComputeServiceAdapter.NodeAndInitialCredentials;
+import org.jclouds.compute.config.CustomizationResponse;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.compute.strategy.CreateNodeWithGroupEncodedIntoName;
+import org.jclouds.compute.strategy.CustomizeNodeAndAddToGoodMapOrPutExceptionIntoBadMap;
+import org.jclouds.compute.strategy.ListNodesStrategy;
+import org.jclouds.compute.strategy.PrioritizeCredentialsFromTemplate;
+import org.jclouds.compute.strategy.impl.CreateNodesWithGroupEncodedIntoNameThenAddToSet;
+import org.jclouds.docker.domain.Container;
+import org.jclouds.domain.Credentials;
+import org.jclouds.domain.LoginCredentials;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Creates the containers of a group with
+ * {@link DockerComputeServiceAdapter#createNodesWithGroupEncodedIntoName(String, Iterable, Template)} and hands the
+ * outcome for each of them to the usual node customization, so that creating many nodes is bounded by the capacity
+ * of the daemon rather than by a create, start and inspect round trip per node.
+ */
+@Singleton
+public class DockerCreateNodesInGroupThenAddToSet extends CreateNodesWithGroupEncodedIntoNameThenAddToSet {
+
+   private static final int MAX_NAME_TRIES = 100;
+
+   private final DockerComputeServiceAdapter adapter;
+   private final Function<Container, NodeMetadata> nodeMetadataAdapter;
+   private final PrioritizeCredentialsFromTemplate prioritizeCredentialsFromTemplate;
+   private final Map<String, Credentials> credentialStore;
+
+   @Inject
+   protected DockerCreateNodesInGroupThenAddToSet(CreateNodeWithGroupEncodedIntoName addNodeWithGroupStrategy,
+         ListNodesStrategy listNodesStrategy, GroupNamingConvention.Factory namingConvention,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         CustomizeNodeAndAddToGoodMapOrPutExceptionIntoBadMap.Factory customizeNodeAndAddToGoodMapOrPutExceptionIntoBadMapFactory,
+         DockerComputeServiceAdapter adapter, Function<Container, NodeMetadata> nodeMetadataAdapter,
+         PrioritizeCredentialsFromTemplate prioritizeCredentialsFromTemplate, Map<String, Credentials> credentialStore) {
+      super(addNodeWithGroupStrategy, listNodesStrategy, namingConvention, userExecutor,
+            customizeNodeAndAddToGoodMapOrPutExceptionIntoBadMapFactory);
+      this.adapter = checkNotNull(adapter, "adapter");
+      this.nodeMetadataAdapter = checkNotNull(nodeMetadataAdapter, "nodeMetadataAdapter");
+      this.prioritizeCredentialsFromTemplate = checkNotNull(prioritizeCredentialsFromTemplate,
+            "prioritizeCredentialsFromTemplate");
+      this.credentialStore = checkNotNull(credentialStore, "credentialStore");
+   }
+
+   @Override
+   public Map<?, ListenableFuture<Void>> execute(String group, int count, Template template,
+         Set<NodeMetadata> goodNodes, Map<NodeMetadata, Exception> badNodes,
+         Multimap<NodeMetadata, CustomizationResponse> customizationResponses) {
+      if (count == 1) {
+         return super.execute(group, count, template, goodNodes, badNodes, customizationResponses);
+      }
+      Set<String> names = getNextNames(group, template, count);
+      checkState(names.size() == count, "only found %s free names out of %s for group %s", names.size(), count,
+            group);
+      Map<String, ListenableFuture<NodeAndInitialCredentials<Container>>> created = adapter
+            .createNodesWithGroupEncodedIntoName(group, names, template);
+      Map<String, ListenableFuture<Void>> responses = Maps.newLinkedHashMap();
+      for (String name : names) {
+         ListenableFuture<AtomicReference<NodeMetadata>> node = Futures.transform(created.get(name),
+               toNodeMetadata(template));
+         responses.put(name, Futures.transform(node,
+               customizeNodeAndAddToGoodMapOrPutExceptionIntoBadMapFactory.create(template.getOptions(), goodNodes,
+                     badNodes, customizationResponses), userExecutor));
+      }
+      return responses;
+   }
+
+   /**
+    * Describes a created container the way
+    * {@link org.jclouds.compute.strategy.impl.AdaptingComputeServiceStrategies} does for a single node: the
+    * credentials of the template take precedence and are stored for the node.
+    */
+   private Function<NodeAndInitialCredentials<Container>, AtomicReference<NodeMetadata>> toNodeMetadata(
+         final Template template) {
+      return new Function<NodeAndInitialCredentials<Container>, AtomicReference<NodeMetadata>>() {
+         @Override
+         public AtomicReference<NodeMetadata> apply(NodeAndInitialCredentials<Container> created) {
+            LoginCredentials credentials = prioritizeCredentialsFromTemplate.apply(template, created.getCredentials());
+            NodeMetadata node = nodeMetadataAdapter.apply(created.getNode());
+            if (credentials != null) {
+               credentialStore.put("node#" + created.getNodeId(), credentials);
+               node = NodeMetadataBuilder.fromNodeMetadata(node).credentials(credentials).build();
+            }
+            return new AtomicReference<NodeMetadata>(node);
+         }
+      };
+   }
+
+   /**
+    * Checks the new names against the names of the existing containers, which the daemon lists without the
+    * containers being inspected, rather than against the details of every node. The names may clash
+    * {@value #MAX_NAME_TRIES} times in all before giving up, however large the group.
+    */
+   @Override
+   protected Set<String> getNextNames(String group, Template template, int count) {
+      Iterator<String> customNames = template.getOptions().getNodeNames().iterator();
+      // generated names start with the group, custom names may be anything
+      Set<String> existingNames = adapter.listNodeNames(customNames.hasNext() ? null : group);
+      Set<String> names = Sets.newLinkedHashSet();
+      for (int tries = 0; names.size() < count && tries < count + MAX_NAME_TRIES; tries++) {
+         String name = customNames.hasNext() ? customNames.next()
+               : namingConvention.createWithoutPrefix().uniqueNameForGroup(group);
+         if (!existingNames.contains(name)) {
+            names.add(name);
+         }
+      }
+      return names;
+   }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.compute.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.List;
+
+import javax.annotation.Resource;
+import javax.inject.Named;
+
+import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.docker.compute.internal.DockerHosts.Host;
+import org.jclouds.docker.domain.Info;
+import org.jclouds.logging.Logger;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+/**
+ * Places each container on the least loaded daemon, as reported by
+ * {@link org.jclouds.docker.features.MiscApi#getInfo()}. The daemons are asked once per call, and the load of a daemon
+ * grows with each container placed on it, so that a batch is spread across the pool.
+ */
+public class LeastLoadedPlacement implements PlacementStrategy {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   /**
+    * Places containers on the daemons running the fewest containers.
+    */
+   public static LeastLoadedPlacement leastContainers() {
+      return new LeastLoadedPlacement(false);
+   }
+
+   /**
+    * Places containers on the daemons with the most memory per container.
+    */
+   public static LeastLoadedPlacement leastMemory() {
+      return new LeastLoadedPlacement(true);
+   }
+
+   private final boolean byMemory;
+
+   private LeastLoadedPlacement(boolean byMemory) {
+      this.byMemory = byMemory;
+   }
+
+   @Override
+   public List<Host> place(List<Host> hosts, int count, Template template) {
+      checkArgument(!hosts.isEmpty(), "there must be at least one host");
+      List<Host> candidates = Lists.newArrayList();
+      List<Integer> containers = Lists.newArrayList();
+      List<Long> memory = Lists.newArrayList();
+      for (Host host : hosts) {
+         try {
+            Info info = host.getApi().getMiscApi().getInfo();
+            candidates.add(host);
+            containers.add(info.containers());
+            memory.add(Math.max(info.memTotal(), 1));
+         } catch (RuntimeException e) {
+            logger.warn(e, "<< could not get the load of host(%s), not placing containers on it", host);
+         }
+      }
+      if (candidates.isEmpty()) {
+         throw new IllegalStateException("could not get the load of any host in " + hosts);
+      }
+
+      ImmutableList.Builder<Host> placed = ImmutableList.builder();
+      for (int i = 0; i < count; i++) {
+         int best = 0;
+         for (int candidate = 1; candidate < candidates.size(); candidate++) {
+            if (load(containers.get(candidate), memory.get(candidate)) < load(containers.get(best), memory.get(best))) {
+               best = candidate;
+            }
+         }
+         placed.add(candidates.get(best));
+         containers.set(best, containers.get(best) + 1);
+      }
+      return placed.build();
+   }
+
+   private double load(int containers, long memory) {
+      // the memory left to each container once one more is added
+      return byMemory ? (containers + 1) / (double) memory : containers;
+   }
+
+   @Override
+   public String toString() {
+      return byMemory ? "least-memory" : "least-containers";
+   }
+}
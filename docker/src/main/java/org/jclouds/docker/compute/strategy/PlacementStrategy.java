@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.compute.strategy;
+
+import java.util.List;
+
+import org.jclouds.compute.domain.Template;
+import org.jclouds.docker.compute.internal.DockerHosts.Host;
+
+/**
+ * Chooses the daemons new containers are created on, when several daemons are configured with
+ * {@value org.jclouds.docker.DockerApiMetadata#DOCKER_HOSTS} and the template does not name a host location.
+ * Implementations are configured with {@value org.jclouds.docker.DockerApiMetadata#DOCKER_PLACEMENT}.
+ */
+public interface PlacementStrategy {
+
+   /**
+    * @param hosts the daemons of the pool
+    * @param count the number of containers to create
+    * @param template the template of the containers
+    * @return the daemon of each container, with {@code count} elements
+    */
+   List<Host> place(List<Host> hosts, int count, Template template);
+}
@@ -16,46 +16,89 @@
  */
 package org.jclouds.docker.config;
 
+import static org.jclouds.docker.DockerApiMetadata.DOCKER_KEEP_ALIVE;
+import static org.jclouds.docker.DockerApiMetadata.DOCKER_MAX_IDLE_CONNECTIONS;
+import static org.jclouds.docker.DockerApiMetadata.DOCKER_STREAM_READ_TIMEOUT;
+
 import java.io.File;
+import java.net.URI;
+import java.util.List;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
+import javax.net.ssl.SSLSocketFactory;
 
+import org.jclouds.docker.filters.UnixSocketEndpoint;
 import org.jclouds.docker.suppliers.DockerSSLContextSupplier;
+import org.jclouds.docker.util.UnixDomainSocketFactory;
 import org.jclouds.domain.Credentials;
 import org.jclouds.http.okhttp.OkHttpClientSupplier;
 import org.jclouds.location.Provider;
 
+import com.google.common.base.Optional;
 import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
+import com.squareup.okhttp.ConnectionPool;
 import com.squareup.okhttp.ConnectionSpec;
 import com.squareup.okhttp.OkHttpClient;
 import com.squareup.okhttp.TlsVersion;
 
+/**
+ * Builds the clients used to talk to the daemon. All the clients share one connection pool, and the SSL socket
+ * factory, which requires reading the client certificates, is only built once.
+ */
 @Singleton
 public class DockerOkHttpClientSupplier implements OkHttpClientSupplier {
 
-    private final DockerSSLContextSupplier dockerSSLContextSupplier;
-    private final Supplier<Credentials> creds;
+    private static final List<ConnectionSpec> CONNECTION_SPECS = ImmutableList.of(
+          new ConnectionSpec.Builder(ConnectionSpec.MODERN_TLS)
+                .tlsVersions(TlsVersion.TLS_1_0, TlsVersion.TLS_1_1, TlsVersion.TLS_1_2)
+                .build(),
+          new ConnectionSpec.Builder(ConnectionSpec.CLEARTEXT)
+                .build());
+
+    private final Supplier<URI> endpoint;
+    private final ConnectionPool connectionPool;
+    private final StreamReadTimeoutInterceptor streamReadTimeout;
+    private final Supplier<Optional<SSLSocketFactory>> sslSocketFactory;
 
     @Inject
-    DockerOkHttpClientSupplier(DockerSSLContextSupplier dockerSSLContextSupplier, @Provider Supplier<Credentials> creds) {
-        this.dockerSSLContextSupplier = dockerSSLContextSupplier;
-        this.creds = creds;
+    DockerOkHttpClientSupplier(final DockerSSLContextSupplier dockerSSLContextSupplier,
+          @Provider final Supplier<Credentials> creds, @Provider Supplier<URI> endpoint,
+          @Named(DOCKER_MAX_IDLE_CONNECTIONS) int maxIdleConnections, @Named(DOCKER_KEEP_ALIVE) long keepAlive,
+          @Named(DOCKER_STREAM_READ_TIMEOUT) int streamReadTimeout) {
+        this.endpoint = endpoint;
+        this.connectionPool = new ConnectionPool(maxIdleConnections, keepAlive);
+        this.streamReadTimeout = new StreamReadTimeoutInterceptor(streamReadTimeout);
+        this.sslSocketFactory = Suppliers.memoize(new Supplier<Optional<SSLSocketFactory>>() {
+            @Override
+            public Optional<SSLSocketFactory> get() {
+                // check if identity and credential are files, to set up sslContext
+                if (new File(creds.get().identity).isFile() && new File(creds.get().credential).isFile()) {
+                    return Optional.of(dockerSSLContextSupplier.get().getSocketFactory());
+                }
+                return Optional.absent();
+            }
+        });
     }
 
     @Override
     public OkHttpClient get() {
         OkHttpClient client = new OkHttpClient();
-        ConnectionSpec tlsSpec = new ConnectionSpec.Builder(ConnectionSpec.MODERN_TLS)
-                .tlsVersions(TlsVersion.TLS_1_0, TlsVersion.TLS_1_1, TlsVersion.TLS_1_2)
-                .build();
-        ConnectionSpec cleartextSpec = new ConnectionSpec.Builder(ConnectionSpec.CLEARTEXT)
-                .build();
-        client.setConnectionSpecs(ImmutableList.of(tlsSpec, cleartextSpec));
-        // check if identity and credential are files, to set up sslContext
-        if (new File(creds.get().identity).isFile() && new File(creds.get().credential).isFile()) {
-           client.setSslSocketFactory(dockerSSLContextSupplier.get().getSocketFactory());
+        client.setConnectionPool(connectionPool);
+        client.networkInterceptors().add(streamReadTimeout);
+        URI uri = endpoint.get();
+        if (UnixSocketEndpoint.UNIX_SCHEME.equals(uri.getScheme())) {
+           // requests are rewritten to http://localhost by UnixSocketEndpoint, and every connection goes to the socket
+           client.setConnectionSpecs(ImmutableList.of(ConnectionSpec.CLEARTEXT));
+           client.setSocketFactory(new UnixDomainSocketFactory(uri.getPath()));
+           return client;
+        }
+        client.setConnectionSpecs(CONNECTION_SPECS);
+        if (sslSocketFactory.get().isPresent()) {
+           client.setSslSocketFactory(sslSocketFactory.get().get());
         }
         return client;
     }
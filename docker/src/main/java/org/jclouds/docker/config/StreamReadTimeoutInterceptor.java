@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.config;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import com.squareup.okhttp.Interceptor;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+
+/**
+ * Applies a separate read timeout to the calls whose response is a stream that can stay idle for long, such as
+ * attach, logs, events or stats, so that they neither fail after the regular read timeout nor wait forever.
+ * <p>
+ * Installed as a network interceptor, so that it can change the timeout of the socket the call is made on. The
+ * regular timeout is set again when the connection is reused.
+ * <p>
+ * The timeout only applies once the call has been sent, so it does not cover calls whose response headers are
+ * themselves late, such as {@link org.jclouds.docker.features.ContainerApi#wait(String)}: those are subject to the
+ * regular read timeout.
+ */
+final class StreamReadTimeoutInterceptor implements Interceptor {
+
+   private static final Pattern STREAMING_PATH = Pattern.compile(
+         ".*/(events|containers/[^/]+/(attach|logs|stats)|exec/[^/]+/start|build|images/create)$");
+
+   private final int timeoutMillis;
+
+   StreamReadTimeoutInterceptor(int timeoutMillis) {
+      this.timeoutMillis = timeoutMillis;
+   }
+
+   static boolean isStreaming(Request request) {
+      return STREAMING_PATH.matcher(URI.create(request.urlString()).getPath()).matches();
+   }
+
+   @Override
+   public Response intercept(Chain chain) throws IOException {
+      Request request = chain.request();
+      if (!isStreaming(request)) {
+         return chain.proceed(request);
+      }
+      chain.connection().getSocket().setSoTimeout(timeoutMillis);
+      Response response = chain.proceed(request);
+      if (response.body() != null) {
+         response.body().source().timeout().timeout(timeoutMillis, TimeUnit.MILLISECONDS);
+      }
+      return response;
+   }
+}
@@ -77,6 +77,8 @@ public abstract class Config {
 
    @Nullable public abstract HostConfig hostConfig();
 
+   @Nullable public abstract Map<String, String> labels();
+
    Config() {
    }
 
@@ -84,17 +86,17 @@ public abstract class Config {
          {
                  "Hostname", "Domainname", "User", "Memory", "MemorySwap", "CpuShares", "AttachStdin", "AttachStdout",
                  "AttachStderr", "Tty", "OpenStdin", "StdinOnce", "Env", "Cmd", "Entrypoint", "Image", "Volumes",
-                 "WorkingDir", "NetworkDisabled", "ExposedPorts", "SecurityOpts", "HostConfig"
+                 "WorkingDir", "NetworkDisabled", "ExposedPorts", "SecurityOpts", "HostConfig", "Labels"
          })
    public static Config create(String hostname, String domainname, String user, int memory, int memorySwap,
          int cpuShares, boolean attachStdin, boolean attachStdout, boolean attachStderr, boolean tty,
          boolean openStdin, boolean stdinOnce, List<String> env, List<String> cmd, List<String> entrypoint,
          String image, Map<String, ?> volumes, String workingDir, boolean networkDisabled,
-         Map<String, ?> exposedPorts, List<String> securityOpts, HostConfig hostConfig) {
+         Map<String, ?> exposedPorts, List<String> securityOpts, HostConfig hostConfig, Map<String, String> labels) {
       return new AutoValue_Config(hostname, domainname, user, memory, memorySwap, cpuShares, attachStdin,
               attachStdout, attachStderr, tty, openStdin, stdinOnce, copyWithNullOf(env), copyWithNullOf(cmd),
               copyWithNullOf(entrypoint), image, copyWithNullOf(volumes), workingDir, networkDisabled,
-              copyOf(exposedPorts), copyOf(securityOpts), hostConfig);
+              copyOf(exposedPorts), copyOf(securityOpts), hostConfig, copyWithNullOf(labels));
    }
 
    public static Builder builder() {
@@ -128,6 +130,7 @@ public abstract class Config {
       private Map<String, ?> exposedPorts = Maps.newHashMap();
       private List<String> securityOpts = Lists.newArrayList();
       private HostConfig hostConfig;
+      private Map<String, String> labels;
 
       public Builder hostname(String hostname) {
          this.hostname = hostname;
@@ -245,10 +248,15 @@ public abstract class Config {
          return this;
       }
 
+      public Builder labels(Map<String, String> labels) {
+         this.labels = labels;
+         return this;
+      }
+
       public Config build() {
          return Config.create(hostname, domainname, user, memory, memorySwap, cpuShares, attachStdin, attachStdout,
                  attachStderr, tty, openStdin, stdinOnce, env, cmd, entrypoint, image, volumes, workingDir,
-                 networkDisabled, exposedPorts, securityOpts, hostConfig);
+                 networkDisabled, exposedPorts, securityOpts, hostConfig, labels);
       }
 
       public Builder fromConfig(Config in) {
@@ -258,7 +266,7 @@ public abstract class Config {
                  .openStdin(in.openStdin()).stdinOnce(in.stdinOnce()).env(in.env()).cmd(in.cmd())
                  .entrypoint(in.entrypoint()).image(in.image()).volumes(in.volumes()).workingDir(in.workingDir())
                  .networkDisabled(in.networkDisabled()).exposedPorts(in.exposedPorts())
-                 .securityOpts(in.securityOpts()).hostConfig(in.hostConfig());
+                 .securityOpts(in.securityOpts()).hostConfig(in.hostConfig()).labels(in.labels());
       }
 
    }
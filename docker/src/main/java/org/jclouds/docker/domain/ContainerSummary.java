@@ -18,6 +18,7 @@ package org.jclouds.docker.domain;
 
 import static org.jclouds.docker.internal.NullSafeCopies.copyOf;
 import java.util.List;
+import java.util.Map;
 
 import org.jclouds.json.SerializedNames;
 
@@ -41,12 +42,15 @@ public abstract class ContainerSummary {
 
    public abstract String status();
 
+   public abstract Map<String, String> labels();
+
    ContainerSummary() {
    }
 
-   @SerializedNames({"Id", "Names", "Created", "Image", "Command", "Ports", "Status"})
-   public static ContainerSummary create(String id, List<String> names, String created, String image, String command, List<Port> ports, String status) {
-      return new AutoValue_ContainerSummary(id, copyOf(names), created, image, command, copyOf(ports), status);
+   @SerializedNames({"Id", "Names", "Created", "Image", "Command", "Ports", "Status", "Labels"})
+   public static ContainerSummary create(String id, List<String> names, String created, String image, String command, List<Port> ports, String status,
+         Map<String, String> labels) {
+      return new AutoValue_ContainerSummary(id, copyOf(names), created, image, command, copyOf(ports), status, copyOf(labels));
    }
 
 }
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.domain;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.json.SerializedNames;
+
+import com.google.auto.value.AutoValue;
+
+/**
+ * Represents a single event of the Docker <code>GET /events</code> stream.
+ */
+@AutoValue
+public abstract class Event {
+
+   /**
+    * The event, for example <code>create</code>, <code>start</code>, <code>die</code> or <code>destroy</code> for
+    * containers and <code>pull</code>, <code>tag</code> or <code>delete</code> for images.
+    */
+   public abstract String status();
+
+   /**
+    * Id of the container, or name of the image, the event is about.
+    */
+   public abstract String id();
+
+   /**
+    * Image of the container. Not present in image events.
+    */
+   @Nullable public abstract String from();
+
+   /**
+    * Time of the event, in seconds since the epoch.
+    */
+   public abstract long time();
+
+   /**
+    * Kind of object the event is about, for example <code>container</code> or <code>image</code>. Only reported
+    * since Docker API 1.22.
+    */
+   @Nullable public abstract String type();
+
+   Event() {
+   }
+
+   @SerializedNames({ "status", "id", "from", "time", "Type" })
+   public static Event create(String status, String id, String from, long time, String type) {
+      return new AutoValue_Event(status, id, from, time, type);
+   }
+}
@@ -63,21 +63,47 @@ public abstract class HostConfig {
 
    public abstract Map<String, String> restartPolicy();
 
-
+   /**
+    * @return the memory limit in bytes
+    */
+   @Nullable public abstract Long memory();
+
+   /**
+    * @return the soft memory limit in bytes, enforced when the host runs short of memory
+    */
+   @Nullable public abstract Long memoryReservation();
+
+   /**
+    * @return the CPU limit in units of 10<sup>-9</sup> CPUs, available since API 1.25
+    */
+   @Nullable public abstract Long nanoCpus();
+
+   /**
+    * @return the CPU time in microseconds the container may use in each {@link #cpuPeriod() period}
+    */
+   @Nullable public abstract Long cpuQuota();
+
+   /**
+    * @return the length in microseconds of the CPU scheduling period, 100000 by default
+    */
+   @Nullable public abstract Long cpuPeriod();
 
    HostConfig() {
    }
 
    @SerializedNames({ "ContainerIDFile", "Binds", "LxcConf", "Privileged", "Dns", "DnsSearch", "PortBindings",
          "Links", "ExtraHosts", "PublishAllPorts", "VolumesFrom", "NetworkMode", "SecurityOpt",
-         "CapAdd", "CapDrop", "RestartPolicy" })
+         "CapAdd", "CapDrop", "RestartPolicy", "Memory", "MemoryReservation", "NanoCpus", "CpuQuota",
+         "CpuPeriod" })
    public static HostConfig create(String containerIDFile, List<String> binds, List<Map<String, String>> lxcConf,
          boolean privileged, List<String> dns, List<String> dnsSearch, Map<String, List<Map<String, String>>> portBindings,
          List<String> links, List<String> extraHosts, boolean publishAllPorts, List<String> volumesFrom, String networkMode, 
-         List<String> securityOpt, List<String> capAdd, List<String> capDrop, Map<String, String> restartPolicy) {
+         List<String> securityOpt, List<String> capAdd, List<String> capDrop, Map<String, String> restartPolicy,
+         Long memory, Long memoryReservation, Long nanoCpus, Long cpuQuota, Long cpuPeriod) {
       return new AutoValue_HostConfig(containerIDFile, copyWithNullOf(binds), copyOf(lxcConf), privileged, copyWithNullOf(dns), copyWithNullOf(dnsSearch),
             copyOf(portBindings), copyWithNullOf(links), copyWithNullOf(extraHosts), publishAllPorts, copyWithNullOf(volumesFrom), networkMode,
-            copyOf(securityOpt), copyWithNullOf(capAdd), copyWithNullOf(capDrop), copyOf(restartPolicy));
+            copyOf(securityOpt), copyWithNullOf(capAdd), copyWithNullOf(capDrop), copyOf(restartPolicy), memory,
+            memoryReservation, nanoCpus, cpuQuota, cpuPeriod);
    }
 
    public static Builder builder() {
@@ -106,6 +132,11 @@ public abstract class HostConfig {
       private List<String> capAdd;
       private List<String> capDrop;
       private Map<String, String> restartPolicy = Maps.newHashMap();
+      private Long memory;
+      private Long memoryReservation;
+      private Long nanoCpus;
+      private Long cpuQuota;
+      private Long cpuPeriod;
       
       public Builder containerIDFile(String containerIDFile) {
          this.containerIDFile = containerIDFile;
@@ -186,10 +217,36 @@ public abstract class HostConfig {
          this.restartPolicy = restartPolicy;
          return this;
       }
+
+      public Builder memory(Long memory) {
+         this.memory = memory;
+         return this;
+      }
+
+      public Builder memoryReservation(Long memoryReservation) {
+         this.memoryReservation = memoryReservation;
+         return this;
+      }
+
+      public Builder nanoCpus(Long nanoCpus) {
+         this.nanoCpus = nanoCpus;
+         return this;
+      }
+
+      public Builder cpuQuota(Long cpuQuota) {
+         this.cpuQuota = cpuQuota;
+         return this;
+      }
+
+      public Builder cpuPeriod(Long cpuPeriod) {
+         this.cpuPeriod = cpuPeriod;
+         return this;
+      }
       
       public HostConfig build() {
          return HostConfig.create(containerIDFile, binds, lxcConf, privileged, dns, dnsSearch, portBindings, links,
-               extraHosts, publishAllPorts, volumesFrom, networkMode, securityOpt, capAdd, capDrop, restartPolicy);
+               extraHosts, publishAllPorts, volumesFrom, networkMode, securityOpt, capAdd, capDrop, restartPolicy, memory,
+               memoryReservation, nanoCpus, cpuQuota, cpuPeriod);
       }
 
       public Builder fromHostConfig(HostConfig in) {
@@ -197,7 +254,9 @@ public abstract class HostConfig {
                .privileged(in.privileged()).dns(in.dns()).dnsSearch(in.dnsSearch()).links(in.links())
                .extraHosts(in.extraHosts()).portBindings(in.portBindings()).publishAllPorts(in.publishAllPorts())
                .volumesFrom(in.volumesFrom()).networkMode(in.networkMode()).securityOpt(in.securityOpt())
-               .capAdd(in.capAdd()).capDrop(in.capDrop()).restartPolicy(in.restartPolicy());
+               .capAdd(in.capAdd()).capDrop(in.capDrop()).restartPolicy(in.restartPolicy()).memory(in.memory())
+               .memoryReservation(in.memoryReservation()).nanoCpus(in.nanoCpus()).cpuQuota(in.cpuQuota())
+               .cpuPeriod(in.cpuPeriod());
       }
    }
 }
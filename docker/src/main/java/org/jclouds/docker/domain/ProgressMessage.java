@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.domain;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.json.SerializedNames;
+
+import com.google.auto.value.AutoValue;
+
+/**
+ * A message of the progress streams returned when pulling ({@link org.jclouds.docker.features.ImageApi#createImage})
+ * or building ({@link org.jclouds.docker.features.MiscApi#build}) an image.
+ *
+ * @see org.jclouds.docker.util.DockerProgressReader
+ */
+@AutoValue
+public abstract class ProgressMessage {
+
+   @AutoValue
+   public abstract static class ProgressDetail {
+
+      ProgressDetail() {} // For AutoValue only!
+
+      /**
+       * Bytes transferred so far.
+       */
+      public abstract long current();
+
+      /**
+       * Size of the layer, or zero when it is not known yet.
+       */
+      public abstract long total();
+
+      @SerializedNames({ "current", "total" })
+      public static ProgressDetail create(long current, long total) {
+         return new AutoValue_ProgressMessage_ProgressDetail(current, total);
+      }
+   }
+
+   ProgressMessage() {
+   }
+
+   /**
+    * Layer the message is about, if any.
+    */
+   @Nullable public abstract String id();
+
+   /**
+    * Status, for example <code>Pulling fs layer</code>, <code>Downloading</code> or <code>Pull complete</code>.
+    */
+   @Nullable public abstract String status();
+
+   @Nullable public abstract ProgressDetail progressDetail();
+
+   /**
+    * Output of the build steps.
+    */
+   @Nullable public abstract String stream();
+
+   /**
+    * Reason of the failure. The daemon reports failures in the stream, after having answered with a success status.
+    */
+   @Nullable public abstract String error();
+
+   @SerializedNames({ "id", "status", "progressDetail", "stream", "error" })
+   public static ProgressMessage create(String id, String status, ProgressDetail progressDetail, String stream,
+         String error) {
+      return new AutoValue_ProgressMessage(id, status, progressDetail, stream, error);
+   }
+}
@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.domain;
+
+import static org.jclouds.docker.internal.NullSafeCopies.copyOf;
+
+import java.util.List;
+import java.util.Map;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.json.SerializedNames;
+
+import com.google.auto.value.AutoValue;
+
+/**
+ * Resource usage of a container, as returned by {@link org.jclouds.docker.features.ContainerApi#getStats(String)}.
+ * Counters are cumulative since the start of the container.
+ *
+ * @see org.jclouds.docker.util.DockerStatsReader
+ * @see org.jclouds.docker.util.StatsSampler
+ */
+@AutoValue
+public abstract class Stats {
+
+   @AutoValue
+   public abstract static class CpuUsage {
+
+      CpuUsage() {} // For AutoValue only!
+
+      /**
+       * CPU time consumed by the container, in nanoseconds.
+       */
+      public abstract long totalUsage();
+
+      /**
+       * CPU time consumed on each core, in nanoseconds.
+       */
+      public abstract List<Long> percpuUsage();
+
+      public abstract long usageInKernelmode();
+
+      public abstract long usageInUsermode();
+
+      @SerializedNames({ "total_usage", "percpu_usage", "usage_in_kernelmode", "usage_in_usermode" })
+      public static CpuUsage create(long totalUsage, List<Long> percpuUsage, long usageInKernelmode,
+            long usageInUsermode) {
+         return new AutoValue_Stats_CpuUsage(totalUsage, copyOf(percpuUsage), usageInKernelmode, usageInUsermode);
+      }
+   }
+
+   @AutoValue
+   public abstract static class CpuStats {
+
+      CpuStats() {} // For AutoValue only!
+
+      public abstract CpuUsage cpuUsage();
+
+      /**
+       * CPU time consumed by the whole host, in nanoseconds.
+       */
+      public abstract long systemCpuUsage();
+
+      /**
+       * Number of cores available to the container, or zero for daemons that do not report it.
+       */
+      public abstract int onlineCpus();
+
+      @SerializedNames({ "cpu_usage", "system_cpu_usage", "online_cpus" })
+      public static CpuStats create(CpuUsage cpuUsage, long systemCpuUsage, int onlineCpus) {
+         return new AutoValue_Stats_CpuStats(cpuUsage, systemCpuUsage, onlineCpus);
+      }
+   }
+
+   @AutoValue
+   public abstract static class MemoryStats {
+
+      MemoryStats() {} // For AutoValue only!
+
+      public abstract long usage();
+
+      public abstract long maxUsage();
+
+      public abstract long limit();
+
+      @SerializedNames({ "usage", "max_usage", "limit" })
+      public static MemoryStats create(long usage, long maxUsage, long limit) {
+         return new AutoValue_Stats_MemoryStats(usage, maxUsage, limit);
+      }
+   }
+
+   @AutoValue
+   public abstract static class BlkioEntry {
+
+      BlkioEntry() {} // For AutoValue only!
+
+      public abstract int major();
+
+      public abstract int minor();
+
+      /**
+       * Operation the value is about, for example <code>Read</code> or <code>Write</code>.
+       */
+      public abstract String op();
+
+      public abstract long value();
+
+      @SerializedNames({ "major", "minor", "op", "value" })
+      public static BlkioEntry create(int major, int minor, String op, long value) {
+         return new AutoValue_Stats_BlkioEntry(major, minor, op, value);
+      }
+   }
+
+   @AutoValue
+   public abstract static class BlkioStats {
+
+      BlkioStats() {} // For AutoValue only!
+
+      /**
+       * Bytes transferred to and from each block device.
+       */
+      public abstract List<BlkioEntry> ioServiceBytesRecursive();
+
+      @SerializedNames({ "io_service_bytes_recursive" })
+      public static BlkioStats create(List<BlkioEntry> ioServiceBytesRecursive) {
+         return new AutoValue_Stats_BlkioStats(copyOf(ioServiceBytesRecursive));
+      }
+
+      /**
+       * @return the bytes of the given operation summed over all devices
+       */
+      public long total(String op) {
+         long total = 0;
+         for (BlkioEntry entry : ioServiceBytesRecursive()) {
+            if (op.equalsIgnoreCase(entry.op())) {
+               total += entry.value();
+            }
+         }
+         return total;
+      }
+   }
+
+   @AutoValue
+   public abstract static class NetworkStats {
+
+      NetworkStats() {} // For AutoValue only!
+
+      public abstract long rxBytes();
+
+      public abstract long rxPackets();
+
+      public abstract long rxErrors();
+
+      public abstract long rxDropped();
+
+      public abstract long txBytes();
+
+      public abstract long txPackets();
+
+      public abstract long txErrors();
+
+      public abstract long txDropped();
+
+      @SerializedNames({ "rx_bytes", "rx_packets", "rx_errors", "rx_dropped", "tx_bytes", "tx_packets", "tx_errors",
+            "tx_dropped" })
+      public static NetworkStats create(long rxBytes, long rxPackets, long rxErrors, long rxDropped, long txBytes,
+            long txPackets, long txErrors, long txDropped) {
+         return new AutoValue_Stats_NetworkStats(rxBytes, rxPackets, rxErrors, rxDropped, txBytes, txPackets,
+               txErrors, txDropped);
+      }
+   }
+
+   Stats() {
+   }
+
+   /**
+    * Time the sample was taken at, in RFC 3339 format.
+    */
+   @Nullable public abstract String read();
+
+   @Nullable public abstract CpuStats cpuStats();
+
+   /**
+    * CPU usage of the previous sample, which is only set when the daemon has taken one.
+    */
+   @Nullable public abstract CpuStats precpuStats();
+
+   @Nullable public abstract MemoryStats memoryStats();
+
+   @Nullable public abstract BlkioStats blkioStats();
+
+   /**
+    * Usage of each network interface of the container.
+    */
+   public abstract Map<String, NetworkStats> networks();
+
+   @SerializedNames({ "read", "cpu_stats", "precpu_stats", "memory_stats", "blkio_stats", "networks" })
+   public static Stats create(String read, CpuStats cpuStats, CpuStats precpuStats, MemoryStats memoryStats,
+         BlkioStats blkioStats, Map<String, NetworkStats> networks) {
+      return new AutoValue_Stats(read, cpuStats, precpuStats, memoryStats, blkioStats, copyOf(networks));
+   }
+}
@@ -24,6 +24,7 @@ import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
+import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.QueryParam;
@@ -37,16 +38,23 @@ import org.jclouds.docker.domain.ContainerSummary;
 import org.jclouds.docker.domain.HostConfig;
 import org.jclouds.docker.domain.Image;
 import org.jclouds.docker.domain.Resource;
+import org.jclouds.docker.domain.Stats;
 import org.jclouds.docker.domain.StatusCode;
+import org.jclouds.docker.filters.UnixSocketEndpoint;
 import org.jclouds.docker.options.AttachOptions;
 import org.jclouds.docker.options.CommitOptions;
 import org.jclouds.docker.options.ListContainerOptions;
 import org.jclouds.docker.options.RemoveContainerOptions;
+import org.jclouds.io.Payload;
 import org.jclouds.rest.annotations.BinderParam;
 import org.jclouds.rest.annotations.Fallback;
+import org.jclouds.rest.annotations.Headers;
+import org.jclouds.rest.annotations.QueryParams;
+import org.jclouds.rest.annotations.RequestFilters;
 import org.jclouds.rest.binders.BindToJsonPayload;
 
 @Consumes(MediaType.APPLICATION_JSON)
+@RequestFilters(UnixSocketEndpoint.class)
 @Path("/v{jclouds.api-version}")
 public interface ContainerApi {
 
@@ -194,6 +202,9 @@ public interface ContainerApi {
 
    /**
     * Block until container @param containerId stops, then returns the exit code
+    * <p>
+    * The daemon only answers once the container has stopped, so the call fails if that takes longer than the read
+    * timeout, {@link org.jclouds.Constants#PROPERTY_SO_TIMEOUT}.
     */
    @Named("container:wait")
    @POST
@@ -244,9 +255,67 @@ public interface ContainerApi {
 
    /**
     * @param containerId id of the container to copy files from
+    * @deprecated the endpoint was removed from the remote API; use {@link #getArchive(String, String)}
     */
+   @Deprecated
    @Named("container:copy")
    @POST
    @Path("/containers/{id}/copy")
    InputStream copy(@PathParam("id") String containerId, @BinderParam(BindToJsonPayload.class) Resource resource);
+
+   /**
+    * Streams the resource usage of a running container, one sample per second, until the stream is closed or the
+    * container stops.
+    *
+    * @param containerId id of the container to monitor
+    * @return a stream of JSON objects, to be read with {@link org.jclouds.docker.util.DockerStatsReader}
+    */
+   @Named("container:stats")
+   @GET
+   @Path("/containers/{id}/stats")
+   InputStream stats(@PathParam("id") String containerId);
+
+   /**
+    * Takes a single sample of the resource usage of a container.
+    *
+    * @param containerId id of the container to monitor
+    * @return the sample, or <code>null</code> if the container doesn't exist
+    */
+   @Named("container:stats")
+   @GET
+   @Path("/containers/{id}/stats")
+   @QueryParams(keys = "stream", values = "false")
+   @Fallback(NullOnNotFoundOr404.class)
+   Stats getStats(@PathParam("id") String containerId);
+
+   /**
+    * Downloads a file or directory of a container as a tar archive. The archive is not buffered: it is read from the
+    * connection as the returned stream is read.
+    *
+    * @param containerId id of the container to copy files from
+    * @param path path of the file or directory in the container
+    * @return the archive, or <code>null</code> if the container or the path doesn't exist
+    * @see org.jclouds.docker.util.Archives
+    */
+   @Named("container:getArchive")
+   @GET
+   @Path("/containers/{id}/archive")
+   @Fallback(NullOnNotFoundOr404.class)
+   InputStream getArchive(@PathParam("id") String containerId, @QueryParam("path") String path);
+
+   /**
+    * Extracts a tar archive into a directory of a container. The payload is streamed to the daemon, so that a
+    * {@link org.jclouds.io.Payloads#newFilePayload(java.io.File) file payload} or a
+    * {@link org.jclouds.docker.util.BuildContext#payload() directory} is sent without being copied to memory; as
+    * both are repeatable, the same payload can be sent to several containers.
+    *
+    * @param containerId id of the container to copy files to
+    * @param path directory of the container to extract the archive into, which must exist
+    * @param archive a tar archive, which may be compressed with gzip, bzip2 or xz
+    */
+   @Named("container:putArchive")
+   @PUT
+   @Path("/containers/{id}/archive")
+   @Headers(keys = "Content-Type", values = "application/x-tar")
+   void putArchive(@PathParam("id") String containerId, @QueryParam("path") String path, Payload archive);
 }
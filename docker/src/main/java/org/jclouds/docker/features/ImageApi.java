@@ -34,13 +34,16 @@ import org.jclouds.Fallbacks.NullOnNotFoundOr404;
 import org.jclouds.docker.domain.Image;
 import org.jclouds.docker.domain.ImageHistory;
 import org.jclouds.docker.domain.ImageSummary;
+import org.jclouds.docker.filters.UnixSocketEndpoint;
 import org.jclouds.docker.options.CreateImageOptions;
 import org.jclouds.docker.options.DeleteImageOptions;
 import org.jclouds.docker.options.ListImageOptions;
 import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.rest.annotations.Fallback;
+import org.jclouds.rest.annotations.RequestFilters;
 
 @Consumes(MediaType.APPLICATION_JSON)
+@RequestFilters(UnixSocketEndpoint.class)
 @Path("/v{jclouds.api-version}")
 public interface ImageApi {
 
@@ -32,14 +32,19 @@ import org.jclouds.docker.domain.ExecInspect;
 import org.jclouds.docker.domain.ExecStartParams;
 import org.jclouds.docker.domain.Info;
 import org.jclouds.docker.domain.Version;
+import org.jclouds.docker.filters.UnixSocketEndpoint;
 import org.jclouds.docker.options.BuildOptions;
+import org.jclouds.docker.options.EventsOptions;
+import org.jclouds.docker.util.DockerEventReader;
 import org.jclouds.docker.util.DockerInputStream;
 import org.jclouds.io.Payload;
 import org.jclouds.rest.annotations.BinderParam;
 import org.jclouds.rest.annotations.Headers;
+import org.jclouds.rest.annotations.RequestFilters;
 import org.jclouds.rest.binders.BindToJsonPayload;
 
 @Consumes(MediaType.APPLICATION_JSON)
+@RequestFilters(UnixSocketEndpoint.class)
 @Path("/v{jclouds.api-version}")
 public interface MiscApi {
 
@@ -137,4 +142,29 @@ public interface MiscApi {
    @GET
    @Path("/exec/{id}/json")
    ExecInspect execInspect(@PathParam("id") String execId);
+
+   /**
+    * Streams the events of the daemon as they happen. The stream does not end
+    * until it is closed.
+    *
+    * @return stream of json events which can be read with
+    *         {@link DockerEventReader}
+    */
+   @Named("events")
+   @GET
+   @Path("/events")
+   InputStream events();
+
+   /**
+    * Streams the events of the daemon.
+    *
+    * @param options
+    *           time range and filters of the events (@see EventsOptions)
+    * @return stream of json events which can be read with
+    *         {@link DockerEventReader}
+    */
+   @Named("events")
+   @GET
+   @Path("/events")
+   InputStream events(EventsOptions options);
 }
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.filters;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import java.net.URI;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.http.HttpException;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpRequestFilter;
+import org.jclouds.location.Provider;
+
+import com.google.common.base.Supplier;
+
+/**
+ * Rewrites the requests made to a <code>unix://</code> endpoint, such as <code>unix:///var/run/docker.sock</code>,
+ * into plain HTTP requests to <code>localhost</code>. The connections themselves are made to the socket by
+ * {@link org.jclouds.docker.util.UnixDomainSocketFactory}.
+ */
+@Singleton
+public class UnixSocketEndpoint implements HttpRequestFilter {
+
+   public static final String UNIX_SCHEME = "unix";
+
+   private final Supplier<URI> endpoint;
+
+   @Inject
+   UnixSocketEndpoint(@Provider Supplier<URI> endpoint) {
+      this.endpoint = endpoint;
+   }
+
+   @Override
+   public HttpRequest filter(HttpRequest request) throws HttpException {
+      URI uri = request.getEndpoint();
+      if (!UNIX_SCHEME.equals(uri.getScheme())) {
+         return request;
+      }
+      String socketPath = endpoint.get().getRawPath();
+      String path = uri.getRawPath();
+      checkState(path.startsWith(socketPath), "request %s is not made to the socket %s", uri, socketPath);
+      StringBuilder http = new StringBuilder("http://localhost").append(path.substring(socketPath.length()));
+      if (uri.getRawQuery() != null) {
+         http.append('?').append(uri.getRawQuery());
+      }
+      return request.toBuilder().endpoint(URI.create(http.toString())).build();
+   }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.options;
+
+import java.util.List;
+import java.util.Map;
+
+import org.jclouds.http.options.BaseHttpRequestOptions;
+
+import com.google.gson.Gson;
+
+public class EventsOptions extends BaseHttpRequestOptions {
+
+   private static final Gson GSON = new Gson();
+
+   /**
+    * Only returns the events since this time, in seconds since the epoch. Past events are replayed first.
+    */
+   public EventsOptions since(long since) {
+      this.queryParameters.put("since", String.valueOf(since));
+      return this;
+   }
+
+   /**
+    * Ends the stream at this time, in seconds since the epoch.
+    */
+   public EventsOptions until(long until) {
+      this.queryParameters.put("until", String.valueOf(until));
+      return this;
+   }
+
+   /**
+    * Only returns the events matching the filters, for example <code>event=start</code>,
+    * <code>container=&lt;id&gt;</code> or <code>image=&lt;name&gt;</code>.
+    */
+   public EventsOptions filters(Map<String, List<String>> filters) {
+      this.queryParameters.put("filters", GSON.toJson(filters));
+      return this;
+   }
+
+   public static class Builder {
+
+      /**
+       * @see EventsOptions#since(long)
+       */
+      public static EventsOptions since(long since) {
+         EventsOptions options = new EventsOptions();
+         return options.since(since);
+      }
+
+      /**
+       * @see EventsOptions#until(long)
+       */
+      public static EventsOptions until(long until) {
+         EventsOptions options = new EventsOptions();
+         return options.until(until);
+      }
+
+      /**
+       * @see EventsOptions#filters(Map)
+       */
+      public static EventsOptions filters(Map<String, List<String>> filters) {
+         EventsOptions options = new EventsOptions();
+         return options.filters(filters);
+      }
+
+   }
+
+}
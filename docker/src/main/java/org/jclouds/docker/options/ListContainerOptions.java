@@ -16,10 +16,17 @@
  */
 package org.jclouds.docker.options;
 
+import java.util.List;
+import java.util.Map;
+
 import org.jclouds.http.options.BaseHttpRequestOptions;
 
+import com.google.gson.Gson;
+
 public class ListContainerOptions extends BaseHttpRequestOptions {
 
+   private static final Gson GSON = new Gson();
+
    public ListContainerOptions all(boolean all) {
       this.queryParameters.put("all", String.valueOf(all));
       return this;
@@ -45,6 +52,16 @@ public class ListContainerOptions extends BaseHttpRequestOptions {
       return this;
    }
 
+   /**
+    * Only returns the containers matching the filters, for example <code>label=&lt;key&gt;=&lt;value&gt;</code>,
+    * <code>name=&lt;name&gt;</code> or <code>status=running</code>. The values of a filter are alternatives, while
+    * different filters must all match.
+    */
+   public ListContainerOptions filters(Map<String, List<String>> filters) {
+      this.queryParameters.put("filters", GSON.toJson(filters));
+      return this;
+   }
+
    public static class Builder {
 
       /**
@@ -87,6 +104,14 @@ public class ListContainerOptions extends BaseHttpRequestOptions {
          return options.size(size);
       }
 
+      /**
+       * @see ListContainerOptions#filters(Map)
+       */
+      public static ListContainerOptions filters(Map<String, List<String>> filters) {
+         ListContainerOptions options = new ListContainerOptions();
+         return options.filters(filters);
+      }
+
    }
 
 }
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.util;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+
+import com.google.common.io.ByteStreams;
+
+/**
+ * Helpers to stream the tar archives of {@link org.jclouds.docker.features.ContainerApi#getArchive(String, String)}
+ * and {@link org.jclouds.docker.features.ContainerApi#putArchive(String, String, Payload)} to and from files and
+ * channels, without holding them in memory.
+ */
+public final class Archives {
+
+   private static final int BLOCK = 512;
+
+   /**
+    * @return a repeatable payload reading the archive from the file as it is sent
+    */
+   public static Payload payload(Path archive) throws IOException {
+      Payload payload = Payloads.newFilePayload(archive.toFile());
+      payload.getContentMetadata().setContentLength(Files.size(archive));
+      payload.getContentMetadata().setContentType("application/x-tar");
+      return payload;
+   }
+
+   /**
+    * Writes an archive to a file, replacing it if it exists, and closes the archive.
+    *
+    * @return the number of bytes written
+    */
+   public static long copy(InputStream archive, Path target) throws IOException {
+      try {
+         return Files.copy(archive, target, StandardCopyOption.REPLACE_EXISTING);
+      } finally {
+         archive.close();
+      }
+   }
+
+   /**
+    * Writes an archive to a channel, which is left open, and closes the archive.
+    *
+    * @return the number of bytes written
+    */
+   public static long copy(InputStream archive, WritableByteChannel target) throws IOException {
+      try {
+         return ByteStreams.copy(Channels.newChannel(archive), target);
+      } finally {
+         archive.close();
+      }
+   }
+
+   /**
+    * Finds a file in an archive and returns its content. The entries before it are skipped as they are read, and the
+    * entries after it are not read at all, so that the archive is never held in memory. Closing the returned stream
+    * closes the archive.
+    *
+    * @param archive a stream such as the one returned by
+    *           {@link org.jclouds.docker.features.ContainerApi#getArchive(String, String)}
+    * @param name path of the file in the archive; the archive of a file contains that file under its own name,
+    *           while the archive of a directory contains its files under the name of the directory
+    * @return the content of the file, or null, after having closed the archive, if there is no such regular file
+    */
+   public static InputStream extractFile(InputStream archive, String name) throws IOException {
+      checkNotNull(archive, "archive");
+      String wanted = normalize(checkNotNull(name, "name"));
+      byte[] header = new byte[BLOCK];
+      String longName = null;
+      long paxSize = -1;
+      boolean found = false;
+      try {
+         while (ByteStreams.read(archive, header, 0, BLOCK) == BLOCK && header[0] != 0) {
+            char type = (char) header[156];
+            long size = paxSize >= 0 ? paxSize : parseSize(header);
+            if (type == 'x' || type == 'L') {
+               // the extended header of the next entry
+               byte[] content = new byte[(int) size];
+               ByteStreams.readFully(archive, content);
+               skipPadding(archive, size);
+               if (type == 'L') {
+                  longName = field(content, 0, content.length);
+               } else {
+                  String path = paxRecord(content, "path");
+                  String paxSizeRecord = paxRecord(content, "size");
+                  longName = path != null ? path : longName;
+                  paxSize = paxSizeRecord != null ? Long.parseLong(paxSizeRecord) : -1;
+               }
+               continue;
+            }
+            String entry = longName != null ? longName : entryName(header);
+            longName = null;
+            paxSize = -1;
+            if ((type == '0' || type == '\0' || type == '7') && normalize(entry).equals(wanted)) {
+               found = true;
+               return ByteStreams.limit(archive, size);
+            }
+            ByteStreams.skipFully(archive, padded(size));
+         }
+         return null;
+      } finally {
+         if (!found) {
+            archive.close();
+         }
+      }
+   }
+
+   private static String normalize(String path) {
+      String normalized = path;
+      while (normalized.startsWith("/") || normalized.startsWith("./")) {
+         normalized = normalized.substring(normalized.startsWith("/") ? 1 : 2);
+      }
+      while (normalized.endsWith("/")) {
+         normalized = normalized.substring(0, normalized.length() - 1);
+      }
+      return normalized;
+   }
+
+   private static String entryName(byte[] header) {
+      String name = field(header, 0, 100);
+      boolean ustar = field(header, 257, 5).equals("ustar");
+      String prefix = ustar ? field(header, 345, 155) : "";
+      return prefix.isEmpty() ? name : prefix + "/" + name;
+   }
+
+   private static long parseSize(byte[] header) throws IOException {
+      if ((header[124] & 0x80) != 0) {
+         // base-256, used by GNU tar for sizes over 8GB
+         long size = 0;
+         for (int i = 125; i < 136; i++) {
+            size = (size << 8) | (header[i] & 0xff);
+         }
+         return size;
+      }
+      String octal = field(header, 124, 12).trim();
+      try {
+         return octal.isEmpty() ? 0 : Long.parseLong(octal, 8);
+      } catch (NumberFormatException e) {
+         throw new IOException("Not a tar archive", e);
+      }
+   }
+
+   /**
+    * Reads a record of the extended header, which are written as <code>"&lt;length&gt; &lt;key&gt;=&lt;value&gt;\n"</code>.
+    */
+   private static String paxRecord(byte[] content, String key) {
+      String records = new String(content, StandardCharsets.UTF_8);
+      for (String record : records.split("\n")) {
+         int space = record.indexOf(' ');
+         if (space > 0 && record.startsWith(key + "=", space + 1)) {
+            return record.substring(space + key.length() + 2);
+         }
+      }
+      return null;
+   }
+
+   private static String field(byte[] bytes, int offset, int length) {
+      int end = offset;
+      while (end < offset + length && bytes[end] != 0) {
+         end++;
+      }
+      return new String(bytes, offset, end - offset, StandardCharsets.UTF_8);
+   }
+
+   private static long padded(long size) {
+      return (size + BLOCK - 1) / BLOCK * BLOCK;
+   }
+
+   private static void skipPadding(InputStream in, long size) throws IOException {
+      ByteStreams.skipFully(in, padded(size) - size);
+   }
+
+   private Archives() {
+   }
+}
@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.jclouds.docker.domain.Exec;
+import org.jclouds.docker.domain.ExecCreateParams;
+import org.jclouds.docker.domain.ExecInspect;
+import org.jclouds.docker.domain.ExecStartParams;
+import org.jclouds.docker.features.MiscApi;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Runs a command in many containers concurrently, through {@link MiscApi#execCreate}, {@link MiscApi#execStart} and
+ * {@link MiscApi#execInspect}.
+ * <p>
+ * At most <code>concurrency</code> containers are handled at a time, each by a task of the executor that takes the
+ * next container once done, so that the executor can be shared with other work. The output of each command is
+ * demultiplexed into buffers holding at most <code>maxOutputBytes</code> of each stream; the rest is read and
+ * discarded.
+ * <p>
+ * Once the output has ended, which happens at once when the command is created without attached output, the command
+ * is inspected until it exits, for at most <code>timeout</code> from its start.
+ *
+ * <pre>
+ * Map&lt;String, ListenableFuture&lt;BatchExec.Result&gt;&gt; results = new BatchExec(api.getMiscApi(), executor, 20, 65536,
+ *       5, TimeUnit.MINUTES)
+ *       .exec(containerIds, ExecCreateParams.builder().cmd(ImmutableList.of("nginx", "-s", "reload")).build());
+ * </pre>
+ */
+public final class BatchExec {
+
+   /**
+    * The outcome of the command in one container.
+    */
+   @AutoValue
+   public abstract static class Result {
+
+      Result() {} // For AutoValue only!
+
+      public abstract String execId();
+
+      public abstract int exitCode();
+
+      /**
+       * Standard output of the command, up to the limit of the batch.
+       */
+      @SuppressWarnings("mutable")
+      public abstract byte[] stdout();
+
+      /**
+       * Standard error of the command, up to the limit of the batch.
+       */
+      @SuppressWarnings("mutable")
+      public abstract byte[] stderr();
+
+      /**
+       * Whether some output was discarded because it went over the limit.
+       */
+      public abstract boolean truncated();
+
+      static Result create(String execId, int exitCode, byte[] stdout, byte[] stderr, boolean truncated) {
+         return new AutoValue_BatchExec_Result(execId, exitCode, stdout, stderr, truncated);
+      }
+   }
+
+   /** Interval between the first inspections of a command whose output has ended but that is still running. */
+   private static final long INITIAL_INSPECT_INTERVAL_MILLIS = 100;
+   /** Longest interval between inspections, reached by doubling the initial one. */
+   private static final long MAX_INSPECT_INTERVAL_MILLIS = 1000;
+
+   private final MiscApi api;
+   private final Executor executor;
+   private final int concurrency;
+   private final int maxOutputBytes;
+   private final long timeoutMillis;
+
+   /**
+    * @param concurrency maximum number of containers running the command at a time
+    * @param maxOutputBytes bytes kept of the standard output and of the standard error of each command
+    * @param timeout time each command may run before its result fails with a {@link TimeoutException}
+    */
+   public BatchExec(MiscApi api, Executor executor, int concurrency, int maxOutputBytes, long timeout,
+         TimeUnit unit) {
+      checkArgument(concurrency > 0, "concurrency must be positive");
+      checkArgument(maxOutputBytes >= 0, "maxOutputBytes must not be negative");
+      checkArgument(timeout > 0, "timeout must be positive");
+      this.api = checkNotNull(api, "api");
+      this.executor = checkNotNull(executor, "executor");
+      this.concurrency = concurrency;
+      this.maxOutputBytes = maxOutputBytes;
+      this.timeoutMillis = checkNotNull(unit, "unit").toMillis(timeout);
+   }
+
+   /**
+    * Starts running the command in the containers.
+    *
+    * @return the result of each container, in the order of the containers, which fails if the command could not be
+    *         run
+    */
+   public Map<String, ListenableFuture<Result>> exec(Iterable<String> containerIds, final ExecCreateParams params) {
+      checkNotNull(params, "params");
+      ImmutableMap.Builder<String, ListenableFuture<Result>> results = ImmutableMap.builder();
+      final Queue<Map.Entry<String, SettableFuture<Result>>> pending =
+            new ConcurrentLinkedQueue<Map.Entry<String, SettableFuture<Result>>>();
+      for (String containerId : ImmutableSet.copyOf(containerIds)) {
+         SettableFuture<Result> result = SettableFuture.create();
+         results.put(containerId, result);
+         pending.add(Maps.immutableEntry(containerId, result));
+      }
+      Map<String, ListenableFuture<Result>> futures = results.build();
+      for (int i = 0; i < Math.min(concurrency, futures.size()); i++) {
+         executor.execute(new Runnable() {
+            @Override
+            public void run() {
+               // each worker reuses its demuxer, which is not thread-safe
+               DockerStreamDemuxer demuxer = new DockerStreamDemuxer();
+               Map.Entry<String, SettableFuture<Result>> next;
+               while ((next = pending.poll()) != null) {
+                  if (next.getValue().isCancelled()) {
+                     continue;
+                  }
+                  try {
+                     next.getValue().set(exec(next.getKey(), params, demuxer));
+                  } catch (Throwable t) {
+                     next.getValue().setException(t);
+                  }
+               }
+            }
+         });
+      }
+      return futures;
+   }
+
+   private Result exec(String containerId, ExecCreateParams params, DockerStreamDemuxer demuxer)
+         throws IOException, TimeoutException {
+      Exec exec = api.execCreate(containerId, params);
+      long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+      BoundedOutputStream stdout = new BoundedOutputStream(maxOutputBytes);
+      BoundedOutputStream stderr = new BoundedOutputStream(maxOutputBytes);
+      InputStream output = api.execStart(exec.id(), ExecStartParams.create(false));
+      try {
+         demuxer.demux(output, stdout, stderr);
+      } finally {
+         output.close();
+      }
+      ExecInspect inspect = api.execInspect(exec.id());
+      // the output ends before the exit when it is not attached, and slightly before the daemon records the exit
+      // otherwise
+      for (long interval = INITIAL_INSPECT_INTERVAL_MILLIS; inspect.running();
+            interval = Math.min(interval * 2, MAX_INSPECT_INTERVAL_MILLIS)) {
+         long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+         if (remaining <= 0) {
+            throw new TimeoutException("Exec " + exec.id() + " in container " + containerId + " still running after "
+                  + timeoutMillis + " ms");
+         }
+         Uninterruptibles.sleepUninterruptibly(Math.min(interval, remaining), TimeUnit.MILLISECONDS);
+         inspect = api.execInspect(exec.id());
+      }
+      return Result.create(exec.id(), inspect.exitCode(), stdout.toByteArray(), stderr.toByteArray(),
+            stdout.truncated || stderr.truncated);
+   }
+
+   /**
+    * Keeps the first bytes written to it and discards the others.
+    */
+   private static final class BoundedOutputStream extends ByteArrayOutputStream {
+      private final int limit;
+      private boolean truncated;
+
+      private BoundedOutputStream(int limit) {
+         super(Math.min(limit, 1024));
+         this.limit = limit;
+      }
+
+      @Override
+      public synchronized void write(byte[] b, int off, int len) {
+         int kept = Math.min(len, limit - count);
+         if (kept < len) {
+            truncated = true;
+         }
+         if (kept > 0) {
+            super.write(b, off, kept);
+         }
+      }
+
+      @Override
+      public synchronized void write(int b) {
+         write(new byte[] { (byte) b }, 0, 1);
+      }
+   }
+}
@@ -0,0 +1,425 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteSource;
+import com.google.common.io.Files;
+
+/**
+ * The build context of {@link org.jclouds.docker.features.MiscApi#build(Payload)}: a directory tree sent to the
+ * daemon as a tar archive. The archive is generated while the request body is written, so that building from a
+ * large context needs neither a temporary file nor memory proportional to its size.
+ * <p>
+ * Files matched by the <code>.dockerignore</code> file at the root of the directory are left out, except for the
+ * <code>Dockerfile</code> and the <code>.dockerignore</code> file themselves, which the daemon always needs.
+ *
+ * <pre>
+ * BuildContext context = BuildContext.builder(new File("app")).gzip(true).build();
+ * if (!context.hash().equals(lastBuiltHash)) {
+ *    api.getMiscApi().build(context.payload(), BuildOptions.Builder.tag("app"));
+ * }
+ * </pre>
+ */
+public final class BuildContext extends ByteSource {
+
+   public static Builder builder(File directory) {
+      return new Builder(directory);
+   }
+
+   public static final class Builder {
+      private final File directory;
+      private boolean gzip;
+
+      private Builder(File directory) {
+         this.directory = checkNotNull(directory, "directory");
+      }
+
+      /**
+       * Compresses the archive, which reduces the upload to remote daemons at the cost of compressing the context
+       * twice: once to compute the length of the request and once to send it.
+       */
+      public Builder gzip(boolean gzip) {
+         this.gzip = gzip;
+         return this;
+      }
+
+      /**
+       * Lists the files of the context. Their content is only read when the archive is sent or hashed.
+       */
+      public BuildContext build() throws IOException {
+         checkArgument(directory.isDirectory(), "%s is not a directory", directory);
+         File ignoreFile = new File(directory, DOCKERIGNORE);
+         DockerIgnore ignore = ignoreFile.isFile()
+               ? DockerIgnore.parse(Files.readLines(ignoreFile, StandardCharsets.UTF_8))
+               : DockerIgnore.NONE;
+         ImmutableList.Builder<Entry> entries = ImmutableList.builder();
+         walk(directory, "", ignore, entries);
+         return new BuildContext(entries.build(), gzip);
+      }
+
+      private static void walk(File directory, String prefix, DockerIgnore ignore,
+            ImmutableList.Builder<Entry> entries) throws IOException {
+         File[] children = directory.listFiles();
+         if (children == null) {
+            throw new IOException("Could not list " + directory);
+         }
+         // sorted, so that the same tree always gives the same archive
+         Arrays.sort(children);
+         for (File child : children) {
+            String path = prefix + child.getName();
+            boolean excluded = ignore.isExcluded(path) && !(prefix.isEmpty() && ALWAYS_SENT.contains(path));
+            if (java.nio.file.Files.isSymbolicLink(child.toPath())) {
+               if (!excluded) {
+                  entries.add(new Entry(path, child, Entry.SYMLINK, 0,
+                        java.nio.file.Files.readSymbolicLink(child.toPath()).toString()));
+               }
+            } else if (child.isDirectory()) {
+               if (!excluded) {
+                  entries.add(new Entry(path + "/", child, Entry.DIRECTORY, 0, null));
+               }
+               // exceptions may re-include files below an excluded directory
+               if (!excluded || ignore.hasExceptions()) {
+                  walk(child, path + "/", ignore, entries);
+               }
+            } else if (!excluded && child.isFile()) {
+               entries.add(new Entry(path, child, child.canExecute() ? Entry.EXECUTABLE : Entry.FILE,
+                     child.length(), null));
+            }
+         }
+      }
+   }
+
+   private static final String DOCKERIGNORE = ".dockerignore";
+   private static final List<String> ALWAYS_SENT = ImmutableList.of("Dockerfile", DOCKERIGNORE);
+   private static final int BLOCK = 512;
+   /** Largest size that fits in the octal size field of a tar header. */
+   private static final long MAX_OCTAL_SIZE = 077777777777L;
+
+   private static final class Entry {
+      static final char FILE = '0';
+      static final char EXECUTABLE = 'x';
+      static final char DIRECTORY = '5';
+      static final char SYMLINK = '2';
+
+      private final String path;
+      private final File file;
+      private final char kind;
+      private final long size;
+      private final String linkTarget;
+
+      private Entry(String path, File file, char kind, long size, String linkTarget) {
+         this.path = path;
+         this.file = file;
+         this.kind = kind;
+         this.size = size;
+         this.linkTarget = linkTarget;
+      }
+
+      private boolean hasContent() {
+         return kind == FILE || kind == EXECUTABLE;
+      }
+
+      /**
+       * Extended header records for the values that do not fit in a plain header, or null.
+       */
+      private byte[] paxRecords() {
+         StringBuilder records = new StringBuilder();
+         if (path.getBytes(StandardCharsets.UTF_8).length > 100) {
+            appendRecord(records, "path", path);
+         }
+         if (linkTarget != null && linkTarget.getBytes(StandardCharsets.UTF_8).length > 100) {
+            appendRecord(records, "linkpath", linkTarget);
+         }
+         if (size > MAX_OCTAL_SIZE) {
+            appendRecord(records, "size", Long.toString(size));
+         }
+         return records.length() == 0 ? null : records.toString().getBytes(StandardCharsets.UTF_8);
+      }
+
+      /**
+       * Bytes taken by the entry in the archive.
+       */
+      private long archivedSize() {
+         byte[] pax = paxRecords();
+         long archived = BLOCK + padded(size);
+         return pax == null ? archived : archived + BLOCK + padded(pax.length);
+      }
+
+      private static void appendRecord(StringBuilder records, String key, String value) {
+         // each record is "<length> <key>=<value>\n", where the length counts its own digits
+         int length = key.getBytes(StandardCharsets.UTF_8).length + value.getBytes(StandardCharsets.UTF_8).length + 3;
+         int digits = String.valueOf(length).length();
+         while (String.valueOf(length + digits).length() != digits) {
+            digits++;
+         }
+         records.append(length + digits).append(' ').append(key).append('=').append(value).append('\n');
+      }
+   }
+
+   private final List<Entry> entries;
+   private final boolean gzip;
+
+   private BuildContext(List<Entry> entries, boolean gzip) {
+      this.entries = entries;
+      this.gzip = gzip;
+   }
+
+   /**
+    * @return the archive as a repeatable payload of known length
+    */
+   public Payload payload() throws IOException {
+      Payload payload = Payloads.newByteSourcePayload(this);
+      payload.getContentMetadata().setContentLength(size());
+      payload.getContentMetadata().setContentType("application/tar");
+      return payload;
+   }
+
+   /**
+    * Hashes the paths, kinds and content of the files of the context, but not their modification times, so that a
+    * caller can skip building an image again from an unchanged context.
+    */
+   public HashCode hash() throws IOException {
+      Hasher hasher = Hashing.sha256().newHasher();
+      for (Entry entry : entries) {
+         hasher.putString(entry.path, StandardCharsets.UTF_8).putByte((byte) 0).putChar(entry.kind);
+         if (entry.linkTarget != null) {
+            hasher.putString(entry.linkTarget, StandardCharsets.UTF_8).putByte((byte) 0);
+         }
+         if (entry.hasContent()) {
+            hasher.putLong(entry.size).putBytes(Files.asByteSource(entry.file).hash(Hashing.sha256()).asBytes());
+         }
+      }
+      return hasher.hash();
+   }
+
+   @Override
+   public InputStream openStream() throws IOException {
+      return new TarStream(entries.iterator(), gzip);
+   }
+
+   @Override
+   public long size() throws IOException {
+      if (gzip) {
+         // the compressed size is only known by compressing
+         return super.size();
+      }
+      long size = 2 * BLOCK;
+      for (Entry entry : entries) {
+         size += entry.archivedSize();
+      }
+      return size;
+   }
+
+   private static long padded(long size) {
+      return (size + BLOCK - 1) / BLOCK * BLOCK;
+   }
+
+   /**
+    * Generates the archive as it is read, one header or file chunk at a time.
+    */
+   private static final class TarStream extends InputStream {
+
+      private static final class Buffer extends ByteArrayOutputStream {
+         private Buffer() {
+            super(64 * 1024 + BLOCK);
+         }
+
+         private byte[] array() {
+            return buf;
+         }
+      }
+
+      private final Iterator<Entry> entries;
+      private final Buffer buffer = new Buffer();
+      private final OutputStream out;
+      private final byte[] header = new byte[BLOCK];
+      private final byte[] chunk = new byte[64 * 1024];
+      private int position;
+      private InputStream file;
+      private long remaining;
+      private long padding;
+      private boolean finished;
+
+      private TarStream(Iterator<Entry> entries, boolean gzip) throws IOException {
+         this.entries = entries;
+         this.out = gzip ? new GZIPOutputStream(buffer, chunk.length) : buffer;
+      }
+
+      @Override
+      public int read() throws IOException {
+         byte[] single = new byte[1];
+         return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         if (len == 0) {
+            return 0;
+         }
+         while (position == buffer.size()) {
+            if (finished) {
+               return -1;
+            }
+            buffer.reset();
+            position = 0;
+            produce();
+         }
+         int read = Math.min(len, buffer.size() - position);
+         System.arraycopy(buffer.array(), position, b, off, read);
+         position += read;
+         return read;
+      }
+
+      /**
+       * Writes the next part of the archive, which may produce no output when compressing.
+       */
+      private void produce() throws IOException {
+         if (file != null) {
+            int read = file.read(chunk, 0, (int) Math.min(chunk.length, remaining));
+            if (read == -1) {
+               throw new IOException("File shrank while being archived");
+            }
+            out.write(chunk, 0, read);
+            remaining -= read;
+            if (remaining == 0) {
+               file.close();
+               file = null;
+               writeZeros(padding);
+            }
+         } else if (entries.hasNext()) {
+            Entry entry = entries.next();
+            byte[] pax = entry.paxRecords();
+            if (pax != null) {
+               writeHeader("PaxHeaders/" + truncate(entry.path, 88), 'x', 0644, pax.length, null, 0);
+               out.write(pax);
+               writeZeros(padded(pax.length) - pax.length);
+            }
+            switch (entry.kind) {
+               case Entry.DIRECTORY:
+                  writeHeader(entry.path, '5', 0755, 0, null, entry.file.lastModified());
+                  break;
+               case Entry.SYMLINK:
+                  writeHeader(entry.path, '2', 0777, 0, entry.linkTarget, entry.file.lastModified());
+                  break;
+               default:
+                  writeHeader(entry.path, '0', entry.kind == Entry.EXECUTABLE ? 0755 : 0644, entry.size, null,
+                        entry.file.lastModified());
+                  if (entry.size > 0) {
+                     file = Files.asByteSource(entry.file).openBufferedStream();
+                     remaining = entry.size;
+                     padding = padded(entry.size) - entry.size;
+                  }
+            }
+         } else {
+            writeZeros(2 * BLOCK);
+            out.close();
+            finished = true;
+         }
+      }
+
+      private void writeHeader(String path, char type, int mode, long size, String linkTarget, long lastModified)
+            throws IOException {
+         Arrays.fill(header, (byte) 0);
+         putString(path, 0, 100);
+         putOctal(mode, 100, 8);
+         putOctal(0, 108, 8);
+         putOctal(0, 116, 8);
+         putOctal(size > MAX_OCTAL_SIZE ? 0 : size, 124, 12);
+         putOctal(lastModified / 1000, 136, 12);
+         header[156] = (byte) type;
+         if (linkTarget != null) {
+            putString(linkTarget, 157, 100);
+         }
+         putString("ustar", 257, 6);
+         header[263] = '0';
+         header[264] = '0';
+         // the checksum is computed with its own field filled with spaces
+         Arrays.fill(header, 148, 156, (byte) ' ');
+         long checksum = 0;
+         for (byte b : header) {
+            checksum += b & 0xff;
+         }
+         putOctal(checksum, 148, 7);
+         header[155] = ' ';
+         out.write(header);
+      }
+
+      private void putString(String value, int offset, int length) {
+         byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+         // values that do not fit are carried by the extended header
+         System.arraycopy(bytes, 0, header, offset, Math.min(bytes.length, length));
+      }
+
+      private void putOctal(long value, int offset, int length) {
+         String octal = Long.toOctalString(value);
+         int digits = length - 1;
+         for (int i = 0; i < digits; i++) {
+            int index = octal.length() - digits + i;
+            header[offset + i] = (byte) (index < 0 ? '0' : octal.charAt(index));
+         }
+         header[offset + digits] = 0;
+      }
+
+      private void writeZeros(long count) throws IOException {
+         Arrays.fill(chunk, (byte) 0);
+         for (long left = count; left > 0; left -= chunk.length) {
+            out.write(chunk, 0, (int) Math.min(chunk.length, left));
+         }
+      }
+
+      private static String truncate(String value, int length) {
+         return value.length() <= length ? value : value.substring(0, length);
+      }
+
+      @Override
+      public void close() throws IOException {
+         finished = true;
+         try {
+            if (file != null) {
+               file.close();
+               file = null;
+            }
+         } finally {
+            // releases the native deflater when the archive is abandoned before its end
+            out.close();
+            buffer.reset();
+            position = 0;
+         }
+      }
+   }
+}
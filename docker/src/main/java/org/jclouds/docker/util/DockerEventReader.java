@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.util;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+import org.jclouds.docker.domain.Event;
+import org.jclouds.json.Json;
+
+import com.google.common.base.Charsets;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Reads the stream returned by {@link org.jclouds.docker.features.MiscApi#events()}
+ * one {@link Event} at a time. The daemon writes the events as concatenated
+ * JSON objects, so each call to {@link #readEvent()} blocks until the next
+ * object is complete.
+ */
+public final class DockerEventReader implements Closeable {
+
+   private final Json json;
+   private final JsonParser parser = new JsonParser();
+   private final JsonReader reader;
+
+   public DockerEventReader(InputStream in, Json json) {
+      this.json = checkNotNull(json, "json");
+      this.reader = new JsonReader(new InputStreamReader(checkNotNull(in, "in"), Charsets.UTF_8));
+      this.reader.setLenient(true);
+   }
+
+   /**
+    * Reads the next event.
+    *
+    * @return the event, or null when the stream has ended
+    * @throws IOException if the stream fails or does not contain JSON objects
+    */
+   public Event readEvent() throws IOException {
+      try {
+         if (reader.peek() == JsonToken.END_DOCUMENT) {
+            return null;
+         }
+         JsonElement element = parser.parse(reader);
+         return json.fromJson(element.toString(), Event.class);
+      } catch (JsonParseException e) {
+         if (e.getCause() instanceof IOException) {
+            throw (IOException) e.getCause();
+         }
+         throw new IOException("Malformed docker event", e);
+      }
+   }
+
+   @Override
+   public void close() throws IOException {
+      reader.close();
+   }
+}
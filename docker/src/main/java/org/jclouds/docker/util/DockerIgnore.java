@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.util;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * The exclusion rules of a <code>.dockerignore</code> file. As with the docker client, the last rule matching a
+ * path wins, <code>!</code> introduces an exception, <code>**</code> matches any number of directories, and a rule
+ * matching a directory also matches everything below it.
+ */
+final class DockerIgnore {
+
+   private static final class Rule {
+      private final Pattern pattern;
+      private final int segments;
+      private final boolean exception;
+
+      private Rule(Pattern pattern, int segments, boolean exception) {
+         this.pattern = pattern;
+         this.segments = segments;
+         this.exception = exception;
+      }
+   }
+
+   static final DockerIgnore NONE = new DockerIgnore(ImmutableList.<Rule>of());
+
+   private final List<Rule> rules;
+   private final boolean hasExceptions;
+
+   private DockerIgnore(List<Rule> rules) {
+      this.rules = rules;
+      boolean hasExceptions = false;
+      for (Rule rule : rules) {
+         hasExceptions |= rule.exception;
+      }
+      this.hasExceptions = hasExceptions;
+   }
+
+   static DockerIgnore parse(List<String> lines) {
+      ImmutableList.Builder<Rule> rules = ImmutableList.builder();
+      for (String line : lines) {
+         String pattern = line.trim();
+         if (pattern.isEmpty() || pattern.startsWith("#")) {
+            continue;
+         }
+         boolean exception = pattern.startsWith("!");
+         if (exception) {
+            pattern = pattern.substring(1).trim();
+         }
+         pattern = clean(pattern);
+         if (pattern.isEmpty()) {
+            continue;
+         }
+         rules.add(new Rule(Pattern.compile(toRegex(pattern)), pattern.split("/").length, exception));
+      }
+      return new DockerIgnore(rules.build());
+   }
+
+   /**
+    * Whether some rules re-include paths, in which case excluded directories must still be walked.
+    */
+   boolean hasExceptions() {
+      return hasExceptions;
+   }
+
+   /**
+    * @param path
+    *           path relative to the root of the context, with <code>/</code> separators
+    */
+   boolean isExcluded(String path) {
+      String[] segments = path.split("/");
+      boolean excluded = false;
+      for (Rule rule : rules) {
+         boolean matches = rule.pattern.matcher(path).matches();
+         if (!matches && segments.length > rule.segments) {
+            // the rule may match a parent directory
+            StringBuilder parent = new StringBuilder(segments[0]);
+            for (int i = 1; i < rule.segments; i++) {
+               parent.append('/').append(segments[i]);
+            }
+            matches = rule.pattern.matcher(parent).matches();
+         }
+         if (matches) {
+            excluded = !rule.exception;
+         }
+      }
+      return excluded;
+   }
+
+   private static String clean(String pattern) {
+      String cleaned = pattern;
+      while (cleaned.startsWith("/") || cleaned.startsWith("./")) {
+         cleaned = cleaned.substring(cleaned.startsWith("/") ? 1 : 2);
+      }
+      while (cleaned.endsWith("/")) {
+         cleaned = cleaned.substring(0, cleaned.length() - 1);
+      }
+      return cleaned.replaceAll("/+", "/");
+   }
+
+   private static String toRegex(String pattern) {
+      StringBuilder regex = new StringBuilder();
+      for (int i = 0; i < pattern.length(); i++) {
+         char c = pattern.charAt(i);
+         if (c == '*') {
+            if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '*') {
+               i++;
+               if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '/') {
+                  i++;
+                  regex.append("(.*/)?");
+               } else {
+                  regex.append(".*");
+               }
+            } else {
+               regex.append("[^/]*");
+            }
+         } else if (c == '?') {
+            regex.append("[^/]");
+         } else if (c == '[') {
+            int end = pattern.indexOf(']', i + 1);
+            if (end < 0) {
+               regex.append("\\[");
+            } else {
+               String set = pattern.substring(i + 1, end);
+               if (set.startsWith("!") || set.startsWith("^")) {
+                  set = "^" + set.substring(1);
+               }
+               regex.append('[').append(set.replace("\\", "\\\\").replace("[", "\\[")).append(']');
+               i = end;
+            }
+         } else if (c == '\\' && i + 1 < pattern.length()) {
+            regex.append(Pattern.quote(String.valueOf(pattern.charAt(++i))));
+         } else if ("\\.^$|+(){}".indexOf(c) >= 0) {
+            regex.append('\\').append(c);
+         } else {
+            regex.append(c);
+         }
+      }
+      return regex.toString();
+   }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.util;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Map;
+
+import org.jclouds.docker.domain.ProgressMessage;
+import org.jclouds.docker.domain.ProgressMessage.ProgressDetail;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Maps;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Decodes the progress streams returned when pulling ({@link org.jclouds.docker.features.ImageApi#createImage}) or
+ * building ({@link org.jclouds.docker.features.MiscApi#build}) an image, one {@link ProgressMessage} at a time.
+ * <p>
+ * The messages are read with a streaming JSON reader rather than parsed into a tree, and the fields that are not
+ * part of {@link ProgressMessage}, such as the rendered progress bar, are skipped without being decoded.
+ */
+public final class DockerProgressReader implements Closeable {
+
+   /**
+    * Receives the messages of {@link DockerProgressReader#readAll(Listener)}. The methods do nothing by default.
+    */
+   public abstract static class Listener {
+
+      /**
+       * Called for every message, before any progress callback.
+       */
+      public void onMessage(ProgressMessage message) {
+      }
+
+      /**
+       * Called when the progress of a layer changes.
+       *
+       * @param layerId
+       *           id of the layer
+       * @param current
+       *           bytes of the layer transferred so far
+       * @param total
+       *           size of the layer, or zero when it is not known yet
+       * @param aggregateCurrent
+       *           bytes transferred so far, over all the layers
+       * @param aggregateTotal
+       *           size of all the layers whose size is known
+       */
+      public void onProgress(String layerId, long current, long total, long aggregateCurrent, long aggregateTotal) {
+      }
+   }
+
+   private final JsonReader reader;
+
+   public DockerProgressReader(InputStream in) {
+      this.reader = new JsonReader(new InputStreamReader(checkNotNull(in, "in"), Charsets.UTF_8));
+      this.reader.setLenient(true);
+   }
+
+   /**
+    * Reads the next message.
+    *
+    * @return the message, or null when the stream has ended
+    * @throws IOException if the stream fails or does not contain JSON objects
+    */
+   public ProgressMessage readMessage() throws IOException {
+      if (reader.peek() == JsonToken.END_DOCUMENT) {
+         return null;
+      }
+      String id = null;
+      String status = null;
+      ProgressDetail progressDetail = null;
+      String stream = null;
+      String error = null;
+      reader.beginObject();
+      while (reader.hasNext()) {
+         String name = reader.nextName();
+         if (reader.peek() == JsonToken.NULL) {
+            reader.skipValue();
+         } else if ("id".equals(name)) {
+            id = reader.nextString();
+         } else if ("status".equals(name)) {
+            status = reader.nextString();
+         } else if ("progressDetail".equals(name)) {
+            progressDetail = readProgressDetail();
+         } else if ("stream".equals(name)) {
+            stream = reader.nextString();
+         } else if ("error".equals(name)) {
+            error = reader.nextString();
+         } else if ("errorDetail".equals(name) && error == null) {
+            error = readErrorDetailMessage();
+         } else {
+            reader.skipValue();
+         }
+      }
+      reader.endObject();
+      return ProgressMessage.create(id, status, progressDetail, stream, error);
+   }
+
+   /**
+    * Reads the messages until the end of the stream or the first error, tracking the progress of each layer.
+    *
+    * @return the message reporting the error, or null if the stream ended without an error
+    * @throws IOException if the stream fails or does not contain JSON objects
+    */
+   public ProgressMessage readAll(Listener listener) throws IOException {
+      // current and total bytes of each layer
+      Map<String, long[]> layers = Maps.newHashMap();
+      long aggregateCurrent = 0;
+      long aggregateTotal = 0;
+      for (ProgressMessage message = readMessage(); message != null; message = readMessage()) {
+         listener.onMessage(message);
+         if (message.error() != null) {
+            return message;
+         }
+         ProgressDetail detail = message.progressDetail();
+         if (message.id() == null || detail == null || (detail.current() == 0 && detail.total() == 0)) {
+            // status messages come with an empty progress detail
+            continue;
+         }
+         long[] layer = layers.get(message.id());
+         if (layer == null) {
+            layer = new long[2];
+            layers.put(message.id(), layer);
+         }
+         // the daemon restarts the count when it moves from downloading a layer to extracting it
+         aggregateCurrent += detail.current() - layer[0];
+         aggregateTotal += detail.total() - layer[1];
+         layer[0] = detail.current();
+         layer[1] = detail.total();
+         listener.onProgress(message.id(), layer[0], layer[1], aggregateCurrent, aggregateTotal);
+      }
+      return null;
+   }
+
+   private ProgressDetail readProgressDetail() throws IOException {
+      long current = 0;
+      long total = 0;
+      reader.beginObject();
+      while (reader.hasNext()) {
+         String name = reader.nextName();
+         if ("current".equals(name) && reader.peek() == JsonToken.NUMBER) {
+            current = reader.nextLong();
+         } else if ("total".equals(name) && reader.peek() == JsonToken.NUMBER) {
+            total = reader.nextLong();
+         } else {
+            reader.skipValue();
+         }
+      }
+      reader.endObject();
+      return ProgressDetail.create(current, total);
+   }
+
+   private String readErrorDetailMessage() throws IOException {
+      String message = null;
+      reader.beginObject();
+      while (reader.hasNext()) {
+         if ("message".equals(reader.nextName()) && reader.peek() == JsonToken.STRING) {
+            message = reader.nextString();
+         } else {
+            reader.skipValue();
+         }
+      }
+      reader.endObject();
+      return message;
+   }
+
+   @Override
+   public void close() throws IOException {
+      reader.close();
+   }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.util;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+import org.jclouds.docker.domain.Stats;
+
+import com.google.common.base.Charsets;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Reads the stream returned by {@link org.jclouds.docker.features.ContainerApi#stats(String)} one {@link Stats}
+ * sample at a time. Each call to {@link #readStats()} blocks until the daemon has written the next sample, which is
+ * decoded straight from the stream.
+ * <p>
+ * The samples are decoded with the {@link Gson} instance of the context, which knows how to build the domain
+ * objects.
+ */
+public final class DockerStatsReader implements Closeable {
+
+   private final Gson gson;
+   private final JsonReader reader;
+
+   public DockerStatsReader(InputStream in, Gson gson) {
+      this.gson = checkNotNull(gson, "gson");
+      this.reader = new JsonReader(new InputStreamReader(checkNotNull(in, "in"), Charsets.UTF_8));
+      this.reader.setLenient(true);
+   }
+
+   /**
+    * Reads the next sample.
+    *
+    * @return the sample, or null when the stream has ended
+    * @throws IOException if the stream fails or does not contain JSON objects
+    */
+   public Stats readStats() throws IOException {
+      try {
+         if (reader.peek() == JsonToken.END_DOCUMENT) {
+            return null;
+         }
+         return gson.fromJson(reader, Stats.class);
+      } catch (JsonParseException e) {
+         if (e.getCause() instanceof IOException) {
+            throw (IOException) e.getCause();
+         }
+         throw new IOException("Malformed container stats", e);
+      }
+   }
+
+   @Override
+   public void close() throws IOException {
+      reader.close();
+   }
+}
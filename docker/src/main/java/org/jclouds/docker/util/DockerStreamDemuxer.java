@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import com.google.common.io.ByteStreams;
+
+/**
+ * Demultiplexes a docker-raw-stream, as returned by attach and exec start,
+ * into separate standard output and standard error targets.
+ * <p>
+ * Unlike {@link DockerInputStream#readStdStreamData()}, frames are not read
+ * into memory: their payload is copied to the target through a single buffer
+ * owned by the demuxer, so there is no allocation per frame and frames of any
+ * size are copied without truncation. Instances are therefore not thread-safe,
+ * but can be reused for any number of streams.
+ * <p>
+ * Standard input frames are written to the standard output target. A
+ * <code>null</code> target discards the frames of its stream.
+ */
+public final class DockerStreamDemuxer {
+
+   public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+   private static final int HEADER_SIZE = 8;
+
+   private final byte[] header = new byte[HEADER_SIZE];
+   private final byte[] buffer;
+   private final ByteBuffer byteBuffer;
+
+   public DockerStreamDemuxer() {
+      this(DEFAULT_BUFFER_SIZE);
+   }
+
+   public DockerStreamDemuxer(int bufferSize) {
+      checkArgument(bufferSize > 0, "bufferSize must be positive");
+      this.buffer = new byte[bufferSize];
+      this.byteBuffer = ByteBuffer.wrap(buffer);
+   }
+
+   /**
+    * Copies all the frames of the stream to the given output streams.
+    *
+    * @return number of payload bytes read from the stream
+    * @throws EOFException
+    *            if the stream ends in the middle of a frame
+    */
+   public long demux(InputStream in, final OutputStream stdout, final OutputStream stderr) throws IOException {
+      return demux(in, stdout == null ? null : new Sink() {
+         @Override
+         public void write(int length) throws IOException {
+            stdout.write(buffer, 0, length);
+         }
+      }, stderr == null ? null : new Sink() {
+         @Override
+         public void write(int length) throws IOException {
+            stderr.write(buffer, 0, length);
+         }
+      });
+   }
+
+   /**
+    * Copies all the frames of the stream to the given channels.
+    *
+    * @return number of payload bytes read from the stream
+    * @throws EOFException
+    *            if the stream ends in the middle of a frame
+    */
+   public long demux(InputStream in, WritableByteChannel stdout, WritableByteChannel stderr) throws IOException {
+      return demux(in, channelSink(stdout), channelSink(stderr));
+   }
+
+   private Sink channelSink(final WritableByteChannel channel) {
+      if (channel == null) {
+         return null;
+      }
+      return new Sink() {
+         @Override
+         public void write(int length) throws IOException {
+            byteBuffer.clear();
+            byteBuffer.limit(length);
+            while (byteBuffer.hasRemaining()) {
+               channel.write(byteBuffer);
+            }
+         }
+      };
+   }
+
+   private long demux(InputStream in, Sink stdout, Sink stderr) throws IOException {
+      long total = 0;
+      while (true) {
+         int read = ByteStreams.read(in, header, 0, HEADER_SIZE);
+         if (read == 0) {
+            return total;
+         }
+         if (read < HEADER_SIZE) {
+            throw new EOFException("Stream ended in a frame header");
+         }
+         Sink sink;
+         switch (header[0]) {
+            case 0:
+            case 1:
+               sink = stdout;
+               break;
+            case 2:
+               sink = stderr;
+               break;
+            default:
+               throw new IOException("Unknown stream type " + header[0]);
+         }
+         // the size is an unsigned int
+         long remaining = (long) (header[4] & 0xFF) << 24 | (header[5] & 0xFF) << 16 | (header[6] & 0xFF) << 8
+               | (header[7] & 0xFF);
+         total += remaining;
+         while (remaining > 0) {
+            int length = ByteStreams.read(in, buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (length == 0) {
+               throw new EOFException("Stream ended in a frame, " + remaining + " bytes missing");
+            }
+            if (sink != null) {
+               sink.write(length);
+            }
+            remaining -= length;
+         }
+      }
+   }
+
+   /**
+    * Target of the bytes copied to the buffer.
+    */
+   private interface Sink {
+      void write(int length) throws IOException;
+   }
+}
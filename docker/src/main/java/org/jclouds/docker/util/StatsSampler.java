@@ -0,0 +1,362 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.docker.domain.Stats;
+import org.jclouds.docker.domain.Stats.CpuStats;
+import org.jclouds.docker.domain.Stats.NetworkStats;
+import org.jclouds.docker.features.ContainerApi;
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+import com.google.common.io.Closeables;
+import com.google.gson.Gson;
+
+/**
+ * Samples the resource usage of many containers and publishes the change since the previous sample of each one.
+ * <p>
+ * A streaming sampler keeps one {@link ContainerApi#stats(String) stats stream} open per container, and so a thread
+ * of the executor per container; it reports every second at the cost of one connection per container. A polling
+ * sampler instead takes {@link ContainerApi#getStats(String) single samples} at a fixed period, spreading the
+ * containers over the executor in batches, which bounds the threads and connections used to monitor large fleets.
+ *
+ * <pre>
+ * StatsSampler sampler = StatsSampler.polling(api.getContainerApi(), executor, scheduler, 10, TimeUnit.SECONDS, 50,
+ *       listener);
+ * sampler.add(containerId);
+ * </pre>
+ */
+public final class StatsSampler implements Closeable {
+
+   /**
+    * Receives the samples, from the threads of the executor of the sampler.
+    */
+   public interface Listener {
+
+      /**
+       * Called for each sample but the first of a container, which is only used as a baseline.
+       */
+      void onSample(String containerId, Sample sample);
+
+      /**
+       * Called when sampling a container failed. A streaming sampler stops sampling the container; a polling sampler
+       * tries again at the next period.
+       */
+      void onError(String containerId, Exception e);
+   }
+
+   /**
+    * The usage of a container between two samples.
+    */
+   @AutoValue
+   public abstract static class Sample {
+
+      Sample() {} // For AutoValue only!
+
+      /**
+       * The latest sample.
+       */
+      public abstract Stats stats();
+
+      /**
+       * CPU used, where 100 is one whole core.
+       */
+      public abstract double cpuPercent();
+
+      public abstract long memoryUsage();
+
+      /**
+       * Memory limit of the container, or the memory of the host if it has none.
+       */
+      public abstract long memoryLimit();
+
+      public abstract long blockReadBytes();
+
+      public abstract long blockWriteBytes();
+
+      public abstract long networkRxBytes();
+
+      public abstract long networkTxBytes();
+
+      static Sample create(Stats stats, double cpuPercent, long memoryUsage, long memoryLimit, long blockReadBytes,
+            long blockWriteBytes, long networkRxBytes, long networkTxBytes) {
+         return new AutoValue_StatsSampler_Sample(stats, cpuPercent, memoryUsage, memoryLimit, blockReadBytes,
+               blockWriteBytes, networkRxBytes, networkTxBytes);
+      }
+   }
+
+   /** Marks the containers of a polling sampler. */
+   private static final Closeable NOT_STREAMING = new Closeable() {
+      @Override
+      public void close() {
+      }
+   };
+
+   public static StatsSampler streaming(ContainerApi api, Gson gson, ExecutorService executor, Listener listener) {
+      return new StatsSampler(api, checkNotNull(gson, "gson"), executor, null, 0, null, 0, listener);
+   }
+
+   /**
+    * @param batchSize number of containers sampled one after the other by a task of the executor
+    */
+   public static StatsSampler polling(ContainerApi api, ExecutorService executor, ScheduledExecutorService scheduler,
+         long period, TimeUnit unit, int batchSize, Listener listener) {
+      checkArgument(period > 0, "period must be positive");
+      checkArgument(batchSize > 0, "batchSize must be positive");
+      return new StatsSampler(api, null, executor, checkNotNull(scheduler, "scheduler"), period,
+            checkNotNull(unit, "unit"), batchSize, listener);
+   }
+
+   private final ContainerApi api;
+   private final Gson gson;
+   private final ExecutorService executor;
+   private final int batchSize;
+   private final Listener listener;
+   private final ScheduledFuture<?> poller;
+   /** The containers sampled, mapped to the stream they are read from when streaming. */
+   private final ConcurrentMap<String, Closeable> containers = Maps.newConcurrentMap();
+   private final ConcurrentMap<String, Stats> previous = Maps.newConcurrentMap();
+   /** Batches of the previous period still running, which must finish before polling again. */
+   private final AtomicInteger pendingBatches = new AtomicInteger();
+   private volatile boolean closed;
+
+   private StatsSampler(ContainerApi api, @Nullable Gson gson, ExecutorService executor,
+         @Nullable ScheduledExecutorService scheduler, long period, @Nullable TimeUnit unit, int batchSize,
+         Listener listener) {
+      this.api = checkNotNull(api, "api");
+      this.gson = gson;
+      this.executor = checkNotNull(executor, "executor");
+      this.batchSize = batchSize;
+      this.listener = checkNotNull(listener, "listener");
+      this.poller = scheduler == null ? null : scheduler.scheduleAtFixedRate(new Runnable() {
+         @Override
+         public void run() {
+            poll();
+         }
+      }, 0, period, unit);
+   }
+
+   /**
+    * Starts sampling a container. Does nothing if it is already sampled.
+    */
+   public void add(final String containerId) {
+      checkState(!closed, "sampler is closed");
+      if (gson == null) {
+         containers.putIfAbsent(containerId, NOT_STREAMING);
+         return;
+      }
+      final Stream stream = new Stream();
+      if (containers.putIfAbsent(containerId, stream) == null) {
+         executor.execute(new Runnable() {
+            @Override
+            public void run() {
+               stream(containerId, stream);
+            }
+         });
+      }
+   }
+
+   /**
+    * Stops sampling a container, for example once it has been destroyed.
+    */
+   public void remove(String containerId) {
+      Closeable stream = containers.remove(containerId);
+      previous.remove(containerId);
+      if (stream != null) {
+         closeQuietly(stream);
+      }
+   }
+
+   @Override
+   public void close() {
+      closed = true;
+      if (poller != null) {
+         poller.cancel(false);
+      }
+      for (String containerId : ImmutableList.copyOf(containers.keySet())) {
+         remove(containerId);
+      }
+   }
+
+   private void stream(String containerId, Stream stream) {
+      try {
+         DockerStatsReader reader = new DockerStatsReader(stream.open(api.stats(containerId)), gson);
+         try {
+            Stats stats;
+            while ((stats = reader.readStats()) != null && containers.get(containerId) == stream) {
+               publish(containerId, stats);
+            }
+         } finally {
+            reader.close();
+         }
+      } catch (Exception e) {
+         // closing the stream to stop sampling fails the pending read
+         if (containers.get(containerId) == stream) {
+            listener.onError(containerId, e);
+         }
+      } finally {
+         if (containers.remove(containerId, stream)) {
+            previous.remove(containerId);
+         }
+      }
+   }
+
+   private void poll() {
+      if (closed || pendingBatches.get() > 0) {
+         return;
+      }
+      for (final List<String> batch : Iterables.partition(ImmutableList.copyOf(containers.keySet()), batchSize)) {
+         pendingBatches.incrementAndGet();
+         try {
+            executor.execute(new Runnable() {
+               @Override
+               public void run() {
+                  try {
+                     for (String containerId : batch) {
+                        pollContainer(containerId);
+                     }
+                  } finally {
+                     pendingBatches.decrementAndGet();
+                  }
+               }
+            });
+         } catch (RejectedExecutionException e) {
+            // the executor is shutting down
+            pendingBatches.decrementAndGet();
+            return;
+         }
+      }
+   }
+
+   private void pollContainer(String containerId) {
+      if (closed || !containers.containsKey(containerId)) {
+         return;
+      }
+      try {
+         Stats stats = api.getStats(containerId);
+         if (stats == null) {
+            remove(containerId);
+         } else {
+            publish(containerId, stats);
+         }
+      } catch (Exception e) {
+         listener.onError(containerId, e);
+      }
+   }
+
+   private void publish(String containerId, Stats stats) {
+      Stats last = previous.put(containerId, stats);
+      if (last != null && containers.containsKey(containerId)) {
+         listener.onSample(containerId, sample(last, stats));
+      }
+   }
+
+   /**
+    * Computes the usage between two samples of a container. Counters that went backwards, because the container
+    * restarted, are counted from zero.
+    */
+   static Sample sample(Stats previous, Stats current) {
+      double cpuPercent = 0;
+      CpuStats cpu = current.cpuStats();
+      // the daemon sets the previous CPU usage itself, except on the first sample of a stream
+      CpuStats precpu = current.precpuStats() != null && current.precpuStats().systemCpuUsage() > 0
+            ? current.precpuStats() : previous.cpuStats();
+      if (cpu != null && precpu != null) {
+         long cpuDelta = cpu.cpuUsage().totalUsage() - precpu.cpuUsage().totalUsage();
+         long systemDelta = cpu.systemCpuUsage() - precpu.systemCpuUsage();
+         if (cpuDelta > 0 && systemDelta > 0) {
+            int cpus = cpu.onlineCpus() > 0 ? cpu.onlineCpus() : Math.max(1, cpu.cpuUsage().percpuUsage().size());
+            cpuPercent = (double) cpuDelta / systemDelta * cpus * 100;
+         }
+      }
+      long memoryUsage = current.memoryStats() != null ? current.memoryStats().usage() : 0;
+      long memoryLimit = current.memoryStats() != null ? current.memoryStats().limit() : 0;
+      return Sample.create(current, cpuPercent, memoryUsage, memoryLimit,
+            delta(blkio(previous, "Read"), blkio(current, "Read")),
+            delta(blkio(previous, "Write"), blkio(current, "Write")),
+            delta(network(previous, true), network(current, true)),
+            delta(network(previous, false), network(current, false)));
+   }
+
+   private static long blkio(Stats stats, String op) {
+      return stats.blkioStats() != null ? stats.blkioStats().total(op) : 0;
+   }
+
+   private static long network(Stats stats, boolean rx) {
+      long total = 0;
+      for (Map.Entry<String, NetworkStats> entry : stats.networks().entrySet()) {
+         total += rx ? entry.getValue().rxBytes() : entry.getValue().txBytes();
+      }
+      return total;
+   }
+
+   private static long delta(long previous, long current) {
+      return current >= previous ? current - previous : current;
+   }
+
+   private static void closeQuietly(Closeable closeable) {
+      try {
+         Closeables.close(closeable, true);
+      } catch (IOException impossible) {
+         throw new AssertionError(impossible);
+      }
+   }
+
+   /**
+    * Holds the response of a stats stream, so that it can be closed from another thread to stop sampling.
+    */
+   private static final class Stream implements Closeable {
+      private InputStream in;
+      private boolean closed;
+
+      synchronized InputStream open(InputStream in) throws IOException {
+         this.in = in;
+         if (closed) {
+            in.close();
+         }
+         return in;
+      }
+
+      @Override
+      public synchronized void close() throws IOException {
+         closed = true;
+         if (in != null) {
+            in.close();
+         }
+      }
+   }
+}
@@ -0,0 +1,326 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.ProtocolFamily;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Throwables;
+import com.google.common.io.Closeables;
+
+/**
+ * A {@link Socket} backed by a Unix domain {@link SocketChannel}. The address given to {@link #connect(SocketAddress)}
+ * is ignored in favour of the socket path.
+ * <p>
+ * The channel is non-blocking and each direction waits on its own selector, so that reads honour
+ * {@link #setSoTimeout(int)} and can run alongside writes, as HTTP clients expect from a TCP socket.
+ */
+final class UnixDomainSocket extends Socket {
+
+   private final String path;
+   private SocketChannel channel;
+   private Selector readSelector;
+   private Selector writeSelector;
+   private volatile int soTimeout;
+   private volatile boolean closed;
+   private boolean inputShutdown;
+   private boolean outputShutdown;
+
+   UnixDomainSocket(String path) {
+      this.path = path;
+   }
+
+   @Override
+   public void connect(SocketAddress endpoint) throws IOException {
+      connect(endpoint, 0);
+   }
+
+   /**
+    * Connects to the socket path, waiting at most <code>timeout</code> milliseconds, or forever if it is zero, for
+    * the daemon to accept the connection.
+    */
+   @Override
+   public synchronized void connect(SocketAddress endpoint, int timeout) throws IOException {
+      if (timeout < 0) {
+         throw new IllegalArgumentException("connect: timeout can't be negative");
+      }
+      if (closed) {
+         throw new SocketException("Socket is closed");
+      }
+      if (channel != null) {
+         throw new SocketException("Already connected");
+      }
+      SocketAddress address = unixDomainSocketAddress(path);
+      SocketChannel channel = openUnixDomainSocketChannel();
+      Selector readSelector = null;
+      Selector writeSelector = null;
+      try {
+         channel.configureBlocking(false);
+         readSelector = Selector.open();
+         writeSelector = Selector.open();
+         if (!channel.connect(address)) {
+            channel.register(writeSelector, SelectionKey.OP_CONNECT);
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+            while (!channel.finishConnect()) {
+               long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+               if (timeout > 0 && remaining <= 0) {
+                  throw new SocketTimeoutException("connect timed out");
+               }
+               writeSelector.select(timeout > 0 ? remaining : 0);
+               writeSelector.selectedKeys().clear();
+            }
+         }
+         channel.register(readSelector, SelectionKey.OP_READ);
+         // replaces the interest in the connection, if any
+         channel.register(writeSelector, SelectionKey.OP_WRITE);
+      } catch (IOException e) {
+         Closeables.close(readSelector, true);
+         Closeables.close(writeSelector, true);
+         channel.close();
+         throw e;
+      }
+      this.readSelector = readSelector;
+      this.writeSelector = writeSelector;
+      this.channel = channel;
+   }
+
+   /**
+    * Opens a Unix domain {@link SocketChannel} reflectively, for the same reason as
+    * {@link #unixDomainSocketAddress(String)}.
+    */
+   private static SocketChannel openUnixDomainSocketChannel() throws IOException {
+      try {
+         Method open = SocketChannel.class.getMethod("open", ProtocolFamily.class);
+         return (SocketChannel) open.invoke(null, StandardProtocolFamily.valueOf("UNIX"));
+      } catch (NoSuchMethodException e) {
+         throw new UnsupportedOperationException("Unix domain sockets require Java 16 or later", e);
+      } catch (IllegalArgumentException e) {
+         throw new UnsupportedOperationException("Unix domain sockets require Java 16 or later", e);
+      } catch (IllegalAccessException e) {
+         throw new UnsupportedOperationException("Unix domain sockets require Java 16 or later", e);
+      } catch (InvocationTargetException e) {
+         Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+         throw Throwables.propagate(e.getCause());
+      }
+   }
+
+   /**
+    * Creates a <code>java.net.UnixDomainSocketAddress</code> reflectively, so that this class still compiles and
+    * loads on runtimes older than Java 16.
+    */
+   static SocketAddress unixDomainSocketAddress(String path) throws IOException {
+      try {
+         Class<?> addressClass = Class.forName("java.net.UnixDomainSocketAddress");
+         return (SocketAddress) addressClass.getMethod("of", String.class).invoke(null, path);
+      } catch (ClassNotFoundException e) {
+         throw new UnsupportedOperationException("Unix domain sockets require Java 16 or later", e);
+      } catch (NoSuchMethodException e) {
+         throw new UnsupportedOperationException("Unix domain sockets require Java 16 or later", e);
+      } catch (IllegalAccessException e) {
+         throw new UnsupportedOperationException("Unix domain sockets require Java 16 or later", e);
+      } catch (InvocationTargetException e) {
+         throw new IOException("Invalid unix domain socket path: " + path, e.getCause());
+      }
+   }
+
+   @Override
+   public synchronized boolean isConnected() {
+      return channel != null;
+   }
+
+   @Override
+   public boolean isBound() {
+      return isConnected();
+   }
+
+   @Override
+   public boolean isClosed() {
+      return closed;
+   }
+
+   @Override
+   public synchronized boolean isInputShutdown() {
+      return inputShutdown;
+   }
+
+   @Override
+   public synchronized boolean isOutputShutdown() {
+      return outputShutdown;
+   }
+
+   @Override
+   public void setSoTimeout(int timeout) throws SocketException {
+      if (timeout < 0) {
+         throw new IllegalArgumentException("timeout can't be negative");
+      }
+      soTimeout = timeout;
+   }
+
+   @Override
+   public int getSoTimeout() {
+      return soTimeout;
+   }
+
+   @Override
+   public InputStream getInputStream() throws IOException {
+      checkConnected();
+      return new InputStream() {
+         private final byte[] single = new byte[1];
+
+         @Override
+         public int read() throws IOException {
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+         }
+
+         @Override
+         public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+               return 0;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+            synchronized (readSelector) {
+               try {
+                  while (true) {
+                     int read = channel.read(buffer);
+                     if (read != 0) {
+                        return read;
+                     }
+                     int timeout = soTimeout;
+                     if (readSelector.select(timeout) == 0) {
+                        if (closed) {
+                           throw new SocketException("Socket closed");
+                        }
+                        if (timeout > 0) {
+                           throw new SocketTimeoutException("Read timed out");
+                        }
+                     }
+                     readSelector.selectedKeys().clear();
+                  }
+               } catch (ClosedSelectorException e) {
+                  throw new SocketException("Socket closed");
+               } catch (ClosedChannelException e) {
+                  throw new SocketException("Socket closed");
+               }
+            }
+         }
+
+         @Override
+         public void close() throws IOException {
+            UnixDomainSocket.this.close();
+         }
+      };
+   }
+
+   @Override
+   public OutputStream getOutputStream() throws IOException {
+      checkConnected();
+      return new OutputStream() {
+         @Override
+         public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+         }
+
+         @Override
+         public void write(byte[] b, int off, int len) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+            synchronized (writeSelector) {
+               try {
+                  while (buffer.hasRemaining()) {
+                     if (channel.write(buffer) == 0) {
+                        writeSelector.select();
+                        writeSelector.selectedKeys().clear();
+                        if (closed) {
+                           throw new SocketException("Socket closed");
+                        }
+                     }
+                  }
+               } catch (ClosedSelectorException e) {
+                  throw new SocketException("Socket closed");
+               } catch (ClosedChannelException e) {
+                  throw new SocketException("Socket closed");
+               }
+            }
+         }
+
+         @Override
+         public void close() throws IOException {
+            UnixDomainSocket.this.close();
+         }
+      };
+   }
+
+   @Override
+   public synchronized void shutdownInput() throws IOException {
+      checkConnected();
+      channel.shutdownInput();
+      inputShutdown = true;
+   }
+
+   @Override
+   public synchronized void shutdownOutput() throws IOException {
+      checkConnected();
+      channel.shutdownOutput();
+      outputShutdown = true;
+   }
+
+   @Override
+   public synchronized void close() throws IOException {
+      if (closed) {
+         return;
+      }
+      closed = true;
+      if (channel != null) {
+         try {
+            channel.close();
+         } finally {
+            // closing a selector wakes up the threads blocked on it
+            Closeables.close(readSelector, true);
+            Closeables.close(writeSelector, true);
+         }
+      }
+   }
+
+   private synchronized void checkConnected() throws SocketException {
+      if (closed) {
+         throw new SocketException("Socket is closed");
+      }
+      if (channel == null) {
+         throw new SocketException("Socket is not connected");
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "UnixDomainSocket[path=" + path + "]";
+   }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.util;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+import javax.net.SocketFactory;
+
+/**
+ * Creates sockets connected to a Unix domain socket, such as <code>/var/run/docker.sock</code>, whatever the address
+ * they are asked to connect to. HTTP clients can therefore talk to a local daemon with a placeholder host name.
+ * <p>
+ * Unix domain socket channels are only available since Java 16, so creating a socket fails on older runtimes.
+ */
+public final class UnixDomainSocketFactory extends SocketFactory {
+
+   private final String path;
+
+   public UnixDomainSocketFactory(String path) {
+      this.path = checkNotNull(path, "path");
+   }
+
+   @Override
+   public Socket createSocket() throws IOException {
+      return new UnixDomainSocket(path);
+   }
+
+   @Override
+   public Socket createSocket(String host, int port) throws IOException {
+      return connected();
+   }
+
+   @Override
+   public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+      return connected();
+   }
+
+   @Override
+   public Socket createSocket(InetAddress host, int port) throws IOException {
+      return connected();
+   }
+
+   @Override
+   public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort)
+         throws IOException {
+      return connected();
+   }
+
+   private Socket connected() throws IOException {
+      Socket socket = createSocket();
+      socket.connect(InetSocketAddress.createUnresolved("localhost", 0));
+      return socket;
+   }
+}
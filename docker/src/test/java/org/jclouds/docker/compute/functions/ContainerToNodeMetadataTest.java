@@ -18,27 +18,33 @@ package org.jclouds.docker.compute.functions;
 
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
 import static org.testng.Assert.assertEquals;
 
+import java.net.URI;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.easymock.EasyMock;
-import org.jclouds.compute.domain.Image;
-import org.jclouds.compute.domain.ImageBuilder;
 import org.jclouds.compute.domain.NodeMetadata;
-import org.jclouds.compute.domain.OperatingSystem;
 import org.jclouds.compute.domain.OsFamily;
 import org.jclouds.compute.functions.GroupNamingConvention;
 import org.jclouds.date.internal.SimpleDateFormatDateService;
+import org.jclouds.docker.DockerApi;
+import org.jclouds.docker.compute.internal.DockerHosts;
+import org.jclouds.docker.compute.internal.DockerHosts.Host;
+import org.jclouds.docker.compute.internal.ImageMetadataCache;
 import org.jclouds.docker.domain.Config;
 import org.jclouds.docker.domain.Container;
 import org.jclouds.docker.domain.HostConfig;
+import org.jclouds.docker.domain.Image;
 import org.jclouds.docker.domain.NetworkSettings;
 import org.jclouds.docker.domain.Port;
 import org.jclouds.docker.domain.State;
+import org.jclouds.docker.features.ImageApi;
 import org.jclouds.domain.Location;
 import org.jclouds.domain.LocationBuilder;
 import org.jclouds.domain.LocationScope;
@@ -60,6 +66,14 @@ public class ContainerToNodeMetadataTest {
 
    private ContainerToNodeMetadata function;
 
+   private ImageApi imageApi;
+
+   private ContainerToNodeMetadata multiHostFunction;
+
+   private DockerHosts multiHosts;
+
+   private Location otherHost;
+
    private Container container;
 
    @BeforeMethod
@@ -133,26 +147,15 @@ public class ContainerToNodeMetadataTest {
 
       GroupNamingConvention.Factory namingConvention = Guice.createInjector().getInstance(GroupNamingConvention.Factory.class);
 
-      Supplier<Map<String, ? extends Image>> images = new Supplier<Map<String, ? extends Image>>() {
-         @Override
-         public Map<String, ? extends Image> get() {
-            OperatingSystem os = OperatingSystem.builder()
-                    .description("Ubuntu 12.04 64bit")
-                    .family(OsFamily.UBUNTU)
-                    .version("12.04")
-                    .is64Bit(true)
-                    .build();
-
-            return ImmutableMap.of("af0f59f1c19eef9471c3b8c8d587c39b8f130560b54f3766931b37d76d5de4b6",
-                    new ImageBuilder()
-                            .ids("af0f59f1c19eef9471c3b8c8d587c39b8f130560b54f3766931b37d76d5de4b6")
-                            .name("ubuntu")
-                            .description("Ubuntu 12.04 64bit")
-                            .operatingSystem(os)
-                            .status(Image.Status.AVAILABLE)
-                            .build());
-         }
-      };
+      imageApi = EasyMock.createMock(ImageApi.class);
+      expect(imageApi.inspectImage("af0f59f1c19eef9471c3b8c8d587c39b8f130560b54f3766931b37d76d5de4b6"))
+            .andReturn(Image.create(
+                  "af0f59f1c19eef9471c3b8c8d587c39b8f130560b54f3766931b37d76d5de4b6", null, null, null, null, "",
+                  new Date(), "", "1.9.1", "amd64", "linux", 0, 0, ImmutableList.of("ubuntu:12.04")));
+      DockerApi api = EasyMock.createMock(DockerApi.class);
+      expect(api.getImageApi()).andReturn(imageApi).anyTimes();
+      replay(imageApi, api);
+      ImageMetadataCache images = new ImageMetadataCache(new ImageToImage(), 60);
 
       Supplier<Set<? extends Location>> locations = new Supplier<Set< ? extends Location>>() {
          @Override
@@ -168,8 +171,22 @@ public class ContainerToNodeMetadataTest {
          }
       };
 
+      Location pool = new LocationBuilder().id("docker-hosts").description("all hosts").scope(LocationScope.ZONE)
+            .build();
+      otherHost = new LocationBuilder().id("10.0.0.2:2376").description("https://10.0.0.2:2376")
+            .scope(LocationScope.HOST).parent(pool).build();
+      multiHosts = new DockerHosts(ImmutableList.of(
+            new Host("127.0.0.1:4243", URI.create("http://127.0.0.1:4243"), api,
+                  new LocationBuilder().id("127.0.0.1:4243").description("http://127.0.0.1:4243")
+                        .scope(LocationScope.HOST).parent(pool).build()),
+            new Host("10.0.0.2:2376", URI.create("https://10.0.0.2:2376"), api,
+                  otherHost)));
+      DockerHosts hosts = new DockerHosts(ImmutableList.of(new Host("127.0.0.1:4243",
+            URI.create("http://127.0.0.1:4243"), api, null)));
       function = new ContainerToNodeMetadata(providerMetadata, new StateToStatus(), namingConvention, images, locations,
-            new LoginPortForContainer.LoginPortLookupChain(null));
+            new LoginPortForContainer.LoginPortLookupChain(null), hosts);
+      multiHostFunction = new ContainerToNodeMetadata(providerMetadata, new StateToStatus(), namingConvention, images,
+            locations, new LoginPortForContainer.LoginPortLookupChain(null), multiHosts);
    }
 
    public void testVirtualMachineToNodeMetadata() {
@@ -183,6 +200,28 @@ public class ContainerToNodeMetadataTest {
       assertEquals(node.getImageId(), "af0f59f1c19eef9471c3b8c8d587c39b8f130560b54f3766931b37d76d5de4b6");
       assertEquals(node.getPrivateAddresses(), ImmutableSet.of("172.17.0.2"));
       assertEquals(node.getPublicAddresses(), ImmutableSet.of("127.0.0.1"));
+      assertEquals(node.getOperatingSystem().getFamily(), OsFamily.UBUNTU);
+      assertEquals(node.getOperatingSystem().getVersion(), "12.04");
+   }
+
+   public void testHardwareIsDerivedFromTheLimits() {
+      assertEquals(function.apply(container).getHardware().getId(), "unlimited");
+
+      NodeMetadata node = function.apply(container.toBuilder()
+            .hostConfig(container.hostConfig().toBuilder().memory(2L * 1024 * 1024 * 1024).cpuQuota(50000L)
+                  .cpuPeriod(100000L).build())
+            .build());
+      assertEquals(node.getHardware().getId(), "0.5cpu-2048mb");
+      assertEquals(node.getHardware().getRam(), 2048);
+      assertEquals(node.getHardware().getProcessors().get(0).getCores(), 0.5);
+   }
+
+   public void testImageIsInspectedOnceForAllItsContainers() {
+      for (int i = 0; i < 10; i++) {
+         function.apply(container.toBuilder().id("container" + i).build());
+      }
+      // the expectation allows a single inspection
+      verify(imageApi);
    }
 
    public void testVirtualMachineWithNetworksToNodeMetadata() {
@@ -221,4 +260,12 @@ public class ContainerToNodeMetadataTest {
       assertEquals(node.getPrivateAddresses(), ImmutableSet.of("172.17.0.2", "172.19.0.2"));
       assertEquals(node.getPublicAddresses(), ImmutableSet.of("127.0.0.1"));
    }
+
+   public void testMultiHostContainerIsInTheLocationOfItsHost() {
+      multiHosts.remember(container.id(), multiHosts.getHost("10.0.0.2:2376"));
+      NodeMetadata node = multiHostFunction.apply(container);
+
+      assertEquals(node.getLocation(), otherHost);
+      assertEquals(node.getPublicAddresses(), ImmutableSet.of("10.0.0.2"));
+   }
 }
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.compute.internal;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.docker.DockerApi;
+import org.jclouds.docker.domain.Container;
+import org.jclouds.docker.domain.Event;
+import org.jclouds.docker.domain.ContainerSummary;
+import org.jclouds.docker.features.ContainerApi;
+import org.jclouds.docker.features.MiscApi;
+import org.jclouds.docker.options.ListContainerOptions;
+import org.jclouds.json.Json;
+import org.jclouds.json.config.GsonModule;
+import org.jclouds.lifecycle.Closer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.inject.Guice;
+
+/**
+ * Unit tests for the {@link ContainerStateCache} class.
+ */
+@Test(groups = "unit", testName = "ContainerStateCacheTest", singleThreaded = true)
+public class ContainerStateCacheTest {
+
+   private DockerApi api;
+   private ContainerApi containerApi;
+   private ImageMetadataCache imageMetadata;
+   private ContainerStateCache cache;
+
+   @BeforeMethod
+   public void setUp() {
+      api = createMock(DockerApi.class);
+      containerApi = createMock(ContainerApi.class);
+      expect(api.getContainerApi()).andReturn(containerApi).anyTimes();
+      imageMetadata = createMock(ImageMetadataCache.class);
+      Json json = Guice.createInjector(new GsonModule()).getInstance(Json.class);
+      // disabled, so that events are only fed by the tests
+      cache = new ContainerStateCache(api, json, false, imageMetadata, new Closer());
+   }
+
+   public void testSubscribesOnItsOwnThreadUntilClosed() throws IOException, InterruptedException {
+      MiscApi miscApi = createMock(MiscApi.class);
+      expect(api.getMiscApi()).andReturn(miscApi).anyTimes();
+      expect(miscApi.events()).andReturn(new IdleStream());
+      expect(containerApi.listContainers(ListContainerOptions.Builder.all(true)))
+            .andReturn(ImmutableList.<ContainerSummary>of());
+      replay(api, containerApi, miscApi);
+
+      Closer closer = new Closer();
+      ContainerStateCache enabled = new ContainerStateCache(api, Guice.createInjector(new GsonModule())
+            .getInstance(Json.class), true, imageMetadata, closer);
+      // does not run the subscription on the calling thread
+      assertFalse(enabled.isLive());
+      for (int i = 0; i < 50 && !enabled.isLive(); i++) {
+         Uninterruptibles.sleepUninterruptibly(100, TimeUnit.MILLISECONDS);
+      }
+      assertTrue(enabled.isLive());
+      assertTrue(enabled.subscriber.isDaemon());
+
+      closer.close();
+      enabled.subscriber.join(5000);
+      assertFalse(enabled.subscriber.isAlive());
+      assertFalse(enabled.isLive());
+   }
+
+   /**
+    * An events stream without events, whose reads block until it is closed.
+    */
+   private static final class IdleStream extends InputStream {
+      private final CountDownLatch closed = new CountDownLatch(1);
+
+      @Override
+      public int read() throws IOException {
+         Uninterruptibles.awaitUninterruptibly(closed);
+         throw new IOException("Stream closed");
+      }
+
+      @Override
+      public void close() {
+         closed.countDown();
+      }
+   }
+
+   public void testStateEventsInspectTheContainer() {
+      Container stopped = Container.builder().id("id").build();
+      expect(containerApi.inspectContainer("id")).andReturn(stopped);
+      replay(api, containerApi);
+
+      cache.onEvent(Event.create("die", "id", "ubuntu", 1461943101, "container"));
+      // exec events do not change the container
+      cache.onEvent(Event.create("exec_start: bash", "id", "ubuntu", 1461943102, "container"));
+
+      assertEquals(cache.getContainer("id"), stopped);
+      assertFalse(cache.isLive());
+      verify(containerApi);
+   }
+
+   public void testDestroyEventRemovesTheContainer() {
+      expect(containerApi.inspectContainer("id")).andReturn(Container.builder().id("id").build());
+      replay(api, containerApi);
+
+      cache.onEvent(Event.create("create", "id", "ubuntu", 1461943101, null));
+      cache.onEvent(Event.create("destroy", "id", "ubuntu", 1461943102, null));
+
+      assertNull(cache.getContainer("id"));
+      verify(containerApi);
+   }
+
+   public void testImageEventsChangeTheImageGeneration() {
+      imageMetadata.refresh(api, "busybox:latest");
+      imageMetadata.refresh(api, "sha256:abc");
+      replay(api, containerApi, imageMetadata);
+
+      long generation = cache.imageGeneration();
+      cache.onEvent(Event.create("pull", "busybox:latest", null, 1461943101, null));
+      cache.onEvent(Event.create("delete", "sha256:abc", null, 1461943102, "image"));
+
+      assertEquals(cache.imageGeneration(), generation + 2);
+      assertNull(cache.getImages());
+      verify(imageMetadata);
+   }
+}
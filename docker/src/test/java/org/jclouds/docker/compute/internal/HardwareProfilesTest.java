@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.compute.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import java.util.List;
+
+import org.jclouds.compute.domain.Hardware;
+import org.jclouds.docker.domain.Config;
+import org.jclouds.docker.domain.HostConfig;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for the {@link HardwareProfiles} class.
+ */
+@Test(groups = "unit", testName = "HardwareProfilesTest")
+public class HardwareProfilesTest {
+
+   public void testProfilesFitTheCapacity() {
+      List<Hardware> profiles = HardwareProfiles.fromCapacity(3, 1536L * 1024 * 1024);
+      assertSame(profiles.get(0), HardwareProfiles.UNLIMITED);
+      assertEquals(profiles.size(), 5);
+      assertEquals(profiles.get(1).getId(), "1cpu-512mb");
+      assertEquals(profiles.get(4).getId(), "2cpu-1024mb");
+   }
+
+   public void testNoProfileFitsASmallHost() {
+      assertEquals(HardwareProfiles.fromCapacity(1, 256L * 1024 * 1024).size(), 1);
+   }
+
+   public void testIds() {
+      assertEquals(HardwareProfiles.id(0.5, 0), "0.5cpu");
+      assertEquals(HardwareProfiles.id(0, 1024), "1024mb");
+      assertEquals(HardwareProfiles.id(4, 8192), "4cpu-8192mb");
+   }
+
+   public void testNanoCpusTakePrecedenceOverTheQuota() {
+      Config config = Config.builder().image("ubuntu").build();
+      HostConfig hostConfig = HostConfig.builder().nanoCpus(1500000000L).cpuQuota(50000L).build();
+      Hardware hardware = HardwareProfiles.of(config, hostConfig);
+      assertEquals(hardware.getId(), "1.5cpu");
+      assertEquals(HardwareProfiles.cpuQuota(hardware), Long.valueOf(150000));
+   }
+
+   public void testMemoryOfOlderDaemonsIsReadFromTheConfig() {
+      Config config = Config.builder().image("ubuntu").memory(512 * 1024 * 1024).build();
+      assertEquals(HardwareProfiles.of(config, null).getRam(), 512);
+   }
+}
@@ -51,6 +51,26 @@ public class DockerTemplateOptionsTest {
       assertEquals(options.as(DockerTemplateOptions.class).getCpuShares(), Integer.valueOf(2));
    }
 
+   @Test
+   public void testCpus() {
+      TemplateOptions options = DockerTemplateOptions.Builder.cpus(1.5);
+      assertEquals(options.as(DockerTemplateOptions.class).getCpus(), Double.valueOf(1.5));
+   }
+
+   @Test
+   public void testCpuQuotaAndPeriod() {
+      TemplateOptions options = DockerTemplateOptions.Builder.cpuQuota(50000L).cpuPeriod(100000L);
+      assertEquals(options.as(DockerTemplateOptions.class).getCpuQuota(), Long.valueOf(50000));
+      assertEquals(options.as(DockerTemplateOptions.class).getCpuPeriod(), Long.valueOf(100000));
+   }
+
+   @Test
+   public void testMemoryReservation() {
+      TemplateOptions options = DockerTemplateOptions.Builder.memoryReservation(256);
+      assertEquals(options.as(DockerTemplateOptions.class).getMemoryReservation(), Integer.valueOf(256));
+      assertEquals(options.clone(), options);
+   }
+
    @Test
    public void testVolumes() {
       TemplateOptions options = DockerTemplateOptions.Builder.volumes(ImmutableMap.of("/tmp", "/tmp"));
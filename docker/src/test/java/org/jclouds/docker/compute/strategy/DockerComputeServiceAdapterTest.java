@@ -0,0 +1,460 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.compute.strategy;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import org.easymock.Capture;
+import org.easymock.IAnswer;
+import org.jclouds.compute.ComputeServiceAdapter.NodeAndInitialCredentials;
+import org.jclouds.compute.domain.Hardware;
+import org.jclouds.compute.domain.Template;
+import org.jclouds.docker.DockerApi;
+import org.jclouds.docker.compute.internal.ContainerStateCache;
+import org.jclouds.docker.compute.internal.DockerHosts;
+import org.jclouds.docker.compute.internal.DockerHosts.Host;
+import org.jclouds.docker.compute.internal.HardwareProfiles;
+import org.jclouds.docker.compute.options.DockerTemplateOptions;
+import org.jclouds.docker.domain.Config;
+import org.jclouds.docker.domain.Container;
+import org.jclouds.docker.domain.ContainerSummary;
+import org.jclouds.docker.domain.HostConfig;
+import org.jclouds.docker.domain.Image;
+import org.jclouds.docker.domain.Info;
+import org.jclouds.docker.domain.Port;
+import org.jclouds.docker.domain.State;
+import org.jclouds.docker.features.ContainerApi;
+import org.jclouds.docker.features.ImageApi;
+import org.jclouds.docker.features.MiscApi;
+import org.jclouds.docker.options.CreateImageOptions;
+import org.jclouds.docker.options.ListContainerOptions;
+import org.jclouds.docker.options.RemoveContainerOptions;
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LocationBuilder;
+import org.jclouds.domain.LocationScope;
+import org.jclouds.domain.LoginCredentials;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Unit tests for the {@link DockerComputeServiceAdapter} class.
+ */
+@Test(groups = "unit", testName = "DockerComputeServiceAdapterTest", singleThreaded = true)
+public class DockerComputeServiceAdapterTest {
+
+   private ListeningExecutorService userExecutor;
+   private DockerApi api;
+   private ContainerApi containerApi;
+   private ImageApi imageApi;
+   private ContainerStateCache cache;
+
+   @BeforeMethod
+   public void setUp() {
+      userExecutor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(2));
+      api = createMock(DockerApi.class);
+      containerApi = createMock(ContainerApi.class);
+      imageApi = createMock(ImageApi.class);
+      cache = createNiceMock(ContainerStateCache.class);
+      expect(api.getContainerApi()).andReturn(containerApi).anyTimes();
+      expect(api.getImageApi()).andReturn(imageApi).anyTimes();
+   }
+
+   @AfterMethod
+   public void tearDown() {
+      userExecutor.shutdownNow();
+   }
+
+   private DockerComputeServiceAdapter newAdapter(String pullPolicy) {
+      return new DockerComputeServiceAdapter(new DockerHosts(ImmutableList.of(
+            new Host("localhost:2375", URI.create("http://localhost:2375"), api, null))),
+            LeastLoadedPlacement.leastContainers(), userExecutor, 4, 4, pullPolicy, cache);
+   }
+
+   public void testListNodesInspectsEveryContainerAndSkipsRemovedOnes() {
+      List<ContainerSummary> summaries = Lists.newArrayList();
+      ImmutableSet.Builder<Container> expected = ImmutableSet.builder();
+      for (int i = 0; i < 20; i++) {
+         String id = "container" + i;
+         summaries.add(ContainerSummary.create(id, ImmutableList.of("/name" + i), "1417187523", "image", "command",
+               null, "Up", null));
+         // the last container is removed between the list and the inspect calls
+         Container container = i == 19 ? null : Container.builder().id(id).build();
+         expect(containerApi.inspectContainer(id)).andReturn(container);
+         if (container != null) {
+            expected.add(container);
+         }
+      }
+      expect(containerApi.listContainers(anyObject(ListContainerOptions.class))).andReturn(summaries);
+      replay(api, containerApi, imageApi, cache);
+
+      assertEquals(ImmutableSet.copyOf(newAdapter("if-not-present").listNodes()),
+            expected.build());
+      verify(containerApi);
+   }
+
+   public void testListNodesWaitsForSlowInspections() {
+      List<ContainerSummary> summaries = Lists.newArrayList();
+      ImmutableSet.Builder<Container> expected = ImmutableSet.builder();
+      for (int i = 0; i < 9; i++) {
+         String id = "container" + i;
+         summaries.add(ContainerSummary.create(id, ImmutableList.of("/name" + i), "1417187523", "image", "command",
+               null, "Up", null));
+         final Container container = Container.builder().id(id).build();
+         // the helpers are still inspecting when the calling thread runs out of containers
+         expect(containerApi.inspectContainer(id)).andAnswer(new IAnswer<Container>() {
+            @Override
+            public Container answer() {
+               Uninterruptibles.sleepUninterruptibly(50, TimeUnit.MILLISECONDS);
+               return container;
+            }
+         });
+         expected.add(container);
+      }
+      expect(containerApi.listContainers(anyObject(ListContainerOptions.class))).andReturn(summaries);
+      replay(api, containerApi, imageApi, cache);
+
+      assertEquals(ImmutableSet.copyOf(newAdapter("if-not-present").listNodes()), expected.build());
+      verify(containerApi);
+   }
+
+   public void testGetImageDoesNotPullLocalImage() {
+      Image local = Image.create("sha256:ubuntu", null, null, null, null, "", new Date(), "", "1.9.1", "amd64",
+            "linux", 0, 0, ImmutableList.of("ubuntu:latest"));
+      expect(imageApi.inspectImage("ubuntu")).andReturn(local);
+      replay(api, containerApi, imageApi, cache);
+
+      assertEquals(newAdapter("if-not-present").getImage("ubuntu"), local);
+      verify(imageApi);
+   }
+
+   public void testGetImagePullsMissingImageAndInspectsItOnce() {
+      Image inspected = Image.create("sha256:ubuntu", null, null, null, null, "", new Date(), "", "1.9.1", "amd64",
+            "linux", 0, 0, null);
+      expect(imageApi.inspectImage("ubuntu")).andReturn(null);
+      expect(imageApi.createImage(anyObject(CreateImageOptions.class))).andReturn(new ByteArrayInputStream(
+            "{\"status\":\"Status: Downloaded newer image for ubuntu:latest\"}".getBytes(Charsets.UTF_8)));
+      expect(imageApi.inspectImage("ubuntu")).andReturn(inspected);
+      replay(api, containerApi, imageApi, cache);
+
+      Image image = newAdapter("if-not-present").getImage("ubuntu");
+      assertEquals(image.id(), "sha256:ubuntu");
+      // older daemons do not return the tags when inspecting
+      assertEquals(image.repoTags(), ImmutableList.of("ubuntu:latest"));
+      verify(imageApi);
+   }
+
+   public void testConcurrentGetImageSharesOnePull() throws Exception {
+      Image inspected = Image.create("sha256:ubuntu", null, null, null, null, "", new Date(), "", "1.9.1", "amd64",
+            "linux", 0, 0, ImmutableList.of("ubuntu:latest"));
+      final CountDownLatch pulling = new CountDownLatch(1);
+      final CountDownLatch release = new CountDownLatch(1);
+      expect(imageApi.inspectImage("ubuntu")).andReturn(null);
+      expect(imageApi.createImage(anyObject(CreateImageOptions.class))).andAnswer(new IAnswer<InputStream>() {
+         @Override
+         public InputStream answer() {
+            pulling.countDown();
+            Uninterruptibles.awaitUninterruptibly(release);
+            return new ByteArrayInputStream(
+                  "{\"status\":\"Status: Downloaded newer image for ubuntu:latest\"}".getBytes(Charsets.UTF_8));
+         }
+      });
+      expect(imageApi.inspectImage("ubuntu")).andReturn(inspected);
+      replay(api, containerApi, imageApi, cache);
+
+      final DockerComputeServiceAdapter adapter = newAdapter("if-not-present");
+      Callable<Image> getImage = new Callable<Image>() {
+         @Override
+         public Image call() {
+            return adapter.getImage("ubuntu");
+         }
+      };
+      FutureTask<Image> first = new FutureTask<Image>(getImage);
+      FutureTask<Image> second = new FutureTask<Image>(getImage);
+      new Thread(first).start();
+      assertTrue(pulling.await(10, TimeUnit.SECONDS));
+      Thread waiting = new Thread(second);
+      waiting.start();
+      // the second caller parks on the pull of the first one instead of inspecting the image itself
+      while (waiting.getState() != Thread.State.WAITING && waiting.getState() != Thread.State.TERMINATED) {
+         Thread.sleep(10);
+      }
+      release.countDown();
+
+      assertSame(first.get(10, TimeUnit.SECONDS), inspected);
+      assertSame(second.get(10, TimeUnit.SECONDS), inspected);
+      verify(imageApi);
+   }
+
+   public void testGetImageAlwaysPullsWithAlwaysPolicy() {
+      Image inspected = Image.create("sha256:ubuntu", null, null, null, null, "", new Date(), "", "1.9.1", "amd64",
+            "linux", 0, 0, ImmutableList.of("ubuntu:14.04"));
+      expect(imageApi.createImage(anyObject(CreateImageOptions.class))).andReturn(new ByteArrayInputStream(
+            "{\"status\":\"Status: Image is up to date for ubuntu:14.04\"}".getBytes(Charsets.UTF_8)));
+      expect(imageApi.inspectImage("ubuntu:14.04")).andReturn(inspected);
+      replay(api, containerApi, imageApi, cache);
+
+      assertEquals(newAdapter("always").getImage("ubuntu:14.04"), inspected);
+      verify(imageApi);
+   }
+
+   public void testListNodesReadsTheCacheWhenLive() {
+      Container container = Container.builder().id("container").build();
+      expect(cache.isLive()).andReturn(true).anyTimes();
+      expect(cache.getContainers()).andReturn(ImmutableList.of(container));
+      replay(api, containerApi, imageApi, cache);
+
+      assertEquals(ImmutableSet.copyOf(newAdapter("if-not-present").listNodes()),
+            ImmutableSet.of(container));
+      verify(containerApi, cache);
+   }
+
+   public void testCreateNodesChecksExitCodesWithOneListing() {
+      Template template = createMock(Template.class);
+      org.jclouds.compute.domain.Image image = createMock(org.jclouds.compute.domain.Image.class);
+      expect(template.getOptions()).andReturn(new DockerTemplateOptions()).anyTimes();
+      expect(template.getImage()).andReturn(image).anyTimes();
+      expect(template.getHardware()).andReturn(HardwareProfiles.UNLIMITED).anyTimes();
+      expect(image.getId()).andReturn("sha256:ubuntu").anyTimes();
+      expect(image.getDefaultCredentials()).andReturn(LoginCredentials.builder().user("root").password("secret")
+            .build()).anyTimes();
+
+      List<ContainerSummary> summaries = Lists.newArrayList();
+      Capture<Config> config = new Capture<Config>();
+      for (int i = 0; i < 3; i++) {
+         String id = "container" + i;
+         expect(containerApi.createContainer(eq("group-" + i), capture(config)))
+               .andReturn(Container.builder().id(id).build());
+         containerApi.startContainer(eq(id), anyObject(HostConfig.class));
+         summaries.add(ContainerSummary.create(id, ImmutableList.of("/group-" + i), "1417187523", "sha256:ubuntu",
+               "command", ImmutableList.<Port>of(), i == 2 ? "Exited (1) 1 seconds ago" : "Up 1 seconds",
+               ImmutableMap.of(DockerComputeServiceAdapter.GROUP_LABEL, "group")));
+      }
+      expect(containerApi.listContainers(ListContainerOptions.Builder.all(true).filters(
+            ImmutableMap.<String, List<String>>of("label", ImmutableList.of("org.apache.jclouds.group=group")))))
+            .andReturn(summaries);
+      containerApi.removeContainer(eq("container2"), anyObject(RemoveContainerOptions.class));
+      replay(api, containerApi, imageApi, cache, template, image);
+
+      Map<String, ListenableFuture<NodeAndInitialCredentials<Container>>> created = newAdapter("if-not-present")
+            .createNodesWithGroupEncodedIntoName("group", ImmutableList.of("group-0", "group-1", "group-2"),
+                  template);
+      assertEquals(config.getValue().labels(), ImmutableMap.of(DockerComputeServiceAdapter.GROUP_LABEL, "group"));
+
+      assertEquals(ImmutableList.copyOf(created.keySet()), ImmutableList.of("group-0", "group-1", "group-2"));
+      for (int i = 0; i < 2; i++) {
+         Container container = Futures.getUnchecked(created.get("group-" + i)).getNode();
+         assertEquals(container.id(), "container" + i);
+         assertEquals(container.name(), "/group-" + i);
+         assertTrue(container.state().running());
+      }
+      try {
+         Futures.getUnchecked(created.get("group-2"));
+         fail("container2 has exited");
+      } catch (UncheckedExecutionException expected) {
+         assertTrue(expected.getCause() instanceof IllegalStateException);
+      }
+      verify(containerApi);
+   }
+
+   public void testCreateNodesRemovesTheContainersWhenTheListingFails() {
+      Template template = createMock(Template.class);
+      org.jclouds.compute.domain.Image image = createMock(org.jclouds.compute.domain.Image.class);
+      expect(template.getOptions()).andReturn(new DockerTemplateOptions()).anyTimes();
+      expect(template.getImage()).andReturn(image).anyTimes();
+      expect(template.getHardware()).andReturn(HardwareProfiles.UNLIMITED).anyTimes();
+      expect(image.getId()).andReturn("sha256:ubuntu").anyTimes();
+      expect(image.getDefaultCredentials()).andReturn(LoginCredentials.builder().user("root").password("secret")
+            .build()).anyTimes();
+
+      for (int i = 0; i < 2; i++) {
+         String id = "container" + i;
+         expect(containerApi.createContainer(eq("group-" + i), anyObject(Config.class)))
+               .andReturn(Container.builder().id(id).build());
+         containerApi.startContainer(eq(id), anyObject(HostConfig.class));
+         containerApi.removeContainer(eq(id), anyObject(RemoveContainerOptions.class));
+      }
+      RuntimeException listingFailure = new RuntimeException("daemon went away");
+      expect(containerApi.listContainers(anyObject(ListContainerOptions.class))).andThrow(listingFailure);
+      replay(api, containerApi, imageApi, cache, template, image);
+
+      Map<String, ListenableFuture<NodeAndInitialCredentials<Container>>> created = newAdapter("if-not-present")
+            .createNodesWithGroupEncodedIntoName("group", ImmutableList.of("group-0", "group-1"), template);
+
+      for (ListenableFuture<NodeAndInitialCredentials<Container>> node : created.values()) {
+         try {
+            Futures.getUnchecked(node);
+            fail("the containers could not be listed");
+         } catch (UncheckedExecutionException expected) {
+            assertSame(expected.getCause(), listingFailure);
+         }
+      }
+      verify(containerApi);
+   }
+
+   public void testListNodesInGroupOnlyInspectsTheGroup() {
+      Container container = Container.builder().id("container0").build();
+      expect(containerApi.listContainers(ListContainerOptions.Builder.all(true).filters(
+            ImmutableMap.<String, List<String>>of("label", ImmutableList.of("org.apache.jclouds.group=web")))))
+            .andReturn(ImmutableList.of(ContainerSummary.create("container0", ImmutableList.of("/web-1"),
+                  "1417187523", "image", "command", null, "Up", null)));
+      expect(containerApi.inspectContainer("container0")).andReturn(container);
+      replay(api, containerApi, imageApi, cache);
+
+      assertEquals(ImmutableSet.copyOf(newAdapter("if-not-present").listNodesInGroup("web")),
+            ImmutableSet.of(container));
+      verify(containerApi);
+   }
+
+   public void testListNodeNamesDoesNotInspect() {
+      expect(containerApi.listContainers(ListContainerOptions.Builder.all(true).filters(
+            ImmutableMap.<String, List<String>>of("name", ImmutableList.of("web")))))
+            .andReturn(ImmutableList.of(ContainerSummary.create("container0", ImmutableList.of("/web-1"),
+                  "1417187523", "image", "command", null, "Up", null)));
+      replay(api, containerApi, imageApi, cache);
+
+      assertEquals(newAdapter("if-not-present").listNodeNames("web"), ImmutableSet.of("web-1"));
+      verify(containerApi);
+   }
+
+   public void testMultiHostListsEveryHostAndRoutesToTheHostOfTheContainer() {
+      DockerApi otherApi = createMock(DockerApi.class);
+      ContainerApi otherContainerApi = createMock(ContainerApi.class);
+      expect(otherApi.getContainerApi()).andReturn(otherContainerApi).anyTimes();
+      Location pool = new LocationBuilder().scope(LocationScope.ZONE).id("docker-hosts").description("all hosts")
+            .build();
+      Location first = new LocationBuilder().scope(LocationScope.HOST).id("one:2375").description("one")
+            .parent(pool).build();
+      Location second = new LocationBuilder().scope(LocationScope.HOST).id("two:2375").description("two")
+            .parent(pool).build();
+      DockerHosts hosts = new DockerHosts(ImmutableList.of(
+            new Host("one:2375", URI.create("http://one:2375"), api, first),
+            new Host("two:2375", URI.create("http://two:2375"), otherApi, second)));
+
+      Container container0 = Container.builder().id("container0").build();
+      Container container1 = Container.builder().id("container1").build();
+      expect(containerApi.listContainers(anyObject(ListContainerOptions.class))).andReturn(ImmutableList.of(
+            ContainerSummary.create("container0", ImmutableList.of("/web-0"), "1417187523", "image", "command", null,
+                  "Up", null)));
+      expect(containerApi.inspectContainer("container0")).andReturn(container0);
+      expect(otherContainerApi.listContainers(anyObject(ListContainerOptions.class))).andReturn(ImmutableList.of(
+            ContainerSummary.create("container1", ImmutableList.of("/web-1"), "1417187523", "image", "command", null,
+                  "Up", null)));
+      expect(otherContainerApi.inspectContainer("container1")).andReturn(container1);
+      otherContainerApi.removeContainer(eq("container1"), anyObject(RemoveContainerOptions.class));
+      replay(api, containerApi, imageApi, cache, otherApi, otherContainerApi);
+
+      DockerComputeServiceAdapter adapter = new DockerComputeServiceAdapter(hosts,
+            LeastLoadedPlacement.leastContainers(), userExecutor, 4, 4, "if-not-present", cache);
+      assertEquals(ImmutableSet.copyOf(adapter.listNodes()), ImmutableSet.of(container0, container1));
+      assertEquals(ImmutableSet.copyOf(adapter.listLocations()), ImmutableSet.of(pool, first, second));
+      adapter.destroyNode("container1");
+      verify(containerApi, otherContainerApi);
+   }
+
+   public void testHardwareProfilesFitTheHost() {
+      Info info = createMock(Info.class);
+      expect(info.ncpu()).andReturn(4).anyTimes();
+      expect(info.memTotal()).andReturn(2L * 1024 * 1024 * 1024 + 12345).anyTimes();
+      MiscApi miscApi = createMock(MiscApi.class);
+      expect(miscApi.getInfo()).andReturn(info);
+      expect(api.getMiscApi()).andReturn(miscApi);
+      replay(api, containerApi, imageApi, cache, miscApi, info);
+
+      ImmutableSet.Builder<String> ids = ImmutableSet.builder();
+      for (Hardware hardware : newAdapter("if-not-present").listHardwareProfiles()) {
+         ids.add(hardware.getId());
+      }
+      assertEquals(ids.build(), ImmutableSet.of("unlimited", "1cpu-512mb", "1cpu-1024mb", "1cpu-2048mb", "2cpu-512mb",
+            "2cpu-1024mb", "2cpu-2048mb", "4cpu-512mb", "4cpu-1024mb", "4cpu-2048mb"));
+      verify(miscApi);
+   }
+
+   public void testContainersAreLimitedToTheHardwareProfile() {
+      HostConfig hostConfig = createdHostConfig(HardwareProfiles.of(2, 1024), new DockerTemplateOptions());
+      assertEquals(hostConfig.memory(), Long.valueOf(1024L * 1024 * 1024));
+      assertEquals(hostConfig.cpuQuota(), Long.valueOf(200000));
+      assertEquals(hostConfig.cpuPeriod(), Long.valueOf(100000));
+      assertEquals(hostConfig.nanoCpus(), null);
+   }
+
+   public void testLimitsOfTheOptionsOverrideTheHardwareProfile() {
+      HostConfig hostConfig = createdHostConfig(HardwareProfiles.of(2, 1024),
+            DockerTemplateOptions.Builder.cpus(1.5).memoryReservation(256));
+      assertEquals(hostConfig.memory(), Long.valueOf(1024L * 1024 * 1024));
+      assertEquals(hostConfig.memoryReservation(), Long.valueOf(256L * 1024 * 1024));
+      assertEquals(hostConfig.nanoCpus(), Long.valueOf(1500000000L));
+      assertEquals(hostConfig.cpuQuota(), null);
+   }
+
+   private HostConfig createdHostConfig(Hardware hardware, DockerTemplateOptions options) {
+      Template template = createMock(Template.class);
+      org.jclouds.compute.domain.Image image = createMock(org.jclouds.compute.domain.Image.class);
+      expect(template.getOptions()).andReturn(options).anyTimes();
+      expect(template.getImage()).andReturn(image).anyTimes();
+      expect(template.getHardware()).andReturn(hardware).anyTimes();
+      expect(image.getId()).andReturn("sha256:ubuntu").anyTimes();
+      expect(image.getDefaultCredentials()).andReturn(LoginCredentials.builder().user("root").password("secret")
+            .build()).anyTimes();
+      Capture<Config> config = new Capture<Config>();
+      expect(containerApi.createContainer(eq("web-0"), capture(config)))
+            .andReturn(Container.builder().id("container0").build());
+      containerApi.startContainer(eq("container0"), anyObject(HostConfig.class));
+      expect(containerApi.inspectContainer("container0")).andReturn(Container.builder().id("container0")
+            .state(State.create(1, true, 0, "", "", false, false, "running", false, false, null)).build());
+      replay(api, containerApi, imageApi, cache, template, image);
+
+      newAdapter("if-not-present").createNodeWithGroupEncodedIntoName("web", "web-0", template);
+      verify(containerApi);
+      return config.getValue().hostConfig();
+   }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.compute.strategy;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.easymock.IAnswer;
+import org.jclouds.compute.config.CustomizationResponse;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.compute.strategy.PrioritizeCredentialsFromTemplate;
+import org.jclouds.docker.compute.options.DockerTemplateOptions;
+import org.jclouds.docker.domain.Container;
+import org.jclouds.domain.Credentials;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Unit tests for the {@link DockerCreateNodesInGroupThenAddToSet} class.
+ */
+@Test(groups = "unit", testName = "DockerCreateNodesInGroupThenAddToSetTest")
+public class DockerCreateNodesInGroupThenAddToSetTest {
+
+   private DockerCreateNodesInGroupThenAddToSet newStrategy(Set<String> existingNames, final String... generated) {
+      GroupNamingConvention.Factory namingConvention = createMock(GroupNamingConvention.Factory.class);
+      GroupNamingConvention convention = createMock(GroupNamingConvention.class);
+      DockerComputeServiceAdapter adapter = createMock(DockerComputeServiceAdapter.class);
+      expect(namingConvention.createWithoutPrefix()).andReturn(convention).anyTimes();
+      final AtomicInteger next = new AtomicInteger();
+      expect(convention.uniqueNameForGroup("web")).andAnswer(new IAnswer<String>() {
+         @Override
+         public String answer() {
+            return generated[next.getAndIncrement() % generated.length];
+         }
+      }).anyTimes();
+      expect(adapter.listNodeNames("web")).andReturn(existingNames).anyTimes();
+      replay(namingConvention, convention, adapter);
+      @SuppressWarnings("unchecked")
+      Function<Container, NodeMetadata> nodeMetadataAdapter = createMock(Function.class);
+      return new DockerCreateNodesInGroupThenAddToSet(null, null, namingConvention,
+            MoreExecutors.sameThreadExecutor(), null, adapter, nodeMetadataAdapter,
+            createMock(PrioritizeCredentialsFromTemplate.class), Maps.<String, Credentials>newHashMap());
+   }
+
+   private Template template() {
+      Template template = createMock(Template.class);
+      expect(template.getOptions()).andReturn(new DockerTemplateOptions()).anyTimes();
+      replay(template);
+      return template;
+   }
+
+   public void testNamesOfLargeGroupsAreNotCutShort() {
+      String[] generated = new String[250];
+      for (int i = 0; i < generated.length; i++) {
+         generated[i] = "web-" + i;
+      }
+      Set<String> names = newStrategy(ImmutableSet.of("web-0", "web-1"), generated).getNextNames("web", template(),
+            200);
+      assertEquals(names.size(), 200);
+      assertEquals(Sets.intersection(names, ImmutableSet.of("web-0", "web-1")), ImmutableSet.of());
+   }
+
+   public void testExecuteFailsWhenNamesRunOut() {
+      try {
+         newStrategy(ImmutableSet.of("web-0"), "web-0", "web-1").execute("web", 3, template(),
+               Sets.<NodeMetadata>newHashSet(), Maps.<NodeMetadata, Exception>newHashMap(),
+               LinkedHashMultimap.<NodeMetadata, CustomizationResponse>create());
+         fail("only one name is free");
+      } catch (IllegalStateException expected) {
+      }
+   }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.compute.strategy;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.testng.Assert.assertEquals;
+
+import java.net.URI;
+import java.util.List;
+
+import org.jclouds.docker.DockerApi;
+import org.jclouds.docker.compute.internal.DockerHosts.Host;
+import org.jclouds.docker.domain.Info;
+import org.jclouds.docker.features.MiscApi;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Unit tests for the {@link LeastLoadedPlacement} class.
+ */
+@Test(groups = "unit", testName = "LeastLoadedPlacementTest")
+public class LeastLoadedPlacementTest {
+
+   private static Host host(String id, int containers, long memTotal) {
+      Info info = createMock(Info.class);
+      expect(info.containers()).andReturn(containers).anyTimes();
+      expect(info.memTotal()).andReturn(memTotal).anyTimes();
+      MiscApi miscApi = createMock(MiscApi.class);
+      expect(miscApi.getInfo()).andReturn(info);
+      DockerApi api = createMock(DockerApi.class);
+      expect(api.getMiscApi()).andReturn(miscApi).anyTimes();
+      replay(info, miscApi, api);
+      return new Host(id, URI.create("http://" + id), api, null);
+   }
+
+   private static Host unreachable(String id) {
+      MiscApi miscApi = createMock(MiscApi.class);
+      expect(miscApi.getInfo()).andThrow(new IllegalStateException("connection refused"));
+      DockerApi api = createMock(DockerApi.class);
+      expect(api.getMiscApi()).andReturn(miscApi).anyTimes();
+      replay(miscApi, api);
+      return new Host(id, URI.create("http://" + id), api, null);
+   }
+
+   public void testLeastContainersFillsTheEmptiestHostsFirst() {
+      Host busy = host("busy:2375", 3, 1024);
+      Host idle = host("idle:2375", 0, 1024);
+      List<Host> placed = LeastLoadedPlacement.leastContainers().place(ImmutableList.of(busy, idle), 5, null);
+      assertEquals(placed, ImmutableList.of(idle, idle, idle, busy, idle));
+   }
+
+   public void testLeastMemoryPrefersTheHostsWithMoreMemoryPerContainer() {
+      Host small = host("small:2375", 0, 1024);
+      Host large = host("large:2375", 1, 8192);
+      List<Host> placed = LeastLoadedPlacement.leastMemory().place(ImmutableList.of(small, large), 3, null);
+      // large leaves 4096, then 2730 and 2048 to each container, while small leaves 1024
+      assertEquals(placed, ImmutableList.of(large, large, large));
+   }
+
+   public void testUnreachableHostsAreSkipped() {
+      Host down = unreachable("down:2375");
+      Host up = host("up:2375", 10, 1024);
+      List<Host> placed = LeastLoadedPlacement.leastContainers().place(ImmutableList.of(down, up), 2, null);
+      assertEquals(placed, ImmutableList.of(up, up));
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testFailsWhenNoHostIsReachable() {
+      LeastLoadedPlacement.leastContainers().place(ImmutableList.of(unreachable("down:2375")), 1, null);
+   }
+}
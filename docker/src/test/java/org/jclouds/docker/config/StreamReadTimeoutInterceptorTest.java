@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.config;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+import com.squareup.okhttp.Request;
+
+@Test(groups = "unit", testName = "StreamReadTimeoutInterceptorTest")
+public class StreamReadTimeoutInterceptorTest {
+
+   public void testStreamingCalls() {
+      assertTrue(isStreaming("/v1.21/events?since=1461943100"));
+      assertTrue(isStreaming("/v1.21/containers/abc/logs?follow=1&stdout=1"));
+      assertTrue(isStreaming("/v1.21/containers/abc/attach?stream=1"));
+      assertTrue(isStreaming("/v1.21/exec/abc/start"));
+      assertTrue(isStreaming("/v1.21/images/create?fromImage=busybox"));
+   }
+
+   public void testRegularCalls() {
+      assertFalse(isStreaming("/v1.21/containers/json?all=true"));
+      assertFalse(isStreaming("/v1.21/containers/abc/json"));
+      assertFalse(isStreaming("/v1.21/images/abc/json"));
+      assertFalse(isStreaming("/v1.21/info"));
+      // the response headers of wait only arrive once the container stops, after the stream timeout is applied
+      assertFalse(isStreaming("/v1.21/containers/abc/wait"));
+   }
+
+   private static boolean isStreaming(String path) {
+      return StreamReadTimeoutInterceptor.isStreaming(new Request.Builder().url("http://localhost" + path).build());
+   }
+}
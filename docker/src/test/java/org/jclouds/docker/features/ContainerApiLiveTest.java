@@ -95,6 +95,7 @@ public class ContainerApiLiveTest extends BaseDockerApiLiveTest {
    }
 
    @Test(dependsOnMethods = "testAttachContainer")
+   @SuppressWarnings("deprecation")
    public void testCopyFileFromContainer() {
       InputStream tarredStream = api().copy(container.id(), Resource.create("hello"));
       assertNotNull(consumeStream(tarredStream));
@@ -19,21 +19,34 @@ package org.jclouds.docker.features;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+import java.net.URLDecoder;
+import java.util.List;
 
 import org.jclouds.docker.DockerApi;
 import org.jclouds.docker.config.DockerParserModule;
 import org.jclouds.docker.domain.Config;
 import org.jclouds.docker.domain.Container;
 import org.jclouds.docker.domain.Resource;
+import org.jclouds.docker.domain.Stats;
 import org.jclouds.docker.internal.BaseDockerMockTest;
 import org.jclouds.docker.options.ListContainerOptions;
 import org.jclouds.docker.parse.ContainerParseTest;
 import org.jclouds.docker.parse.ContainersParseTest;
+import org.jclouds.docker.util.DockerStatsReader;
+import org.jclouds.io.Payloads;
+import org.jclouds.json.config.GsonModule;
 import org.testng.annotations.Test;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+import com.google.gson.Gson;
+import com.google.inject.Guice;
 import com.squareup.okhttp.mockwebserver.MockResponse;
 import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
 
 /**
  * Mock tests for the {@link org.jclouds.docker.features.ContainerApi} class.
@@ -75,6 +88,20 @@ public class ContainerApiMockTest extends BaseDockerMockTest {
       }
    }
 
+   public void testListContainersWithFilters() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setBody(payloadFromResource("/containers.json")));
+      ContainerApi api = api(DockerApi.class, server.getUrl("/").toString()).getContainerApi();
+      try {
+         api.listContainers(ListContainerOptions.Builder.filters(ImmutableMap.<String, List<String>>of("label",
+               ImmutableList.of("org.apache.jclouds.group=web"), "status", ImmutableList.of("running"))));
+         RecordedRequest request = server.takeRequest();
+         assertEquals(URLDecoder.decode(request.getPath(), "UTF-8"), "/v" + API_VERSION + "/containers/json?filters="
+               + "{\"label\":[\"org.apache.jclouds.group=web\"],\"status\":[\"running\"]}");
+      } finally {
+         server.shutdown();
+      }
+   }
+
    public void testGetContainer() throws Exception {
       MockWebServer server = mockWebServer(new MockResponse().setBody(payloadFromResource("/container.json")));
       ContainerApi api = api(DockerApi.class, server.getUrl("/").toString(), new DockerParserModule()).getContainerApi();
@@ -222,6 +249,7 @@ public class ContainerApiMockTest extends BaseDockerMockTest {
       }
    }
 
+   @SuppressWarnings("deprecation")
    public void testCopyFileFromContainer() throws Exception {
       MockWebServer server = mockWebServer(new MockResponse().setResponseCode(204));
       ContainerApi api = api(DockerApi.class, server.getUrl("/").toString()).getContainerApi();
@@ -233,4 +261,88 @@ public class ContainerApiMockTest extends BaseDockerMockTest {
       }
    }
 
+   public void testGetStats() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setBody(payloadFromResource("/stats.json")));
+      ContainerApi api = api(DockerApi.class, server.getUrl("/").toString()).getContainerApi();
+      try {
+         Stats stats = api.getStats("1");
+         assertEquals(stats.read(), "2015-01-08T22:57:31.547920715Z");
+         assertEquals(stats.cpuStats().cpuUsage().totalUsage(), 100215355);
+         assertEquals(stats.cpuStats().cpuUsage().percpuUsage().size(), 4);
+         assertEquals(stats.cpuStats().onlineCpus(), 4);
+         assertEquals(stats.precpuStats().systemCpuUsage(), 739306580000000L);
+         assertEquals(stats.memoryStats(), Stats.MemoryStats.create(6537216, 6651904, 67108864));
+         assertEquals(stats.blkioStats().total("Read"), 4096);
+         assertEquals(stats.networks().get("eth0").rxBytes(), 5338);
+         assertSent(server, "GET", "/containers/1/stats?stream=false");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void testGetStatsOfNonexistentContainer() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setResponseCode(404));
+      ContainerApi api = api(DockerApi.class, server.getUrl("/").toString()).getContainerApi();
+      try {
+         assertNull(api.getStats("1"));
+         assertSent(server, "GET", "/containers/1/stats?stream=false");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void testStreamStats() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setBody(payloadFromResource("/stats.stream")));
+      ContainerApi api = api(DockerApi.class, server.getUrl("/").toString()).getContainerApi();
+      Gson gson = Guice.createInjector(new GsonModule()).getInstance(Gson.class);
+      DockerStatsReader reader = null;
+      try {
+         reader = new DockerStatsReader(api.stats("1"), gson);
+         assertEquals(reader.readStats().read(), "2015-01-08T22:57:30.547920715Z");
+         assertEquals(reader.readStats().read(), "2015-01-08T22:57:31.547920715Z");
+         assertNull(reader.readStats());
+         assertSent(server, "GET", "/containers/1/stats");
+      } finally {
+         if (reader != null) {
+            reader.close();
+         }
+         server.shutdown();
+      }
+   }
+
+   public void testGetArchive() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setBody("archive"));
+      ContainerApi api = api(DockerApi.class, server.getUrl("/").toString()).getContainerApi();
+      try {
+         assertEquals(new String(ByteStreams.toByteArray(api.getArchive("1", "tmp")), "UTF-8"), "archive");
+         assertSent(server, "GET", "/containers/1/archive?path=tmp");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void testGetArchiveOfNonexistentPath() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setResponseCode(404));
+      ContainerApi api = api(DockerApi.class, server.getUrl("/").toString()).getContainerApi();
+      try {
+         assertNull(api.getArchive("1", "tmp"));
+         assertSent(server, "GET", "/containers/1/archive?path=tmp");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void testPutArchive() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setResponseCode(200));
+      ContainerApi api = api(DockerApi.class, server.getUrl("/").toString()).getContainerApi();
+      try {
+         api.putArchive("1", "tmp", Payloads.newByteArrayPayload("archive".getBytes("UTF-8")));
+         RecordedRequest request = assertSent(server, "PUT", "/containers/1/archive?path=tmp");
+         assertEquals(request.getHeader("Content-Type"), "application/x-tar");
+         assertEquals(new String(request.getBody(), "UTF-8"), "archive");
+      } finally {
+         server.shutdown();
+      }
+   }
+
 }
@@ -32,21 +32,27 @@ import javax.ws.rs.core.HttpHeaders;
 
 import org.jclouds.docker.DockerApi;
 import org.jclouds.docker.config.DockerParserModule;
+import org.jclouds.docker.domain.Event;
 import org.jclouds.docker.domain.Exec;
 import org.jclouds.docker.domain.ExecCreateParams;
 import org.jclouds.docker.domain.ExecInspect;
 import org.jclouds.docker.domain.ExecStartParams;
 import org.jclouds.docker.internal.BaseDockerMockTest;
+import org.jclouds.docker.options.EventsOptions;
 import org.jclouds.docker.parse.InfoParseTest;
 import org.jclouds.docker.parse.VersionParseTest;
+import org.jclouds.docker.util.DockerEventReader;
 import org.jclouds.docker.util.DockerInputStream;
 import org.jclouds.docker.util.StdStreamData;
 import org.jclouds.docker.util.StdStreamData.StdStreamType;
 import org.jclouds.io.Payload;
 import org.jclouds.io.Payloads;
+import org.jclouds.json.Json;
+import org.jclouds.json.config.GsonModule;
 import org.testng.annotations.Test;
 
 import com.google.common.collect.ImmutableList;
+import com.google.inject.Guice;
 import com.squareup.okhttp.mockwebserver.MockResponse;
 import com.squareup.okhttp.mockwebserver.MockWebServer;
 import com.squareup.okhttp.mockwebserver.RecordedRequest;
@@ -165,6 +171,27 @@ public class MiscApiMockTest extends BaseDockerMockTest {
       assertSent(server, "GET", "/exec/" + expectedExecId + "/json");
    }
 
+   public void testEvents() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setBody(payloadFromResource("/events.stream")));
+      MiscApi api = api(DockerApi.class, server.getUrl("/").toString()).getMiscApi();
+      Json json = Guice.createInjector(new GsonModule()).getInstance(Json.class);
+      DockerEventReader reader = null;
+      try {
+         reader = new DockerEventReader(api.events(EventsOptions.Builder.since(1461943100)), json);
+         final String containerId = "dfdf82bd3881f3a2ab0b4e0b5a6e2dba4ea7fd1d0d6d0e5bd8a5ec4bd9bcce43";
+         assertEquals(reader.readEvent(), Event.create("create", containerId, "ubuntu:14.04", 1461943101, "container"));
+         assertEquals(reader.readEvent(), Event.create("start", containerId, "ubuntu:14.04", 1461943101, "container"));
+         assertEquals(reader.readEvent(), Event.create("pull", "busybox:latest", null, 1461943105, null));
+         assertNull(reader.readEvent());
+         assertSent(server, "GET", "/events?since=1461943100");
+      } finally {
+         if (reader != null) {
+            reader.close();
+         }
+         server.shutdown();
+      }
+   }
+
    /**
     * Asserts that correct values of HTTP headers are used in Docker build REST
     * API calls.
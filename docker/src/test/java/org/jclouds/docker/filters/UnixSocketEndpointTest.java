@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.filters;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import java.net.URI;
+
+import org.jclouds.http.HttpRequest;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Suppliers;
+
+@Test(groups = "unit", testName = "UnixSocketEndpointTest")
+public class UnixSocketEndpointTest {
+
+   private final UnixSocketEndpoint filter = new UnixSocketEndpoint(
+         Suppliers.ofInstance(URI.create("unix:///var/run/docker.sock")));
+
+   public void testRewritesUnixEndpointToLocalhost() {
+      HttpRequest request = HttpRequest.builder().method("GET")
+            .endpoint("unix:///var/run/docker.sock/v1.21/containers/json?all=true").build();
+      assertEquals(filter.filter(request).getEndpoint(),
+            URI.create("http://localhost/v1.21/containers/json?all=true"));
+   }
+
+   public void testLeavesTcpEndpointUnchanged() {
+      HttpRequest request = HttpRequest.builder().method("GET").endpoint("https://127.0.0.1:2376/v1.21/info").build();
+      assertSame(filter.filter(request), request);
+   }
+}
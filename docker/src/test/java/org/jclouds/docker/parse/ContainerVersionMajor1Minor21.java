@@ -72,11 +72,8 @@ public class ContainerVersionMajor1Minor21 {
                      //Both types are allowed by docker Remote API, but we are not able to parse both.
                      .entrypoint(ImmutableList.of(""))
                      .image("ubuntu")
-//                     "Labels": {
-//                        "com.example.vendor": "Acme",
-//                        "com.example.license": "GPL",
-//                        "com.example.version": "1.0"
-//                      },
+                     .labels(ImmutableMap.of("com.example.vendor", "Acme", "com.example.license", "GPL",
+                           "com.example.version", "1.0"))
                      .volumes(ImmutableMap.of("/volumes/data", ImmutableMap.of()))
                      .workingDir("")
                      .networkDisabled(false)
@@ -89,13 +86,13 @@ public class ContainerVersionMajor1Minor21 {
                            //The LxcConf causes the type mismatch too (Map vs List<Map>)
                            .lxcConf(ImmutableList.<Map<String, String>> of(
                                  ImmutableMap.<String, String> of("lxc.utsname", "docker")))
-//                           "Memory": 0,
+                           .memory(0L)
 //                           "MemorySwap": 0,
-//                           "MemoryReservation": 0,
+                           .memoryReservation(0L)
 //                           "KernelMemory": 0,
 //                           "CpuShares": 512,
-//                           "CpuPeriod": 100000,
-//                           "CpuQuota": 50000,
+                           .cpuPeriod(100000L)
+                           .cpuQuota(50000L)
 //                           "CpusetCpus": "0,1",
 //                           "CpusetMems": "0,1",
 //                           "BlkioWeight": 300,
@@ -152,11 +149,8 @@ public class ContainerVersionMajor1Minor21 {
                      .exposedPorts(null)
                      .hostname("ba033ac44011")
                      .image("ubuntu")                    
-//                "Labels": {
-//                    "com.example.vendor": "Acme",
-//                    "com.example.license": "GPL",
-//                    "com.example.version": "1.0"
-//                },
+                     .labels(ImmutableMap.of("com.example.vendor", "Acme", "com.example.license", "GPL",
+                           "com.example.version", "1.0"))
 //                "MacAddress": "",
                      .networkDisabled(false)
 //                "OnBuild": null,
@@ -181,7 +175,7 @@ public class ContainerVersionMajor1Minor21 {
 //                "CpusetCpus": "",
 //                "CpusetMems": "",
 //                "CpuShares": 0,
-//                "CpuPeriod": 100000,
+                     .cpuPeriod(100000L)
 //                "Devices": [],
                      .dns(null)
 //                "DnsOptions": null,
@@ -190,9 +184,9 @@ public class ContainerVersionMajor1Minor21 {
 //                "IpcMode": "",
                      .links(null)
                      .lxcConf(ImmutableList.<Map<String, String>> of())
-//                "Memory": 0,
+                     .memory(0L)
 //                "MemorySwap": 0,
-//                "MemoryReservation": 0,
+                     .memoryReservation(0L)
 //                "KernelMemory": 0,
 //                "OomKillDisable": false,
                      .networkMode("bridge")
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+
+@Test(groups = "unit", testName = "ArchivesTest")
+public class ArchivesTest {
+
+   private static final String LONG_PATH = Strings.repeat("directory/", 12) + "deep.txt";
+
+   private File directory;
+   private byte[] archive;
+
+   @BeforeMethod
+   public void createArchive() throws IOException {
+      directory = Files.createTempDir();
+      write("app/app.conf", "port=8080\n");
+      write("app/big.bin", Strings.repeat("x", 3000));
+      write(LONG_PATH, "deep");
+      archive = BuildContext.builder(directory).build().read();
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void deleteDirectory() {
+      deleteRecursively(directory);
+   }
+
+   public void testExtractFile() throws IOException {
+      assertEquals(extract("app/app.conf"), "port=8080\n");
+      assertEquals(extract("/app/big.bin"), Strings.repeat("x", 3000));
+      assertEquals(extract(LONG_PATH), "deep");
+   }
+
+   public void testExtractMissingFile() throws IOException {
+      ClosingStream in = new ClosingStream(archive);
+      assertNull(Archives.extractFile(in, "app/missing.conf"));
+      assertEquals(in.closed, true);
+   }
+
+   public void testExtractDirectoryIsNotAFile() throws IOException {
+      assertNull(Archives.extractFile(new ByteArrayInputStream(archive), "app"));
+   }
+
+   public void testClosingTheFileClosesTheArchive() throws IOException {
+      ClosingStream in = new ClosingStream(archive);
+      InputStream file = Archives.extractFile(in, "app/app.conf");
+      assertEquals(in.closed, false);
+      file.close();
+      assertEquals(in.closed, true);
+   }
+
+   public void testCopyToPath() throws IOException {
+      Path target = new File(directory, "archive.tar").toPath();
+      assertEquals(Archives.copy(new ByteArrayInputStream(archive), target), archive.length);
+      assertEquals(java.nio.file.Files.readAllBytes(target), archive);
+      assertEquals(Archives.payload(target).getContentMetadata().getContentLength(), Long.valueOf(archive.length));
+   }
+
+   private String extract(String name) throws IOException {
+      InputStream in = Archives.extractFile(new ByteArrayInputStream(archive), name);
+      try {
+         return new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8);
+      } finally {
+         in.close();
+      }
+   }
+
+   private void write(String path, String content) throws IOException {
+      File file = new File(directory, path);
+      Files.createParentDirs(file);
+      Files.write(content, file, StandardCharsets.UTF_8);
+   }
+
+   private static void deleteRecursively(File file) {
+      File[] children = file.listFiles();
+      if (children != null) {
+         for (File child : children) {
+            deleteRecursively(child);
+         }
+      }
+      file.delete();
+   }
+
+   private static final class ClosingStream extends ByteArrayInputStream {
+      private boolean closed;
+
+      private ClosingStream(byte[] bytes) {
+         super(bytes);
+      }
+
+      @Override
+      public void close() {
+         closed = true;
+      }
+   }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.util;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.jclouds.docker.domain.Exec;
+import org.jclouds.docker.domain.ExecCreateParams;
+import org.jclouds.docker.domain.ExecInspect;
+import org.jclouds.docker.domain.ExecStartParams;
+import org.jclouds.docker.features.MiscApi;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@Test(groups = "unit", testName = "BatchExecTest")
+public class BatchExecTest {
+
+   private final ExecCreateParams params = ExecCreateParams.builder().cmd(ImmutableList.of("hostname")).build();
+
+   public void testRunsInEachContainer() throws Exception {
+      MiscApi api = createMock(MiscApi.class);
+      expectExec(api, "c1", "e1", frames(1, "c1\n"), 0);
+      expectExec(api, "c2", "e2", frames(2, "oops\n"), 3);
+      expect(api.execCreate("c3", params)).andThrow(new IllegalStateException("container not running"));
+      replay(api);
+
+      Map<String, ListenableFuture<BatchExec.Result>> results = new BatchExec(api,
+            MoreExecutors.sameThreadExecutor(), 2, 1024, 10, TimeUnit.SECONDS)
+            .exec(ImmutableList.of("c1", "c2", "c3"), params);
+
+      assertEquals(ImmutableList.copyOf(results.keySet()), ImmutableList.of("c1", "c2", "c3"));
+      BatchExec.Result c1 = results.get("c1").get();
+      assertEquals(c1.execId(), "e1");
+      assertEquals(c1.exitCode(), 0);
+      assertEquals(new String(c1.stdout(), StandardCharsets.UTF_8), "c1\n");
+      assertEquals(c1.stderr().length, 0);
+      assertFalse(c1.truncated());
+      BatchExec.Result c2 = results.get("c2").get();
+      assertEquals(c2.exitCode(), 3);
+      assertEquals(new String(c2.stderr(), StandardCharsets.UTF_8), "oops\n");
+      try {
+         results.get("c3").get();
+         fail("the exec should have failed");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof IllegalStateException);
+      }
+      verify(api);
+   }
+
+   public void testTruncatesOutput() throws Exception {
+      MiscApi api = createMock(MiscApi.class);
+      expectExec(api, "c1", "e1", frames(1, "0123456789"), 0);
+      replay(api);
+
+      BatchExec.Result result = new BatchExec(api, MoreExecutors.sameThreadExecutor(), 1, 4, 10, TimeUnit.SECONDS)
+            .exec(ImmutableList.of("c1"), params).get("c1").get();
+
+      assertEquals(new String(result.stdout(), StandardCharsets.UTF_8), "0123");
+      assertTrue(result.truncated());
+      verify(api);
+   }
+
+   public void testWaitsForTheExitCode() throws Exception {
+      MiscApi api = createMock(MiscApi.class);
+      expect(api.execCreate("c1", params)).andReturn(Exec.create("e1"));
+      expect(api.execStart("e1", ExecStartParams.create(false))).andReturn(new ByteArrayInputStream(new byte[0]));
+      expect(api.execInspect("e1")).andReturn(ExecInspect.create("e1", true, 0));
+      expect(api.execInspect("e1")).andReturn(ExecInspect.create("e1", false, 1));
+      replay(api);
+
+      BatchExec.Result result = new BatchExec(api, MoreExecutors.sameThreadExecutor(), 1, 4, 10, TimeUnit.SECONDS)
+            .exec(ImmutableList.of("c1"), params).get("c1").get();
+
+      assertEquals(result.exitCode(), 1);
+      verify(api);
+   }
+
+   public void testFailsWhenTheCommandOutlivesTheTimeout() throws Exception {
+      MiscApi api = createMock(MiscApi.class);
+      expect(api.execCreate("c1", params)).andReturn(Exec.create("e1"));
+      expect(api.execStart("e1", ExecStartParams.create(false))).andReturn(new ByteArrayInputStream(new byte[0]));
+      expect(api.execInspect("e1")).andReturn(ExecInspect.create("e1", true, 0)).atLeastOnce();
+      replay(api);
+
+      try {
+         new BatchExec(api, MoreExecutors.sameThreadExecutor(), 1, 4, 300, TimeUnit.MILLISECONDS)
+               .exec(ImmutableList.of("c1"), params).get("c1").get();
+         fail("the command never exits");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof TimeoutException);
+      }
+      verify(api);
+   }
+
+   private void expectExec(MiscApi api, String containerId, String execId, byte[] output, int exitCode) {
+      expect(api.execCreate(containerId, params)).andReturn(Exec.create(execId));
+      expect(api.execStart(execId, ExecStartParams.create(false))).andReturn(new ByteArrayInputStream(output));
+      expect(api.execInspect(execId)).andReturn(ExecInspect.create(execId, false, exitCode));
+   }
+
+   /**
+    * Builds a docker-raw-stream of a single frame.
+    */
+   private static byte[] frames(int stream, String payload) {
+      byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      out.write(stream);
+      out.write(new byte[3], 0, 3);
+      out.write(0);
+      out.write(0);
+      out.write(bytes.length >> 8);
+      out.write(bytes.length & 0xff);
+      out.write(bytes, 0, bytes.length);
+      return out.toByteArray();
+   }
+}
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+
+@Test(groups = "unit", testName = "BuildContextTest")
+public class BuildContextTest {
+
+   private File directory;
+
+   @BeforeMethod
+   public void createContext() throws IOException {
+      directory = Files.createTempDir();
+      write("Dockerfile", "FROM busybox\nCOPY . /app\n");
+      write("app/main.sh", "echo hello\n");
+      write("app/build/output.o", "binary");
+      write("app/build/keep.txt", "kept");
+      write("notes.md", "notes");
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void deleteContext() throws IOException {
+      deleteRecursively(directory);
+   }
+
+   public void testArchivesAllFiles() throws IOException {
+      BuildContext context = BuildContext.builder(directory).build();
+      Map<String, String> entries = untar(context.read());
+      assertEquals(ImmutableList.copyOf(entries.keySet()), ImmutableList.of("Dockerfile", "app/", "app/build/",
+            "app/build/keep.txt", "app/build/output.o", "app/main.sh", "notes.md"));
+      assertEquals(entries.get("app/main.sh"), "echo hello\n");
+      assertEquals(context.size(), context.read().length);
+   }
+
+   public void testHonoursDockerIgnore() throws IOException {
+      write(".dockerignore", "*.md\napp/build\n!app/build/keep.txt\nDockerfile\n");
+      Map<String, String> entries = untar(BuildContext.builder(directory).build().read());
+      assertEquals(ImmutableList.copyOf(entries.keySet()), ImmutableList.of(".dockerignore", "Dockerfile", "app/",
+            "app/build/keep.txt", "app/main.sh"));
+   }
+
+   public void testLongPaths() throws IOException {
+      String path = Strings.repeat("directory/", 12) + "file.txt";
+      write(path, "deep");
+      BuildContext context = BuildContext.builder(directory).build();
+      Map<String, String> entries = untar(context.read());
+      assertEquals(entries.get(path), "deep");
+      assertEquals(context.size(), context.read().length);
+   }
+
+   public void testGzip() throws IOException {
+      BuildContext context = BuildContext.builder(directory).gzip(true).build();
+      byte[] compressed = context.read();
+      assertEquals(context.size(), compressed.length);
+      byte[] archive = ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(compressed)));
+      assertEquals(archive, BuildContext.builder(directory).build().read());
+   }
+
+   public void testClosingCompressedStreamEarly() throws IOException {
+      InputStream in = BuildContext.builder(directory).gzip(true).build().openStream();
+      assertTrue(in.read(new byte[16]) > 0);
+      in.close();
+      assertEquals(in.read(), -1);
+      in.close();
+   }
+
+   public void testPayloadIsRepeatable() throws IOException {
+      BuildContext context = BuildContext.builder(directory).build();
+      assertTrue(context.payload().isRepeatable());
+      assertEquals(context.payload().getContentMetadata().getContentLength(), Long.valueOf(context.size()));
+   }
+
+   public void testHashChangesWithContent() throws IOException {
+      BuildContext context = BuildContext.builder(directory).build();
+      assertEquals(BuildContext.builder(directory).build().hash(), context.hash());
+      write("app/main.sh", "echo bye\n");
+      assertNotEquals(BuildContext.builder(directory).build().hash(), context.hash());
+   }
+
+   public void testDockerIgnorePatterns() {
+      DockerIgnore ignore = DockerIgnore.parse(ImmutableList.of("# comment", "", "**/*.log", "tmp?", "/target",
+            "docs/[a-c]*", "!docs/b.txt"));
+      assertTrue(ignore.isExcluded("server.log"));
+      assertTrue(ignore.isExcluded("logs/deep/server.log"));
+      assertTrue(ignore.isExcluded("tmp1"));
+      assertFalse(ignore.isExcluded("tmp12"));
+      assertTrue(ignore.isExcluded("target"));
+      assertTrue(ignore.isExcluded("target/classes/A.class"));
+      assertTrue(ignore.isExcluded("docs/a.txt"));
+      assertFalse(ignore.isExcluded("docs/b.txt"));
+      assertFalse(ignore.isExcluded("docs/d.txt"));
+      assertTrue(ignore.hasExceptions());
+      assertFalse(DockerIgnore.NONE.isExcluded("anything"));
+   }
+
+   private void write(String path, String content) throws IOException {
+      File file = new File(directory, path);
+      Files.createParentDirs(file);
+      Files.write(content, file, StandardCharsets.UTF_8);
+   }
+
+   /**
+    * Reads the names and contents of the entries of an archive, resolving the extended headers.
+    */
+   private static Map<String, String> untar(byte[] archive) throws IOException {
+      Map<String, String> entries = Maps.newLinkedHashMap();
+      InputStream in = new ByteArrayInputStream(archive);
+      byte[] header = new byte[512];
+      String longPath = null;
+      while (true) {
+         ByteStreams.readFully(in, header);
+         if (header[0] == 0) {
+            break;
+         }
+         String name = field(header, 0, 100);
+         int size = Integer.parseInt(field(header, 124, 12).trim(), 8);
+         byte[] content = new byte[size];
+         ByteStreams.readFully(in, content);
+         ByteStreams.skipFully(in, (512 - size % 512) % 512);
+         String text = new String(content, StandardCharsets.UTF_8);
+         if (header[156] == 'x') {
+            longPath = text.substring(text.indexOf("path=") + 5, text.length() - 1);
+         } else {
+            entries.put(longPath != null ? longPath : name, text);
+            longPath = null;
+         }
+      }
+      return entries;
+   }
+
+   private static String field(byte[] header, int offset, int length) {
+      int end = offset;
+      while (end < offset + length && header[end] != 0) {
+         end++;
+      }
+      return new String(header, offset, end - offset, StandardCharsets.UTF_8);
+   }
+
+   private static void deleteRecursively(File file) {
+      File[] children = file.listFiles();
+      if (children != null) {
+         for (File child : children) {
+            deleteRecursively(child);
+         }
+      }
+      file.delete();
+   }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.jclouds.docker.domain.ProgressMessage;
+import org.jclouds.docker.domain.ProgressMessage.ProgressDetail;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+@Test(groups = "unit", testName = "DockerProgressReaderTest")
+public class DockerProgressReaderTest {
+
+   public void testReadMessages() throws IOException {
+      DockerProgressReader reader = new DockerProgressReader(getClass().getResourceAsStream("/image-create.stream"));
+      try {
+         assertEquals(reader.readMessage(),
+               ProgressMessage.create("latest", "Pulling from library/busybox", null, null, null));
+         assertEquals(reader.readMessage(), ProgressMessage.create("8ddc19f16526", "Pulling fs layer",
+               ProgressDetail.create(0, 0), null, null));
+         assertEquals(reader.readMessage(), ProgressMessage.create("8ddc19f16526", "Downloading",
+               ProgressDetail.create(32768, 667590), null, null));
+      } finally {
+         reader.close();
+      }
+   }
+
+   public void testReadAllTracksLayerProgress() throws IOException {
+      final List<String> progress = Lists.newArrayList();
+      DockerProgressReader reader = new DockerProgressReader(getClass().getResourceAsStream("/image-create.stream"));
+      try {
+         assertNull(reader.readAll(new DockerProgressReader.Listener() {
+            @Override
+            public void onProgress(String layerId, long current, long total, long aggregateCurrent,
+                  long aggregateTotal) {
+               progress.add(layerId + " " + current + "/" + total + " " + aggregateCurrent + "/" + aggregateTotal);
+            }
+         }));
+      } finally {
+         reader.close();
+      }
+      assertEquals(progress, ImmutableList.of("8ddc19f16526 32768/667590 32768/667590",
+            "8ddc19f16526 667590/667590 667590/667590"));
+   }
+
+   public void testReadAllStopsAtError() throws IOException {
+      String stream = "{\"status\":\"Pulling repository docker.io/library/nosuchimage\"}\r\n"
+            + "{\"errorDetail\":{\"message\":\"Error: image library/nosuchimage not found\"},"
+            + "\"error\":\"Error: image library/nosuchimage not found\"}\r\n";
+      DockerProgressReader reader = new DockerProgressReader(
+            new ByteArrayInputStream(stream.getBytes(StandardCharsets.UTF_8)));
+      try {
+         ProgressMessage error = reader.readAll(new DockerProgressReader.Listener() {
+         });
+         assertEquals(error.error(), "Error: image library/nosuchimage not found");
+      } finally {
+         reader.close();
+      }
+   }
+}
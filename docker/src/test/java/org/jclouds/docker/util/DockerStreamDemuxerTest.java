@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.util;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.testng.annotations.Test;
+
+import com.google.common.io.Resources;
+
+@Test(groups = "unit", testName = "DockerStreamDemuxerTest")
+public class DockerStreamDemuxerTest {
+
+   public void testDemuxToOutputStreams() throws IOException {
+      ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+      ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+      byte[] stream = Resources.toByteArray(getClass().getResource("/exec.start"));
+
+      long bytes = new DockerStreamDemuxer().demux(new ByteArrayInputStream(stream), stdout, stderr);
+
+      assertEquals(bytes, "StandardError".length());
+      assertEquals(stdout.toByteArray(), "Standard".getBytes(StandardCharsets.UTF_8));
+      assertEquals(stderr.toByteArray(), "Error".getBytes(StandardCharsets.UTF_8));
+   }
+
+   public void testDemuxToChannels() throws IOException {
+      ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+      ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+      byte[] stream = Resources.toByteArray(getClass().getResource("/exec.start"));
+
+      new DockerStreamDemuxer().demux(new ByteArrayInputStream(stream), Channels.newChannel(stdout),
+            Channels.newChannel(stderr));
+
+      assertEquals(stdout.toByteArray(), "Standard".getBytes(StandardCharsets.UTF_8));
+      assertEquals(stderr.toByteArray(), "Error".getBytes(StandardCharsets.UTF_8));
+   }
+
+   public void testFramesLargerThanBuffer() throws IOException {
+      byte[] out = new byte[1000];
+      Arrays.fill(out, (byte) 'o');
+      byte[] err = new byte[10];
+      Arrays.fill(err, (byte) 'e');
+      ByteArrayOutputStream stream = new ByteArrayOutputStream();
+      writeFrame(stream, 1, out);
+      writeFrame(stream, 2, err);
+      writeFrame(stream, 1, out);
+      ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+
+      // stderr is discarded
+      DockerStreamDemuxer demuxer = new DockerStreamDemuxer(64);
+      long bytes = demuxer.demux(new ByteArrayInputStream(stream.toByteArray()), stdout, null);
+
+      assertEquals(bytes, 2010);
+      assertEquals(stdout.size(), 2000);
+      byte[] expected = new byte[2000];
+      Arrays.fill(expected, (byte) 'o');
+      assertEquals(stdout.toByteArray(), expected);
+   }
+
+   @Test(expectedExceptions = EOFException.class)
+   public void testTruncatedFrame() throws IOException {
+      ByteArrayOutputStream stream = new ByteArrayOutputStream();
+      writeFrame(stream, 1, "Standard".getBytes(StandardCharsets.UTF_8));
+      byte[] truncated = Arrays.copyOf(stream.toByteArray(), stream.size() - 2);
+      new DockerStreamDemuxer().demux(new ByteArrayInputStream(truncated), new ByteArrayOutputStream(), null);
+   }
+
+   private static void writeFrame(ByteArrayOutputStream stream, int type, byte[] payload) {
+      stream.write(type);
+      stream.write(0);
+      stream.write(0);
+      stream.write(0);
+      stream.write(payload.length >>> 24);
+      stream.write(payload.length >>> 16);
+      stream.write(payload.length >>> 8);
+      stream.write(payload.length);
+      stream.write(payload, 0, payload.length);
+   }
+}
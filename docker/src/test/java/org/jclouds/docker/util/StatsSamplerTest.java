@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.util;
+
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.easymock.Capture;
+import org.jclouds.docker.domain.Stats;
+import org.jclouds.docker.features.ContainerApi;
+import org.jclouds.json.config.GsonModule;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.gson.Gson;
+import com.google.inject.Guice;
+
+@Test(groups = "unit", testName = "StatsSamplerTest")
+public class StatsSamplerTest {
+
+   private final Gson gson = Guice.createInjector(new GsonModule()).getInstance(Gson.class);
+
+   private static class RecordingListener implements StatsSampler.Listener {
+      private final List<StatsSampler.Sample> samples = Lists.newArrayList();
+      private final List<Exception> errors = Lists.newArrayList();
+
+      @Override
+      public void onSample(String containerId, StatsSampler.Sample sample) {
+         assertEquals(containerId, "1");
+         samples.add(sample);
+      }
+
+      @Override
+      public void onError(String containerId, Exception e) {
+         errors.add(e);
+      }
+   }
+
+   public void testStreaming() throws IOException {
+      ContainerApi api = createMock(ContainerApi.class);
+      expect(api.stats("1")).andReturn(getClass().getResourceAsStream("/stats.stream"));
+      replay(api);
+
+      RecordingListener listener = new RecordingListener();
+      StatsSampler sampler = StatsSampler.streaming(api, gson, MoreExecutors.sameThreadExecutor(), listener);
+      sampler.add("1");
+      sampler.close();
+
+      // the first sample of the stream is the baseline of the second
+      assertEquals(listener.samples.size(), 1);
+      assertTrue(listener.errors.isEmpty());
+      StatsSampler.Sample sample = listener.samples.get(0);
+      assertEquals(sample.cpuPercent(), 4.85436, 0.00001);
+      assertEquals(sample.memoryUsage(), 6537216);
+      assertEquals(sample.memoryLimit(), 67108864);
+      assertEquals(sample.blockReadBytes(), 2048);
+      assertEquals(sample.blockWriteBytes(), 0);
+      assertEquals(sample.networkRxBytes(), 1000);
+      assertEquals(sample.networkTxBytes(), 200);
+      verify(api);
+   }
+
+   public void testPolling() throws IOException {
+      DockerStatsReader reader = new DockerStatsReader(getClass().getResourceAsStream("/stats.stream"), gson);
+      Stats first = reader.readStats();
+      Stats second = reader.readStats();
+      reader.close();
+
+      ContainerApi api = createMock(ContainerApi.class);
+      expect(api.getStats("1")).andReturn(first);
+      expect(api.getStats("1")).andThrow(new IllegalStateException("connection refused"));
+      expect(api.getStats("1")).andReturn(second);
+      ScheduledExecutorService scheduler = createMock(ScheduledExecutorService.class);
+      Capture<Runnable> poll = new Capture<Runnable>();
+      expect(scheduler.scheduleAtFixedRate(capture(poll), eq(0L), eq(10L), eq(TimeUnit.SECONDS))).andReturn(null);
+      replay(api, scheduler);
+
+      RecordingListener listener = new RecordingListener();
+      StatsSampler sampler = StatsSampler.polling(api, MoreExecutors.sameThreadExecutor(), scheduler, 10,
+            TimeUnit.SECONDS, 50, listener);
+      sampler.add("1");
+      poll.getValue().run();
+      poll.getValue().run();
+      poll.getValue().run();
+      sampler.close();
+      poll.getValue().run();
+
+      assertEquals(listener.errors.size(), 1);
+      assertEquals(listener.samples.size(), 1);
+      assertEquals(listener.samples.get(0).stats(), second);
+      assertEquals(listener.samples.get(0).networkRxBytes(), 1000);
+      verify(api, scheduler);
+   }
+
+   public void testRestartedCountersStartFromZero() throws IOException {
+      DockerStatsReader reader = new DockerStatsReader(getClass().getResourceAsStream("/stats.stream"), gson);
+      Stats first = reader.readStats();
+      Stats second = reader.readStats();
+      reader.close();
+
+      StatsSampler.Sample sample = StatsSampler.sample(second, first);
+      assertEquals(sample.networkRxBytes(), 4338);
+      assertEquals(sample.blockReadBytes(), 2048);
+   }
+}
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import com.squareup.okhttp.OkHttpClient;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+
+/**
+ * Talks to a Unix domain socket bound in a temporary directory. The tests are skipped before Java 16, which has no
+ * Unix domain socket channels.
+ */
+@Test(groups = "unit", testName = "UnixDomainSocketTest", singleThreaded = true)
+public class UnixDomainSocketTest {
+
+   private File directory;
+   private String path;
+   private ServerSocketChannel server;
+   private ExecutorService executor;
+
+   @BeforeMethod
+   public void bind() throws Exception {
+      try {
+         Class.forName("java.net.UnixDomainSocketAddress");
+      } catch (ClassNotFoundException e) {
+         throw new SkipException("Unix domain sockets require Java 16 or later");
+      }
+      directory = Files.createTempDir();
+      path = new File(directory, "docker.sock").getPath();
+      Method open = ServerSocketChannel.class.getMethod("open", ProtocolFamily.class);
+      server = (ServerSocketChannel) open.invoke(null, StandardProtocolFamily.valueOf("UNIX"));
+      server.bind(UnixDomainSocket.unixDomainSocketAddress(path));
+      executor = Executors.newCachedThreadPool();
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void close() throws IOException {
+      if (executor != null) {
+         executor.shutdownNow();
+      }
+      if (server != null) {
+         server.close();
+         new File(path).delete();
+         directory.delete();
+      }
+   }
+
+   private UnixDomainSocket connect() throws IOException {
+      UnixDomainSocket socket = new UnixDomainSocket(path);
+      socket.connect(InetSocketAddress.createUnresolved("localhost", 0), 1000);
+      return socket;
+   }
+
+   public void testReadTimesOutAndTheSocketRemainsUsable() throws IOException {
+      UnixDomainSocket socket = connect();
+      SocketChannel peer = server.accept();
+      try {
+         socket.setSoTimeout(100);
+         try {
+            socket.getInputStream().read();
+            fail("nothing was sent");
+         } catch (SocketTimeoutException expected) {
+         }
+         peer.write(ByteBuffer.wrap(new byte[] { 42 }));
+         assertEquals(socket.getInputStream().read(), 42);
+      } finally {
+         socket.close();
+         peer.close();
+      }
+   }
+
+   public void testReadReturnsEndOfStreamWhenThePeerCloses() throws IOException {
+      UnixDomainSocket socket = connect();
+      SocketChannel peer = server.accept();
+      try {
+         peer.write(ByteBuffer.wrap("hello".getBytes(StandardCharsets.UTF_8)));
+         peer.close();
+         socket.setSoTimeout(1000);
+         assertEquals(new String(ByteStreams.toByteArray(socket.getInputStream()), StandardCharsets.UTF_8), "hello");
+      } finally {
+         socket.close();
+      }
+   }
+
+   public void testCloseWakesUpABlockedRead() throws Exception {
+      final UnixDomainSocket socket = connect();
+      SocketChannel peer = server.accept();
+      try {
+         Future<Integer> read = executor.submit(new Callable<Integer>() {
+            @Override
+            public Integer call() throws IOException {
+               return socket.getInputStream().read();
+            }
+         });
+         try {
+            read.get(200, TimeUnit.MILLISECONDS);
+            fail("nothing was sent");
+         } catch (TimeoutException expected) {
+         }
+         socket.close();
+         try {
+            read.get(5, TimeUnit.SECONDS);
+            fail("the socket was closed");
+         } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof SocketException, expected.getCause().toString());
+         }
+      } finally {
+         peer.close();
+      }
+   }
+
+   public void testConnectFailsWithoutAListener() throws IOException {
+      server.close();
+      new File(path).delete();
+      try {
+         connect();
+         fail("nothing listens on " + path);
+      } catch (IOException expected) {
+      }
+   }
+
+   public void testOkHttpReusesTheConnection() throws IOException {
+      final AtomicInteger connections = new AtomicInteger();
+      executor.submit(new Callable<Void>() {
+         @Override
+         public Void call() throws IOException {
+            while (true) {
+               final SocketChannel peer = server.accept();
+               connections.incrementAndGet();
+               executor.submit(new Callable<Void>() {
+                  @Override
+                  public Void call() throws IOException {
+                     serve(peer);
+                     return null;
+                  }
+               });
+            }
+         }
+      });
+      OkHttpClient client = new OkHttpClient();
+      client.setSocketFactory(new UnixDomainSocketFactory(path));
+      for (int i = 0; i < 3; i++) {
+         Response response = client.newCall(new Request.Builder().url("http://localhost:2375/_ping").build())
+               .execute();
+         assertEquals(response.body().string(), "OK");
+      }
+      assertEquals(connections.get(), 1);
+   }
+
+   /**
+    * Answers <code>OK</code> to every request of a keep-alive connection, until the client closes it.
+    */
+   private static void serve(SocketChannel peer) throws IOException {
+      try {
+         BufferedReader requests = new BufferedReader(new InputStreamReader(Channels.newInputStream(peer),
+               StandardCharsets.US_ASCII));
+         for (String line = requests.readLine(); line != null; line = requests.readLine()) {
+            if (line.isEmpty()) {
+               peer.write(ByteBuffer.wrap("HTTP/1.1 200 OK\r\nContent-Length: 2\r\n\r\nOK"
+                     .getBytes(StandardCharsets.US_ASCII)));
+            }
+         }
+      } finally {
+         peer.close();
+      }
+   }
+}
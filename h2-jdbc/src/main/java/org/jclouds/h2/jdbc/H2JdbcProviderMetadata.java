@@ -16,6 +16,19 @@
  */
 package org.jclouds.h2.jdbc;
 
+import static org.jclouds.h2.jdbc.reference.H2JdbcConstants.DEFAULT_BATCH_SIZE;
+import static org.jclouds.h2.jdbc.reference.H2JdbcConstants.DEFAULT_FETCH_SIZE;
+import static org.jclouds.h2.jdbc.reference.H2JdbcConstants.DEFAULT_POOL_SIZE;
+import static org.jclouds.h2.jdbc.reference.H2JdbcConstants.DEFAULT_URL;
+import static org.jclouds.h2.jdbc.reference.H2JdbcConstants.PROPERTY_BATCH_SIZE;
+import static org.jclouds.h2.jdbc.reference.H2JdbcConstants.PROPERTY_CACHE_SIZE;
+import static org.jclouds.h2.jdbc.reference.H2JdbcConstants.PROPERTY_FETCH_SIZE;
+import static org.jclouds.h2.jdbc.reference.H2JdbcConstants.PROPERTY_POOL_SIZE;
+import static org.jclouds.h2.jdbc.reference.H2JdbcConstants.PROPERTY_URL;
+import static org.jclouds.h2.jdbc.reference.H2JdbcConstants.PROPERTY_WRITE_DELAY;
+
+import java.util.Properties;
+
 import org.jclouds.h2.jdbc.config.H2JdbcBlobStoreContextModule;
 import org.jclouds.jdbc.JdbcApiMetadata;
 import org.jclouds.providers.ProviderMetadata;
@@ -43,6 +56,17 @@ public class H2JdbcProviderMetadata extends BaseProviderMetadata {
       super(builder);
    }
 
+   public static Properties defaultProperties() {
+      Properties properties = JdbcApiMetadata.defaultProperties();
+      properties.setProperty(PROPERTY_URL, DEFAULT_URL);
+      properties.setProperty(PROPERTY_POOL_SIZE, String.valueOf(DEFAULT_POOL_SIZE));
+      properties.setProperty(PROPERTY_CACHE_SIZE, "");
+      properties.setProperty(PROPERTY_WRITE_DELAY, "");
+      properties.setProperty(PROPERTY_BATCH_SIZE, String.valueOf(DEFAULT_BATCH_SIZE));
+      properties.setProperty(PROPERTY_FETCH_SIZE, String.valueOf(DEFAULT_FETCH_SIZE));
+      return properties;
+   }
+
    public static class Builder extends BaseProviderMetadata.Builder {
       protected Builder() {
          id("h2-jdbc")
@@ -50,7 +74,8 @@ public class H2JdbcProviderMetadata extends BaseProviderMetadata {
                .apiMetadata(new JdbcApiMetadata()
                      .toBuilder()
                      .defaultModule(H2JdbcBlobStoreContextModule.class)
-                     .build());
+                     .build())
+               .defaultProperties(H2JdbcProviderMetadata.defaultProperties());
       }
 
       @Override
@@ -20,19 +20,26 @@ import java.util.Properties;
 
 import org.jclouds.jdbc.config.JdbcBlobStoreContextModule;
 
+import com.google.inject.name.Names;
 import com.google.inject.persist.jpa.JpaPersistModule;
 
 public class H2JdbcBlobStoreContextModule extends JdbcBlobStoreContextModule {
 
-   private static final String DEFAULT_FILE = "./jclouds-db";
+   static final String PERSISTENCE_UNIT = "jclouds-h2";
 
    protected void configure() {
       super.configure();
 
+      // Filled in by H2JdbcPersistenceProperties before the persistence service starts
       Properties properties = new Properties();
-      properties.setProperty("hibernate.connection.url", "jdbc:h2:" + DEFAULT_FILE);
+      bind(Properties.class).annotatedWith(Names.named(PERSISTENCE_UNIT)).toInstance(properties);
 
-      install(new JpaPersistModule("jclouds-h2").properties(properties));
+      install(new JpaPersistModule(PERSISTENCE_UNIT).properties(properties));
+   }
+
+   @Override
+   protected void bindJPAInitializer() {
+      bind(H2JdbcJPAInitializer.class).asEagerSingleton();
    }
 
 }
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.h2.jdbc.config;
+
+import static org.jclouds.h2.jdbc.reference.H2JdbcConstants.PROPERTY_BATCH_SIZE;
+import static org.jclouds.h2.jdbc.reference.H2JdbcConstants.PROPERTY_CACHE_SIZE;
+import static org.jclouds.h2.jdbc.reference.H2JdbcConstants.PROPERTY_FETCH_SIZE;
+import static org.jclouds.h2.jdbc.reference.H2JdbcConstants.PROPERTY_POOL_SIZE;
+import static org.jclouds.h2.jdbc.reference.H2JdbcConstants.PROPERTY_URL;
+import static org.jclouds.h2.jdbc.reference.H2JdbcConstants.PROPERTY_WRITE_DELAY;
+
+import java.util.Properties;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import com.google.common.base.Strings;
+
+/**
+ * Fills the persistence unit properties from the provider properties: the jdbc url with the h2 tuning settings, the
+ * HikariCP connection pool and the Hibernate batching settings.
+ */
+@Singleton
+public class H2JdbcPersistenceProperties {
+
+   private static final String USER = "sa";
+   private static final String HIKARI_CONNECTION_PROVIDER = "org.hibernate.hikaricp.internal.HikariCPConnectionProvider";
+
+   @Inject
+   H2JdbcPersistenceProperties(@Named(H2JdbcBlobStoreContextModule.PERSISTENCE_UNIT) Properties properties,
+         @Named(PROPERTY_URL) String url, @Named(PROPERTY_POOL_SIZE) int poolSize,
+         @Named(PROPERTY_CACHE_SIZE) String cacheSize, @Named(PROPERTY_WRITE_DELAY) String writeDelay,
+         @Named(PROPERTY_BATCH_SIZE) int batchSize, @Named(PROPERTY_FETCH_SIZE) int fetchSize) {
+      properties.setProperty("hibernate.connection.url", url(url, cacheSize, writeDelay));
+      properties.setProperty("hibernate.connection.username", USER);
+      properties.setProperty("hibernate.connection.provider_class", HIKARI_CONNECTION_PROVIDER);
+      properties.setProperty("hibernate.hikari.maximumPoolSize", String.valueOf(poolSize));
+      properties.setProperty("hibernate.jdbc.batch_size", String.valueOf(batchSize));
+      properties.setProperty("hibernate.jdbc.fetch_size", String.valueOf(fetchSize));
+      properties.setProperty("hibernate.order_inserts", "true");
+      properties.setProperty("hibernate.order_updates", "true");
+   }
+
+   static String url(String url, String cacheSize, String writeDelay) {
+      StringBuilder result = new StringBuilder(url);
+      if (!Strings.isNullOrEmpty(cacheSize)) {
+         result.append(";CACHE_SIZE=").append(Integer.parseInt(cacheSize));
+      }
+      if (!Strings.isNullOrEmpty(writeDelay)) {
+         result.append(";WRITE_DELAY=").append(Integer.parseInt(writeDelay));
+      }
+      return result.toString();
+   }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.h2.jdbc.config;
+
+import java.util.Properties;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationVersion;
+
+import com.google.common.base.Strings;
+
+/**
+ * Applies the versioned DDL scripts found under {@value #LOCATION} with Flyway, so that databases created by older
+ * versions pick up the schema changes that Hibernate does not apply on its own, such as new indexes and constraints.
+ * <p>
+ * Runs once Hibernate has created any missing tables. Databases that have never been migrated are baselined at version
+ * 0, so every script must be safe to apply to a schema that Hibernate has just created. Hibernate cannot add
+ * {@code NOT NULL} columns to tables that already hold rows, so such columns must be added by a script with a default.
+ */
+@Singleton
+public class H2JdbcSchemaMigrator {
+
+   static final String LOCATION = "classpath:org/jclouds/h2/jdbc/migration";
+
+   private final Properties properties;
+
+   @Inject
+   H2JdbcSchemaMigrator(@Named(H2JdbcBlobStoreContextModule.PERSISTENCE_UNIT) Properties properties) {
+      this.properties = properties;
+   }
+
+   public void migrate() {
+      Flyway flyway = new Flyway();
+      flyway.setDataSource(properties.getProperty("hibernate.connection.url"),
+            properties.getProperty("hibernate.connection.username"),
+            Strings.nullToEmpty(properties.getProperty("hibernate.connection.password")));
+      flyway.setLocations(LOCATION);
+      flyway.setBaselineOnMigrate(true);
+      flyway.setBaselineVersion(MigrationVersion.fromVersion("0"));
+      flyway.migrate();
+   }
+
+}
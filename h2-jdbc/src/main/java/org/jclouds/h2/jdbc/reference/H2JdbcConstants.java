@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.h2.jdbc.reference;
+
+/**
+ * Configuration properties of the h2 jdbc provider
+ */
+public final class H2JdbcConstants {
+
+   /**
+    * Jdbc url of the h2 database
+    */
+   public static final String PROPERTY_URL = "jclouds.h2.jdbc.url";
+
+   /**
+    * Maximum number of pooled connections to the database
+    */
+   public static final String PROPERTY_POOL_SIZE = "jclouds.h2.jdbc.pool-size";
+
+   /**
+    * H2 page cache size in KB. Empty uses the h2 default.
+    */
+   public static final String PROPERTY_CACHE_SIZE = "jclouds.h2.jdbc.cache-size";
+
+   /**
+    * Maximum delay in milliseconds between a commit and flushing the log to disk. Empty uses the h2 default.
+    */
+   public static final String PROPERTY_WRITE_DELAY = "jclouds.h2.jdbc.write-delay";
+
+   /**
+    * Number of statements Hibernate sends to the database in a single jdbc batch
+    */
+   public static final String PROPERTY_BATCH_SIZE = "jclouds.h2.jdbc.batch-size";
+
+   /**
+    * Number of rows fetched from the database per round trip
+    */
+   public static final String PROPERTY_FETCH_SIZE = "jclouds.h2.jdbc.fetch-size";
+
+   public static final String DEFAULT_URL = "jdbc:h2:./jclouds-db";
+
+   public static final int DEFAULT_POOL_SIZE = 10;
+
+   public static final int DEFAULT_BATCH_SIZE = 50;
+
+   public static final int DEFAULT_FETCH_SIZE = 100;
+
+   private H2JdbcConstants() {
+      throw new AssertionError("Intentionally Unimplemented");
+   }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.h2.jdbc.config;
+
+import static org.testng.Assert.assertEquals;
+
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "H2JdbcPersistencePropertiesTest")
+public class H2JdbcPersistencePropertiesTest {
+
+   private static final String URL = "jdbc:h2:./jclouds-db";
+
+   public void testUrlWithoutTuning() {
+      assertEquals(H2JdbcPersistenceProperties.url(URL, "", ""), URL);
+      assertEquals(H2JdbcPersistenceProperties.url(URL, null, null), URL);
+   }
+
+   public void testUrlWithCacheSize() {
+      assertEquals(H2JdbcPersistenceProperties.url(URL, "65536", ""), URL + ";CACHE_SIZE=65536");
+   }
+
+   public void testUrlWithWriteDelay() {
+      assertEquals(H2JdbcPersistenceProperties.url(URL, "", "0"), URL + ";WRITE_DELAY=0");
+   }
+
+   public void testUrlWithCacheSizeAndWriteDelay() {
+      assertEquals(H2JdbcPersistenceProperties.url(URL + ";MVCC=TRUE", "1024", "500"),
+            URL + ";MVCC=TRUE;CACHE_SIZE=1024;WRITE_DELAY=500");
+   }
+
+   @Test(expectedExceptions = NumberFormatException.class)
+   public void testUrlRejectsNonNumericCacheSize() {
+      H2JdbcPersistenceProperties.url(URL, "1024;INIT=RUNSCRIPT FROM 'init.sql'", "");
+   }
+
+}
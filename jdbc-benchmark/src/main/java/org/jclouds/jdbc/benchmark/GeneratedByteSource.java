@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.jdbc.benchmark;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.InputStream;
+import java.util.Random;
+
+import com.google.common.io.ByteSource;
+
+/**
+ * Byte source of a given size that repeats a block of random bytes, so that payloads of up to several gigabytes can be
+ * uploaded without being held in memory.
+ */
+final class GeneratedByteSource extends ByteSource {
+
+   private static final int BLOCK_SIZE = 64 * 1024;
+
+   private final long size;
+   private final byte[] block;
+
+   GeneratedByteSource(long size, long seed) {
+      checkArgument(size >= 0, "size must be non-negative");
+      this.size = size;
+      this.block = new byte[(int) Math.min(BLOCK_SIZE, Math.max(size, 1))];
+      new Random(seed).nextBytes(block);
+   }
+
+   @Override
+   public InputStream openStream() {
+      return new InputStream() {
+         private long position;
+
+         @Override
+         public int read() {
+            if (position >= size) {
+               return -1;
+            }
+            return block[(int) (position++ % block.length)] & 0xFF;
+         }
+
+         @Override
+         public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+               return 0;
+            }
+            if (position >= size) {
+               return -1;
+            }
+            int offset = (int) (position % block.length);
+            int count = (int) Math.min(Math.min(len, block.length - offset), size - position);
+            System.arraycopy(block, offset, b, off, count);
+            position += count;
+            return count;
+         }
+
+         @Override
+         public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, size - position);
+         }
+      };
+   }
+
+   @Override
+   public long size() {
+      return size;
+   }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.jdbc.benchmark;
+
+import static org.jclouds.h2.jdbc.reference.H2JdbcConstants.PROPERTY_URL;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.domain.Blob;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.google.common.io.Files;
+
+/**
+ * An h2-jdbc blobstore backed by a database in a fresh temporary directory, with a single container. The database is
+ * deleted when the trial ends.
+ */
+@State(Scope.Benchmark)
+public class H2BlobStoreState {
+
+   public static final String CONTAINER = "benchmark";
+
+   private File directory;
+   private BlobStoreContext context;
+   protected BlobStore blobStore;
+
+   @Setup(Level.Trial)
+   public void setUpBlobStore() throws IOException {
+      directory = Files.createTempDir();
+      Properties overrides = new Properties();
+      overrides.setProperty(PROPERTY_URL, "jdbc:h2:" + new File(directory, "jclouds-db").getAbsolutePath());
+      context = ContextBuilder.newBuilder("h2-jdbc").overrides(overrides).buildView(BlobStoreContext.class);
+      blobStore = context.getBlobStore();
+      blobStore.createContainerInLocation(null, CONTAINER);
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDownBlobStore() {
+      if (context != null) {
+         context.close();
+      }
+      delete(directory);
+   }
+
+   public BlobStore getBlobStore() {
+      return blobStore;
+   }
+
+   /**
+    * Stores {@code count} blobs of {@code size} bytes named {@code prefix0}, {@code prefix1}...
+    */
+   protected void populate(String prefix, int count, long size) {
+      for (int i = 0; i < count; i++) {
+         blobStore.putBlob(CONTAINER, blob(prefix + i, size));
+      }
+   }
+
+   protected Blob blob(String name, long size) {
+      return blobStore.blobBuilder(name)
+            .payload(new GeneratedByteSource(size, name.hashCode()))
+            .contentLength(size)
+            .build();
+   }
+
+   private static void delete(File file) {
+      if (file == null) {
+         return;
+      }
+      File[] children = file.listFiles();
+      if (children != null) {
+         for (File child : children) {
+            delete(child);
+         }
+      }
+      file.delete();
+   }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.jdbc.benchmark;
+
+import static org.jclouds.blobstore.options.ListContainerOptions.Builder.inDirectory;
+import static org.jclouds.blobstore.options.ListContainerOptions.Builder.maxResults;
+import static org.jclouds.jdbc.benchmark.H2BlobStoreState.CONTAINER;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.blobstore.domain.PageSet;
+import org.jclouds.blobstore.domain.StorageMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Listing latency of containers holding from 10k to 1M keys. The keys are spread over {@value #DIRECTORIES}
+ * directories named {@code dir0/} to {@code dir99/}.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ListBenchmark {
+
+   static final int DIRECTORIES = 100;
+
+   @State(Scope.Benchmark)
+   public static class KeysState extends H2BlobStoreState {
+
+      @Param({ "10000", "100000", "1000000" })
+      public int keyCount;
+
+      @Setup(Level.Trial)
+      public void setUpKeys() {
+         for (int i = 0; i < keyCount; i++) {
+            blobStore.putBlob(CONTAINER, blob("dir" + (i % DIRECTORIES) + "/key" + i, 16));
+         }
+      }
+   }
+
+   @Benchmark
+   public PageSet<? extends StorageMetadata> listFirstPage(KeysState state) {
+      return state.getBlobStore().list(CONTAINER, maxResults(1000));
+   }
+
+   @Benchmark
+   public PageSet<? extends StorageMetadata> listDirectory(KeysState state) {
+      return state.getBlobStore().list(CONTAINER, inDirectory("dir7"));
+   }
+
+   @Benchmark
+   public PageSet<? extends StorageMetadata> listDirectoryRecursive(KeysState state) {
+      return state.getBlobStore().list(CONTAINER, inDirectory("dir7").recursive());
+   }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.jdbc.benchmark;
+
+import static org.jclouds.jdbc.benchmark.H2BlobStoreState.CONTAINER;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.io.ByteStreams;
+
+/**
+ * Put and get throughput for payload sizes from 1 KB to 1 GB. Every benchmark thread writes its own key, so running
+ * with {@code -t} measures concurrent writers.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PutGetBenchmark {
+
+   @State(Scope.Benchmark)
+   public static class PayloadState extends H2BlobStoreState {
+
+      @Param({ "1024", "1048576", "16777216", "268435456", "1073741824" })
+      public long size;
+
+      @Setup(Level.Trial)
+      public void setUpBlob() {
+         populate("get", 1, size);
+      }
+   }
+
+   @State(Scope.Thread)
+   public static class ThreadKey {
+      public final String name = "put-" + Thread.currentThread().getId();
+   }
+
+   @Benchmark
+   public String put(PayloadState state, ThreadKey key) {
+      return state.getBlobStore().putBlob(CONTAINER, state.blob(key.name, state.size));
+   }
+
+   @Benchmark
+   public long get(PayloadState state) throws IOException {
+      InputStream in = state.getBlobStore().getBlob(CONTAINER, "get0").getPayload().openStream();
+      try {
+         return ByteStreams.copy(in, ByteStreams.nullOutputStream());
+      } finally {
+         in.close();
+      }
+   }
+
+}
@@ -25,6 +25,20 @@ import org.jclouds.blobstore.BlobStoreContext;
 import org.jclouds.jdbc.config.JdbcBlobStoreContextModule;
 
 import java.net.URI;
+import java.util.Properties;
+
+import static org.jclouds.jdbc.reference.JdbcConstants.DEFAULT_CHUNK_SIZE;
+import static org.jclouds.jdbc.reference.JdbcConstants.DEFAULT_INLINE_THRESHOLD;
+import static org.jclouds.jdbc.reference.JdbcConstants.DEFAULT_READ_AHEAD_CHUNKS;
+import static org.jclouds.jdbc.reference.JdbcConstants.DEFAULT_READER_TIMEOUT;
+import static org.jclouds.jdbc.reference.JdbcConstants.DEFAULT_RECLAIM_DELAY;
+import static org.jclouds.jdbc.reference.JdbcConstants.DEFAULT_WRITE_RETRIES;
+import static org.jclouds.jdbc.reference.JdbcConstants.PROPERTY_CHUNK_SIZE;
+import static org.jclouds.jdbc.reference.JdbcConstants.PROPERTY_INLINE_THRESHOLD;
+import static org.jclouds.jdbc.reference.JdbcConstants.PROPERTY_READ_AHEAD_CHUNKS;
+import static org.jclouds.jdbc.reference.JdbcConstants.PROPERTY_READER_TIMEOUT;
+import static org.jclouds.jdbc.reference.JdbcConstants.PROPERTY_RECLAIM_DELAY;
+import static org.jclouds.jdbc.reference.JdbcConstants.PROPERTY_WRITE_RETRIES;
 
 /**
  * Implementation of {@link ApiMetadata} for jclouds Jdbc BlobStore
@@ -45,6 +59,17 @@ public class JdbcApiMetadata extends BaseApiMetadata {
       super(builder);
    }
 
+   public static Properties defaultProperties() {
+      Properties properties = BaseApiMetadata.defaultProperties();
+      properties.setProperty(PROPERTY_CHUNK_SIZE, String.valueOf(DEFAULT_CHUNK_SIZE));
+      properties.setProperty(PROPERTY_INLINE_THRESHOLD, String.valueOf(DEFAULT_INLINE_THRESHOLD));
+      properties.setProperty(PROPERTY_READ_AHEAD_CHUNKS, String.valueOf(DEFAULT_READ_AHEAD_CHUNKS));
+      properties.setProperty(PROPERTY_WRITE_RETRIES, String.valueOf(DEFAULT_WRITE_RETRIES));
+      properties.setProperty(PROPERTY_RECLAIM_DELAY, String.valueOf(DEFAULT_RECLAIM_DELAY));
+      properties.setProperty(PROPERTY_READER_TIMEOUT, String.valueOf(DEFAULT_READER_TIMEOUT));
+      return properties;
+   }
+
    public static class Builder extends BaseApiMetadata.Builder<Builder> {
 
       protected Builder() {
@@ -57,6 +82,7 @@ public class JdbcApiMetadata extends BaseApiMetadata {
          .defaultCredential("unused")
          .version("1")
          .documentation(URI.create("http://www.jclouds.org/documentation/userguide/blobstore-guide"))
+         .defaultProperties(JdbcApiMetadata.defaultProperties())
          .view(BlobStoreContext.class)
          .defaultModules(ImmutableSet.<Class<? extends Module>>of(JdbcBlobStoreContextModule.class));
       }
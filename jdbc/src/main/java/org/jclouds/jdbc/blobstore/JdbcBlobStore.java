@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.jdbc.blobstore;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.jclouds.blobstore.ContainerNotFoundException;
+import org.jclouds.blobstore.KeyNotFoundException;
+import org.jclouds.blobstore.config.LocalBlobStore;
+import org.jclouds.blobstore.domain.BlobAccess;
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
+import org.jclouds.blobstore.options.PutOptions;
+import org.jclouds.blobstore.util.ForwardingBlobStore;
+import org.jclouds.io.Payload;
+import org.jclouds.jdbc.entity.BlobEntity;
+import org.jclouds.jdbc.entity.MultipartPartEntity;
+import org.jclouds.jdbc.entity.MultipartUploadEntity;
+import org.jclouds.jdbc.predicates.validators.JdbcBlobKeyValidator;
+import org.jclouds.jdbc.predicates.validators.JdbcContainerNameValidator;
+import org.jclouds.jdbc.service.JdbcService;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Inject;
+
+/**
+ * Blob store for the jdbc api. Everything but multipart uploads is handled by {@link LocalBlobStore}; multipart
+ * uploads store each part as its own list of chunks, and completing an upload concatenates those lists instead of
+ * copying the data of the parts into a new blob.
+ */
+public class JdbcBlobStore extends ForwardingBlobStore {
+
+   private final JdbcService jdbcService;
+   private final JdbcContainerNameValidator jdbcContainerNameValidator;
+   private final JdbcBlobKeyValidator jdbcBlobKeyValidator;
+
+   @Inject
+   JdbcBlobStore(LocalBlobStore delegate, JdbcService jdbcService,
+         JdbcContainerNameValidator jdbcContainerNameValidator, JdbcBlobKeyValidator jdbcBlobKeyValidator) {
+      super(delegate);
+      this.jdbcService = jdbcService;
+      this.jdbcContainerNameValidator = jdbcContainerNameValidator;
+      this.jdbcBlobKeyValidator = jdbcBlobKeyValidator;
+   }
+
+   @Override
+   public MultipartUpload initiateMultipartUpload(String container, BlobMetadata blobMetadata, PutOptions options) {
+      jdbcContainerNameValidator.validate(container);
+      jdbcBlobKeyValidator.validate(blobMetadata.getName());
+      if (jdbcService.findContainerByName(container) == null) {
+         throw new ContainerNotFoundException(container, null);
+      }
+      BlobAccess blobAccess = options == null ? null : options.getBlobAccess();
+      MultipartUploadEntity upload = jdbcService.createMultipartUpload(container, blobMetadata, blobAccess);
+      return MultipartUpload.create(container, blobMetadata.getName(), upload.getId(), blobMetadata, options);
+   }
+
+   @Override
+   public void abortMultipartUpload(MultipartUpload mpu) {
+      jdbcService.deleteMultipartUpload(mpu.id());
+   }
+
+   @Override
+   public String completeMultipartUpload(MultipartUpload mpu, List<MultipartPart> parts) {
+      ImmutableList.Builder<Integer> partNumbers = ImmutableList.builder();
+      for (MultipartPart part : parts) {
+         partNumbers.add(part.partNumber());
+      }
+      BlobEntity blobEntity = jdbcService.completeMultipartUpload(mpu.id(), partNumbers.build());
+      if (blobEntity == null) {
+         throw uploadNotFound(mpu);
+      }
+      return blobEntity.getEtag();
+   }
+
+   @Override
+   public MultipartPart uploadMultipartPart(MultipartUpload mpu, int partNumber, Payload payload) {
+      MultipartPartEntity part;
+      try {
+         part = jdbcService.createMultipartPart(mpu.id(), partNumber, payload);
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      }
+      if (part == null) {
+         throw uploadNotFound(mpu);
+      }
+      return MultipartPart.create(part.getPartNumber(), part.getSize(), part.getEtag());
+   }
+
+   @Override
+   public List<MultipartPart> listMultipartUpload(MultipartUpload mpu) {
+      List<MultipartPartEntity> partEntities = jdbcService.findMultipartParts(mpu.id());
+      if (partEntities == null) {
+         throw uploadNotFound(mpu);
+      }
+      ImmutableList.Builder<MultipartPart> parts = ImmutableList.builder();
+      for (MultipartPartEntity part : partEntities) {
+         parts.add(MultipartPart.create(part.getPartNumber(), part.getSize(), part.getEtag()));
+      }
+      return parts.build();
+   }
+
+   @Override
+   public List<MultipartUpload> listMultipartUploads(String container) {
+      if (jdbcService.findContainerByName(container) == null) {
+         throw new ContainerNotFoundException(container, null);
+      }
+      ImmutableList.Builder<MultipartUpload> uploads = ImmutableList.builder();
+      for (MultipartUploadEntity upload : jdbcService.findMultipartUploadsByContainer(container)) {
+         uploads.add(MultipartUpload.create(container, upload.getKey(), upload.getId(), null, null));
+      }
+      return uploads.build();
+   }
+
+   @Override
+   public long getMinimumMultipartPartSize() {
+      return 1;
+   }
+
+   @Override
+   public long getMaximumMultipartPartSize() {
+      return 5L * 1024L * 1024L * 1024L;
+   }
+
+   @Override
+   public int getMaximumNumberOfParts() {
+      return 10 * 1000;
+   }
+
+   private static KeyNotFoundException uploadNotFound(MultipartUpload mpu) {
+      return new KeyNotFoundException(mpu.containerName(), mpu.blobName(), "Multipart upload " + mpu.id()
+            + " does not exist");
+   }
+
+}
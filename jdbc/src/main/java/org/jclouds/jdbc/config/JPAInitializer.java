@@ -23,10 +23,13 @@ import org.jclouds.lifecycle.Closer;
 import com.google.inject.Inject;
 import com.google.inject.persist.PersistService;
 
+/**
+ * Starts the persistence service when the context is created and stops it when the context is closed
+ */
 public class JPAInitializer {
 
    @Inject
-   private JPAInitializer(final PersistService persistService, Closer closer) {
+   protected JPAInitializer(final PersistService persistService, Closer closer) {
       persistService.start();
       closer.addToClose(new Closeable() {
          @Override
@@ -23,8 +23,8 @@ import org.jclouds.blobstore.LocalBlobRequestSigner;
 import org.jclouds.blobstore.LocalStorageStrategy;
 import org.jclouds.blobstore.attr.ConsistencyModel;
 import org.jclouds.blobstore.config.BlobStoreObjectModule;
-import org.jclouds.blobstore.config.LocalBlobStore;
 import org.jclouds.blobstore.util.BlobUtils;
+import org.jclouds.jdbc.blobstore.JdbcBlobStore;
 import org.jclouds.jdbc.strategy.JdbcStorageStrategy;
 import org.jclouds.jdbc.util.JdbcBlobUtils;
 
@@ -32,8 +32,8 @@ public class JdbcBlobStoreContextModule extends AbstractModule {
 
    @Override
    protected void configure() {
-      bind(JPAInitializer.class).asEagerSingleton();
-      bind(BlobStore.class).to(LocalBlobStore.class);
+      bindJPAInitializer();
+      bind(BlobStore.class).to(JdbcBlobStore.class);
       install(new BlobStoreObjectModule());
       bind(ConsistencyModel.class).toInstance(ConsistencyModel.STRICT);
       bind(LocalStorageStrategy.class).to(JdbcStorageStrategy.class);
@@ -41,4 +41,12 @@ public class JdbcBlobStoreContextModule extends AbstractModule {
       bind(BlobRequestSigner.class).to(LocalBlobRequestSigner.class);
    }
 
+   /**
+    * Binds the eager singleton that starts the persistence service. Providers that need to complete the persistence
+    * unit properties before it starts can bind a subclass of {@link JPAInitializer} instead.
+    */
+   protected void bindJPAInitializer() {
+      bind(JPAInitializer.class).asEagerSingleton();
+   }
+
 }
@@ -27,8 +27,15 @@ public class BlobToBlobEntity implements Function<Blob, BlobEntity> {
    @Override
    public BlobEntity apply(Blob blob) {
       MutableBlobMetadata metadata = blob.getMetadata();
-      ContentMetadata contentMetadata = metadata.getContentMetadata();
-      PayloadEntity payload = PayloadEntity.builder()
+      return BlobEntity.builder(null, null)
+            .payload(toPayloadEntity(metadata.getContentMetadata()))
+            .userMetadata(metadata.getUserMetadata())
+            .size(blob.getPayload().getContentMetadata().getContentLength())
+            .build();
+   }
+
+   public PayloadEntity toPayloadEntity(ContentMetadata contentMetadata) {
+      return PayloadEntity.builder()
             .cacheControl(contentMetadata.getCacheControl())
             .contentDisposition(contentMetadata.getContentDisposition())
             .contentEncoding(contentMetadata.getContentEncoding())
@@ -40,10 +47,5 @@ public class BlobToBlobEntity implements Function<Blob, BlobEntity> {
             .contentType(contentMetadata.getContentType())
             .expires(contentMetadata.getExpires())
             .build();
-      return BlobEntity.builder(null, null)
-            .payload(payload)
-            .userMetadata(metadata.getUserMetadata())
-            .size(blob.getPayload().getContentMetadata().getContentLength())
-            .build();
    }
 }
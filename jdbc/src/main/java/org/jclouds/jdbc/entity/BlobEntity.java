@@ -24,16 +24,22 @@ import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.Id;
 import javax.persistence.IdClass;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToOne;
 import javax.persistence.PrePersist;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import java.util.Date;
 import java.util.Map;
 
+/**
+ * A blob, identified by its container and key. The (container, key) primary key also serves the lookups and prefix
+ * scans of blob keys.
+ */
 @Entity
-@Table
+@Table(indexes = @Index(name = "blob_payload_idx", columnList = "payload_id"))
 @IdClass(value = BlobEntityPK.class)
 public class BlobEntity {
 
@@ -45,7 +51,7 @@ public class BlobEntity {
    @Id
    private String key;
 
-   @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+   @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.EAGER, orphanRemoval = true)
    private PayloadEntity payload;
 
    @ElementCollection(fetch = FetchType.EAGER)
@@ -58,6 +64,9 @@ public class BlobEntity {
    private String etag;
    private boolean directory;
 
+   @Version
+   private long version;
+
    @PrePersist
    private void defaults() {
       this.lastModified = new Date();
@@ -166,6 +175,18 @@ public class BlobEntity {
       this.etag = etag;
    }
 
+   /**
+    * Version used for optimistic locking. A blob that replaces a stored one must carry the version that was read, so
+    * that a concurrent replacement in between is detected when the transaction commits.
+    */
+   public long getVersion() {
+      return version;
+   }
+
+   public void setVersion(long version) {
+      this.version = version;
+   }
+
    public static Builder builder(ContainerEntity containerEntity, String key) {
       return new Builder(containerEntity, key);
    }
@@ -18,6 +18,7 @@ package org.jclouds.jdbc.entity;
 
 import org.jclouds.jdbc.reference.JdbcConstants;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -25,8 +26,13 @@ import javax.persistence.Id;
 import javax.persistence.Lob;
 import javax.persistence.Table;
 
+/**
+ * A chunk of blob data. Its data column is written by {@link org.jclouds.jdbc.repository.ChunkRepository} as a stream
+ * after the row is inserted, so the entity is never kept in the shared cache, which would not see that write.
+ */
 @Entity
 @Table
+@Cacheable(false)
 public class ChunkEntity {
 
    @Id
@@ -34,7 +40,7 @@ public class ChunkEntity {
    private Long id;
 
    @Lob
-   @Column(length = JdbcConstants.DEFAULT_CHUNK_SIZE)
+   @Column(length = JdbcConstants.MAX_CHUNK_SIZE)
    private byte[] data;
 
    private int size;
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.jdbc.entity;
+
+import javax.persistence.CollectionTable;
+import javax.persistence.ElementCollection;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.ManyToOne;
+import javax.persistence.PrePersist;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A part of a {@link MultipartUploadEntity}. Parts only reference their chunks, so completing an upload moves the
+ * chunk ids to the blob payload without copying any data.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "UK_PART_UPLOAD_NUMBER", columnNames = { "upload_id", "partNumber" }))
+public class MultipartPartEntity {
+
+   @Id
+   @GeneratedValue
+   private Long id;
+
+   @ManyToOne
+   private MultipartUploadEntity upload;
+
+   private int partNumber;
+
+   @ElementCollection(fetch = FetchType.EAGER)
+   @CollectionTable(indexes = @Index(name = "multipart_part_chunks_part_idx", columnList = "MultipartPartEntity_id"))
+   private List<Long> chunks;
+
+   private long size;
+   private String etag;
+   private Date lastModified;
+
+   @PrePersist
+   private void defaults() {
+      this.lastModified = new Date();
+   }
+
+   public MultipartPartEntity() {
+   }
+
+   public MultipartPartEntity(MultipartUploadEntity upload, int partNumber, List<Long> chunks, long size, String etag) {
+      this.upload = upload;
+      this.partNumber = partNumber;
+      this.chunks = chunks;
+      this.size = size;
+      this.etag = etag;
+   }
+
+   public Long getId() {
+      return id;
+   }
+
+   public void setId(Long id) {
+      this.id = id;
+   }
+
+   public MultipartUploadEntity getUpload() {
+      return upload;
+   }
+
+   public void setUpload(MultipartUploadEntity upload) {
+      this.upload = upload;
+   }
+
+   public int getPartNumber() {
+      return partNumber;
+   }
+
+   public void setPartNumber(int partNumber) {
+      this.partNumber = partNumber;
+   }
+
+   public List<Long> getChunks() {
+      return chunks;
+   }
+
+   public void setChunks(List<Long> chunks) {
+      this.chunks = chunks;
+   }
+
+   public long getSize() {
+      return size;
+   }
+
+   public void setSize(long size) {
+      this.size = size;
+   }
+
+   public String getEtag() {
+      return etag;
+   }
+
+   public void setEtag(String etag) {
+      this.etag = etag;
+   }
+
+   public Date getLastModified() {
+      return lastModified;
+   }
+
+   public void setLastModified(Date lastModified) {
+      this.lastModified = lastModified;
+   }
+
+}
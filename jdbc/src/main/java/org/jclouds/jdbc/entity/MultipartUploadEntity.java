@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.jdbc.entity;
+
+import org.jclouds.blobstore.domain.BlobAccess;
+
+import javax.persistence.CascadeType;
+import javax.persistence.ElementCollection;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToOne;
+import javax.persistence.PrePersist;
+import javax.persistence.Table;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * A multipart upload in progress. The payload holds the content metadata the completed blob will be created with.
+ */
+@Entity
+@Table(indexes = @Index(name = "multipart_upload_container_idx", columnList = "containerEntity_id"))
+public class MultipartUploadEntity {
+
+   @Id
+   private String id;
+
+   @ManyToOne
+   private ContainerEntity containerEntity;
+
+   private String key;
+
+   @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+   private PayloadEntity payload;
+
+   @ElementCollection(fetch = FetchType.EAGER)
+   private Map<String, String> userMetadata;
+
+   private BlobAccess blobAccess;
+   private Date creationDate;
+
+   @PrePersist
+   private void defaults() {
+      if (this.creationDate == null) {
+         this.creationDate = new Date();
+      }
+      if (blobAccess == null) {
+         this.blobAccess = BlobAccess.PRIVATE;
+      }
+   }
+
+   public MultipartUploadEntity() {
+   }
+
+   public MultipartUploadEntity(String id, ContainerEntity containerEntity, String key, PayloadEntity payload,
+         Map<String, String> userMetadata, BlobAccess blobAccess) {
+      this.id = id;
+      this.containerEntity = containerEntity;
+      this.key = key;
+      this.payload = payload;
+      this.userMetadata = userMetadata;
+      this.blobAccess = blobAccess;
+   }
+
+   public String getId() {
+      return id;
+   }
+
+   public void setId(String id) {
+      this.id = id;
+   }
+
+   public ContainerEntity getContainerEntity() {
+      return containerEntity;
+   }
+
+   public void setContainerEntity(ContainerEntity containerEntity) {
+      this.containerEntity = containerEntity;
+   }
+
+   public String getKey() {
+      return key;
+   }
+
+   public void setKey(String key) {
+      this.key = key;
+   }
+
+   public PayloadEntity getPayload() {
+      return payload;
+   }
+
+   public void setPayload(PayloadEntity payload) {
+      this.payload = payload;
+   }
+
+   public Map<String, String> getUserMetadata() {
+      return userMetadata;
+   }
+
+   public void setUserMetadata(Map<String, String> userMetadata) {
+      this.userMetadata = userMetadata;
+   }
+
+   public BlobAccess getBlobAccess() {
+      return blobAccess;
+   }
+
+   public void setBlobAccess(BlobAccess blobAccess) {
+      this.blobAccess = blobAccess;
+   }
+
+   public Date getCreationDate() {
+      return creationDate;
+   }
+
+   public void setCreationDate(Date creationDate) {
+      this.creationDate = creationDate;
+   }
+
+}
@@ -17,12 +17,17 @@
 package org.jclouds.jdbc.entity;
 
 import com.google.common.collect.ImmutableList;
+import org.jclouds.jdbc.reference.JdbcConstants;
 
+import javax.persistence.CollectionTable;
+import javax.persistence.Column;
 import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Lob;
 import java.util.Date;
 import java.util.List;
 
@@ -34,8 +39,16 @@ public class PayloadEntity {
    private Long id;
 
    @ElementCollection(fetch = FetchType.EAGER)
+   @CollectionTable(indexes = @Index(name = "payload_chunks_payload_idx", columnList = "PayloadEntity_id"))
    private List<Long> chunks;
 
+   /**
+    * Payload data for blobs stored inline, null when the payload is stored in chunks
+    */
+   @Lob
+   @Column(length = JdbcConstants.MAX_INLINE_THRESHOLD)
+   private byte[] data;
+
    private String cacheControl;
    private String contentType;
    private Long contentLength;
@@ -45,9 +58,10 @@ public class PayloadEntity {
    private String contentEncoding;
    private Date expires;
 
-   public PayloadEntity(List<Long> chunks, String cacheControl, String contentType, Long contentLength, byte[] contentMD5,
+   public PayloadEntity(List<Long> chunks, byte[] data, String cacheControl, String contentType, Long contentLength, byte[] contentMD5,
          String contentDisposition, String contentLanguage, String contentEncoding, Date expires) {
       this.chunks = chunks;
+      this.data = data;
       this.cacheControl = cacheControl;
       this.contentType = contentType;
       this.contentLength = contentLength;
@@ -77,6 +91,18 @@ public class PayloadEntity {
       this.chunks = chunks;
    }
 
+   public byte[] getData() {
+      return data;
+   }
+
+   public void setData(byte[] data) {
+      this.data = data;
+   }
+
+   public boolean isInline() {
+      return data != null;
+   }
+
    public String getCacheControl() {
       return cacheControl;
    }
@@ -147,6 +173,7 @@ public class PayloadEntity {
 
    public static class Builder {
       private List<Long> chunks;
+      private byte[] data;
       private String cacheControl;
       private String contentType;
       private Long contentLength;
@@ -165,6 +192,11 @@ public class PayloadEntity {
          return this;
       }
 
+      public Builder data(byte[] data) {
+         this.data = data;
+         return this;
+      }
+
       public Builder cacheControl(String cacheControl) {
          this.cacheControl = cacheControl;
          return this;
@@ -206,7 +238,7 @@ public class PayloadEntity {
       }
 
       public PayloadEntity build() {
-         return new PayloadEntity(chunks, cacheControl, contentType, contentLength, contentMD5, contentDisposition, contentLanguage, contentEncoding, expires);
+         return new PayloadEntity(chunks, data, cacheControl, contentType, contentLength, contentMD5, contentDisposition, contentLanguage, contentEncoding, expires);
       }
    }
 
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.jdbc.entity;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.util.Date;
+
+/**
+ * Marks a chunk that is no longer referenced by any payload or part. It is written in the transaction that dereferences
+ * the chunk, so chunks waiting to be deleted survive a restart.
+ */
+@Entity
+@Table
+public class ReclaimedChunkEntity {
+
+   @Id
+   private Long chunkId;
+
+   private Date reclaimedAt;
+
+   public ReclaimedChunkEntity() {
+   }
+
+   public ReclaimedChunkEntity(Long chunkId, Date reclaimedAt) {
+      this.chunkId = chunkId;
+      this.reclaimedAt = reclaimedAt;
+   }
+
+   public Long getChunkId() {
+      return chunkId;
+   }
+
+   public void setChunkId(Long chunkId) {
+      this.chunkId = chunkId;
+   }
+
+   public Date getReclaimedAt() {
+      return reclaimedAt;
+   }
+
+   public void setReclaimedAt(Date reclaimedAt) {
+      this.reclaimedAt = reclaimedAt;
+   }
+}
@@ -21,8 +21,61 @@ package org.jclouds.jdbc.reference;
  */
 public final class JdbcConstants {
 
+    /**
+     * Size in bytes of the chunks used to store blob payloads
+     */
+    public static final String PROPERTY_CHUNK_SIZE = "jclouds.jdbc.chunk-size";
+
+    /**
+     * Payloads up to this size in bytes are stored inline in the payload row instead of in chunks. Zero disables
+     * inline storage.
+     */
+    public static final String PROPERTY_INLINE_THRESHOLD = "jclouds.jdbc.inline-threshold";
+
+    /**
+     * Number of chunks fetched in the background while a payload is being read. Zero disables read-ahead.
+     */
+    public static final String PROPERTY_READ_AHEAD_CHUNKS = "jclouds.jdbc.read-ahead-chunks";
+
+    /**
+     * Number of times a blob write is retried when it conflicts with a concurrent write of the same key
+     */
+    public static final String PROPERTY_WRITE_RETRIES = "jclouds.jdbc.write-retries";
+
+    /**
+     * Minimum time in milliseconds between replacing a payload and deleting its chunks, so that blobs looked up just
+     * before can still be read
+     */
+    public static final String PROPERTY_RECLAIM_DELAY = "jclouds.jdbc.reclaim-delay";
+
+    /**
+     * Time in milliseconds after which a payload stream that was never closed no longer keeps replaced chunks from
+     * being deleted
+     */
+    public static final String PROPERTY_READER_TIMEOUT = "jclouds.jdbc.reader-timeout";
+
     public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
 
+    public static final int DEFAULT_INLINE_THRESHOLD = 4 * 1024;
+
+    public static final int DEFAULT_READ_AHEAD_CHUNKS = 2;
+
+    public static final int DEFAULT_WRITE_RETRIES = 5;
+
+    public static final long DEFAULT_RECLAIM_DELAY = 60 * 1000;
+
+    public static final long DEFAULT_READER_TIMEOUT = 60 * 60 * 1000;
+
+    /**
+     * Upper bound for {@link #PROPERTY_CHUNK_SIZE}, used as the declared length of the chunk data column
+     */
+    public static final int MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Upper bound for {@link #PROPERTY_INLINE_THRESHOLD}, used as the declared length of the inline data column
+     */
+    public static final int MAX_INLINE_THRESHOLD = 64 * 1024;
+
     private JdbcConstants() {
         throw new AssertionError("Intentionally Unimplemented");
     }
@@ -29,6 +29,8 @@ import java.util.List;
 @Singleton
 public class BlobRepository extends GenericRepository<BlobEntity, BlobEntityPK> {
 
+   private static final char LIKE_ESCAPE = '!';
+
    @Inject
    private BlobRepository(Provider<EntityManager> entityManager) {
       super(entityManager);
@@ -42,13 +44,30 @@ public class BlobRepository extends GenericRepository<BlobEntity, BlobEntityPK>
                 .getResultList();
     }
 
+   /**
+    * Finds the blobs whose key starts with the directory name. The prefix is matched with an escaped LIKE so that the
+    * query is a range scan of the (container, key) primary key, and so that wildcards in the name match literally.
+    */
    public List<BlobEntity> findBlobsByDirectory(ContainerEntity containerEntity, String directory) {
       return entityManager.get().createQuery("SELECT b FROM " + entityClass.getName() + " b "
-            + "WHERE b.containerEntity = :containerEntity AND b.key != :directoryName AND b.key LIKE :directoryLike ", entityClass)
+            + "WHERE b.containerEntity = :containerEntity AND b.key != :directoryName "
+            + "AND b.key LIKE :directoryLike ESCAPE '" + LIKE_ESCAPE + "'", entityClass)
             .setParameter("containerEntity", containerEntity)
             .setParameter("directoryName", directory)
-            .setParameter("directoryLike", directory + "%")
+            .setParameter("directoryLike", escapeLike(directory) + "%")
             .getResultList();
    }
 
+   static String escapeLike(String value) {
+      StringBuilder result = new StringBuilder(value.length());
+      for (int i = 0; i < value.length(); i++) {
+         char c = value.charAt(i);
+         if (c == LIKE_ESCAPE || c == '%' || c == '_') {
+            result.append(LIKE_ESCAPE);
+         }
+         result.append(c);
+      }
+      return result.toString();
+   }
+
 }
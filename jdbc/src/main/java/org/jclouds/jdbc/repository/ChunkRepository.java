@@ -22,6 +22,14 @@ import com.google.inject.Singleton;
 import org.jclouds.jdbc.entity.ChunkEntity;
 
 import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
 
 @Singleton
 public class ChunkRepository extends GenericRepository<ChunkEntity, Long> {
@@ -31,4 +39,68 @@ public class ChunkRepository extends GenericRepository<ChunkEntity, Long> {
       super(entityManager);
    }
 
+   private static final String UPDATE_DATA = "UPDATE ChunkEntity SET data = ? WHERE id = ?";
+
+   /**
+    * Stores the first {@code length} bytes of the buffer as a new chunk. The row is inserted without data, which is
+    * then bound as a stream on the connection of the current transaction. Neither the persistence provider nor the
+    * driver keeps a reference to the buffer, so the caller may refill it as soon as this returns.
+    */
+   public ChunkEntity createStreamed(byte[] buffer, int length) {
+      EntityManager em = entityManager.get();
+      ChunkEntity chunk = new ChunkEntity(null, length);
+      em.persist(chunk);
+      em.flush();
+      em.detach(chunk);
+      InputStream data = new ByteArrayInputStream(buffer, 0, length);
+      Connection connection = null;
+      try {
+         connection = em.unwrap(Connection.class);
+      } catch (PersistenceException e) {
+         // Hibernate only unwraps to its own session
+      }
+      if (connection == null) {
+         HibernateChunkWriter.writeData(em, chunk.getId(), data, length);
+      } else {
+         try {
+            writeData(connection, chunk.getId(), data, length);
+         } catch (SQLException e) {
+            throw new PersistenceException(e);
+         }
+      }
+      return chunk;
+   }
+
+   static void writeData(Connection connection, long id, InputStream data, int length) throws SQLException {
+      PreparedStatement statement = connection.prepareStatement(UPDATE_DATA);
+      try {
+         statement.setBinaryStream(1, data, length);
+         statement.setLong(2, id);
+         if (statement.executeUpdate() != 1) {
+            throw new SQLException("Chunk " + id + " does not exist");
+         }
+      } finally {
+         statement.close();
+      }
+   }
+
+   public List<ChunkEntity> findChunksByIds(Collection<Long> ids) {
+      return entityManager.get().createQuery("SELECT c FROM " + entityClass.getName() + " c WHERE c.id IN :ids", entityClass)
+            .setParameter("ids", ids)
+            .getResultList();
+   }
+
+   public List<Object[]> findChunkSizesByIds(Collection<Long> ids) {
+      return entityManager.get().createQuery("SELECT c.id, c.size FROM " + entityClass.getName() + " c WHERE c.id IN :ids",
+            Object[].class)
+            .setParameter("ids", ids)
+            .getResultList();
+   }
+
+   public int deleteChunksByIds(Collection<Long> ids) {
+      return entityManager.get().createQuery("DELETE FROM " + entityClass.getName() + " c WHERE c.id IN :ids")
+            .setParameter("ids", ids)
+            .executeUpdate();
+   }
+
 }
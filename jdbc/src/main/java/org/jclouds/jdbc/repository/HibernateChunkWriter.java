@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.jdbc.repository;
+
+import org.hibernate.Session;
+import org.hibernate.jdbc.Work;
+
+import javax.persistence.EntityManager;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Writes chunk data on the connection of a Hibernate session, which cannot be unwrapped from the entity manager
+ * directly. Kept apart from {@link ChunkRepository} so Hibernate classes are only loaded when Hibernate is the
+ * persistence provider.
+ */
+final class HibernateChunkWriter {
+
+   private HibernateChunkWriter() {
+   }
+
+   static void writeData(EntityManager em, final long id, final InputStream data, final int length) {
+      em.unwrap(Session.class).doWork(new Work() {
+         @Override
+         public void execute(Connection connection) throws SQLException {
+            ChunkRepository.writeData(connection, id, data, length);
+         }
+      });
+   }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.jdbc.repository;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import org.jclouds.jdbc.entity.ReclaimedChunkEntity;
+
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+@Singleton
+public class ReclaimedChunkRepository extends GenericRepository<ReclaimedChunkEntity, Long> {
+
+   @Inject
+   private ReclaimedChunkRepository(Provider<EntityManager> entityManager) {
+      super(entityManager);
+   }
+
+   /**
+    * @return the ids of at most {@code maxResults} chunks reclaimed at or before the given date, oldest first
+    */
+   public List<Long> findChunkIdsReclaimedBefore(Date date, int maxResults) {
+      return entityManager.get().createQuery("SELECT r.chunkId FROM " + entityClass.getName() + " r "
+            + "WHERE r.reclaimedAt <= :date ORDER BY r.reclaimedAt", Long.class)
+            .setParameter("date", date)
+            .setMaxResults(maxResults)
+            .getResultList();
+   }
+
+   public int deleteByChunkIds(Collection<Long> chunkIds) {
+      return entityManager.get().createQuery("DELETE FROM " + entityClass.getName() + " r WHERE r.chunkId IN :ids")
+            .setParameter("ids", chunkIds)
+            .executeUpdate();
+   }
+
+}
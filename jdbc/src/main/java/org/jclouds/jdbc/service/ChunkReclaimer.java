@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.jdbc.service;
+
+import com.google.common.collect.Multiset;
+import com.google.common.collect.TreeMultiset;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.persist.Transactional;
+import org.jclouds.Constants;
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.jdbc.entity.ReclaimedChunkEntity;
+import org.jclouds.jdbc.repository.ChunkRepository;
+import org.jclouds.jdbc.repository.ReclaimedChunkRepository;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.logging.Logger;
+
+import javax.annotation.Resource;
+import javax.inject.Named;
+import java.io.Closeable;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.jclouds.jdbc.reference.JdbcConstants.PROPERTY_READER_TIMEOUT;
+import static org.jclouds.jdbc.reference.JdbcConstants.PROPERTY_RECLAIM_DELAY;
+
+/**
+ * Deletes the chunks of payloads that are no longer referenced, in the background, so that writers do not wait for
+ * the chunks of the payload they replaced to be deleted.
+ * <p>
+ * Dereferenced chunks are recorded as {@link ReclaimedChunkEntity} rows in the transaction that dereferences them, and
+ * are deleted by a sweep that runs periodically, after a blob is written and whenever a reader ends. Chunks waiting to
+ * be deleted therefore survive a restart.
+ * <p>
+ * Payloads are read lazily, so a blob that was looked up before it was replaced may still be read from its old
+ * chunks. A chunk is only deleted once {@link org.jclouds.jdbc.reference.JdbcConstants#PROPERTY_RECLAIM_DELAY} has
+ * elapsed since it was dereferenced, and once every reader that started before that delay elapsed has ended. Readers
+ * that are never ended stop being honoured after
+ * {@link org.jclouds.jdbc.reference.JdbcConstants#PROPERTY_READER_TIMEOUT}.
+ */
+@Singleton
+public class ChunkReclaimer implements Closeable {
+
+   private static final int MAX_IDS_PER_QUERY = 1000;
+   private static final long SWEEP_INTERVAL_MILLIS = 10 * 1000;
+
+   @Resource
+   @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final ChunkRepository chunkRepository;
+   private final ReclaimedChunkRepository reclaimedChunkRepository;
+   private final ListeningExecutorService userExecutor;
+   private final long delayMillis;
+   private final long readerTimeoutMillis;
+   private final ScheduledExecutorService sweeper;
+
+   // Start times of the readers that have not ended yet
+   private final TreeMultiset<Long> readers = TreeMultiset.create();
+
+   @Inject
+   ChunkReclaimer(ChunkRepository chunkRepository, ReclaimedChunkRepository reclaimedChunkRepository,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(PROPERTY_RECLAIM_DELAY) long delayMillis, @Named(PROPERTY_READER_TIMEOUT) long readerTimeoutMillis,
+         Closer closer) {
+      checkArgument(delayMillis >= 0, "%s must not be negative, was %s", PROPERTY_RECLAIM_DELAY, delayMillis);
+      checkArgument(readerTimeoutMillis > 0, "%s must be positive, was %s", PROPERTY_READER_TIMEOUT,
+            readerTimeoutMillis);
+      this.chunkRepository = chunkRepository;
+      this.reclaimedChunkRepository = reclaimedChunkRepository;
+      this.userExecutor = userExecutor;
+      this.delayMillis = delayMillis;
+      this.readerTimeoutMillis = readerTimeoutMillis;
+      this.sweeper = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("jclouds-jdbc-chunk-reclaimer")
+            .setDaemon(true)
+            .build());
+      this.sweeper.scheduleWithFixedDelay(new Runnable() {
+         @Override
+         public void run() {
+            sweepQuietly();
+         }
+      }, SWEEP_INTERVAL_MILLIS, SWEEP_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+      closer.addToClose(this);
+   }
+
+   /**
+    * Registers a reader. Chunks dereferenced from now on, or up to the reclaim delay before, are kept until the reader
+    * ends or times out.
+    *
+    * @return the ticket to pass to {@link #endRead(long)}
+    */
+   public synchronized long beginRead() {
+      long ticket = System.currentTimeMillis();
+      readers.add(ticket);
+      return ticket;
+   }
+
+   /**
+    * Ends a reader registered with {@link #beginRead()} and deletes the chunks it was the last one to hold.
+    */
+   public void endRead(long ticket) {
+      synchronized (this) {
+         readers.remove(ticket);
+      }
+      requestSweep();
+   }
+
+   /**
+    * Records that the given chunks are no longer referenced. Must be called in the transaction that dereferences them,
+    * so that they are only deleted if that transaction commits.
+    */
+   @Transactional
+   public void reclaim(List<Long> chunkIds) {
+      if (chunkIds == null || chunkIds.isEmpty()) {
+         return;
+      }
+      Date now = new Date();
+      for (Long chunkId : chunkIds) {
+         reclaimedChunkRepository.create(new ReclaimedChunkEntity(chunkId, now));
+      }
+   }
+
+   /**
+    * Deletes, on the user executor, the reclaimed chunks that can be deleted. Should be called once a transaction that
+    * reclaimed chunks has committed.
+    */
+   public void requestSweep() {
+      userExecutor.execute(new Runnable() {
+         @Override
+         public void run() {
+            sweepQuietly();
+         }
+      });
+   }
+
+   /**
+    * Deletes the reclaimed chunks that are old enough and that no reader may still read
+    */
+   public void sweep() {
+      Date reclaimedBefore = new Date(reclaimedBefore());
+      while (deleteReclaimedChunks(reclaimedBefore) == MAX_IDS_PER_QUERY) {
+         // more chunks may be waiting
+      }
+   }
+
+   @Transactional
+   public int deleteReclaimedChunks(Date reclaimedBefore) {
+      List<Long> ids = reclaimedChunkRepository.findChunkIdsReclaimedBefore(reclaimedBefore, MAX_IDS_PER_QUERY);
+      if (!ids.isEmpty()) {
+         chunkRepository.deleteChunksByIds(ids);
+         reclaimedChunkRepository.deleteByChunkIds(ids);
+      }
+      return ids.size();
+   }
+
+   @Override
+   public void close() {
+      sweeper.shutdownNow();
+   }
+
+   private void sweepQuietly() {
+      try {
+         sweep();
+      } catch (RuntimeException e) {
+         logger.error(e, "Could not delete reclaimed chunks");
+      }
+   }
+
+   /**
+    * @return the latest time at which the chunks that can be deleted were reclaimed
+    */
+   private synchronized long reclaimedBefore() {
+      long now = System.currentTimeMillis();
+      // A stream that is never closed must not keep chunks forever
+      while (!readers.isEmpty() && readers.firstEntry().getElement() < now - readerTimeoutMillis) {
+         Multiset.Entry<Long> expired = readers.pollFirstEntry();
+         logger.warn("Ignoring %d chunk readers that started at %s and never ended", expired.getCount(),
+               new Date(expired.getElement()));
+      }
+      long reclaimedBefore = now - delayMillis;
+      if (!readers.isEmpty()) {
+         // The oldest reader may read any payload that was still referenced up to the reclaim delay before it started
+         reclaimedBefore = Math.min(reclaimedBefore, readers.firstEntry().getElement() - delayMillis - 1);
+      }
+      return reclaimedBefore;
+   }
+
+}
@@ -16,54 +16,105 @@
  */
 package org.jclouds.jdbc.service;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
 import com.google.common.hash.HashingInputStream;
 import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.persist.Transactional;
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobAccess;
+import org.jclouds.blobstore.domain.BlobMetadata;
 import org.jclouds.blobstore.domain.ContainerAccess;
+import org.jclouds.io.Payload;
 import org.jclouds.jdbc.conversion.BlobToBlobEntity;
 import org.jclouds.jdbc.entity.BlobEntity;
 import org.jclouds.jdbc.entity.BlobEntityPK;
 import org.jclouds.jdbc.entity.ChunkEntity;
 import org.jclouds.jdbc.entity.ContainerEntity;
+import org.jclouds.jdbc.entity.MultipartPartEntity;
+import org.jclouds.jdbc.entity.MultipartUploadEntity;
 import org.jclouds.jdbc.entity.PayloadEntity;
-import org.jclouds.jdbc.reference.JdbcConstants;
 import org.jclouds.jdbc.repository.BlobRepository;
 import org.jclouds.jdbc.repository.ChunkRepository;
 import org.jclouds.jdbc.repository.ContainerRepository;
+import org.jclouds.jdbc.repository.MultipartPartRepository;
+import org.jclouds.jdbc.repository.MultipartUploadRepository;
 import org.jclouds.util.Closeables2;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Arrays;
+import java.io.SequenceInputStream;
+import java.sql.SQLException;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
+import javax.inject.Named;
+import javax.persistence.EntityExistsException;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PessimisticLockException;
+
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.io.BaseEncoding.base16;
+import static org.jclouds.jdbc.reference.JdbcConstants.MAX_CHUNK_SIZE;
+import static org.jclouds.jdbc.reference.JdbcConstants.MAX_INLINE_THRESHOLD;
+import static org.jclouds.jdbc.reference.JdbcConstants.PROPERTY_CHUNK_SIZE;
+import static org.jclouds.jdbc.reference.JdbcConstants.PROPERTY_INLINE_THRESHOLD;
+import static org.jclouds.jdbc.reference.JdbcConstants.PROPERTY_WRITE_RETRIES;
 
 @Singleton
 public class JdbcService {
 
    private static final String DIRECTORY_MD5 = Hashing.md5().hashBytes(new byte[0]).toString();
+   private static final int MAX_IDS_PER_QUERY = 1000;
+   // Upper bound for the chunk list capacity derived from the declared content length, which may be wrong
+   private static final int MAX_PRESIZED_CHUNKS = 1024;
+   // unique violation, serialization failure and deadlock
+   private static final Set<String> WRITE_CONFLICT_STATES = ImmutableSet.of("23505", "40001", "40P01");
 
    private final ContainerRepository containerRepository;
    private final BlobRepository blobRepository;
    private final ChunkRepository chunkRepository;
+   private final MultipartUploadRepository multipartUploadRepository;
+   private final MultipartPartRepository multipartPartRepository;
    private final BlobToBlobEntity blobToBlobEntity;
+   private final ChunkReclaimer chunkReclaimer;
+   private final int chunkSize;
+   private final int inlineThreshold;
+   private final int writeRetries;
 
    @Inject
    JdbcService(ContainerRepository containerRepository, BlobRepository blobRepository, ChunkRepository chunkRepository,
-         BlobToBlobEntity blobToBlobEntity) {
+         MultipartUploadRepository multipartUploadRepository, MultipartPartRepository multipartPartRepository,
+         BlobToBlobEntity blobToBlobEntity, ChunkReclaimer chunkReclaimer, @Named(PROPERTY_CHUNK_SIZE) int chunkSize,
+         @Named(PROPERTY_INLINE_THRESHOLD) int inlineThreshold, @Named(PROPERTY_WRITE_RETRIES) int writeRetries) {
+      checkArgument(chunkSize > 0 && chunkSize <= MAX_CHUNK_SIZE, "%s must be between 1 and %s, was %s",
+            PROPERTY_CHUNK_SIZE, MAX_CHUNK_SIZE, chunkSize);
+      checkArgument(inlineThreshold >= 0 && inlineThreshold <= MAX_INLINE_THRESHOLD,
+            "%s must be between 0 and %s, was %s", PROPERTY_INLINE_THRESHOLD, MAX_INLINE_THRESHOLD, inlineThreshold);
+      checkArgument(writeRetries >= 0, "%s must not be negative, was %s", PROPERTY_WRITE_RETRIES, writeRetries);
       this.containerRepository = containerRepository;
       this.blobRepository = blobRepository;
       this.chunkRepository = chunkRepository;
+      this.multipartUploadRepository = multipartUploadRepository;
+      this.multipartPartRepository = multipartPartRepository;
       this.blobToBlobEntity = blobToBlobEntity;
+      this.chunkReclaimer = chunkReclaimer;
+      this.chunkSize = chunkSize;
+      this.inlineThreshold = inlineThreshold;
+      this.writeRetries = writeRetries;
    }
 
    @Transactional
@@ -103,40 +154,97 @@ public class JdbcService {
       return findBlobById(containerName, key) != null;
    }
 
-   @Transactional(rollbackOn = IOException.class)
+   /**
+    * Stores the payload in its own transaction, then makes the blob point to it in a second one. If a concurrent write
+    * of the same key commits in between, the second transaction fails on the blob version, or on the primary key if
+    * both writes inserted the blob, and is retried on top of the new version, without storing the payload again. The
+    * chunks of the replaced payload, or of the new payload if the blob cannot be written, are reclaimed in the
+    * background.
+    */
    public BlobEntity createOrModifyBlob(String containerName, Blob blob, BlobAccess blobAccess) throws IOException {
-      List<Long> chunks;
-      HashingInputStream his = new HashingInputStream(Hashing.md5(), blob.getPayload().openStream());
+      PayloadEntity payload = storePayload(blob.getPayload());
+      BlobEntity blobEntity;
+      for (int attempt = 0; ; attempt++) {
+         // A failed attempt may have persisted its entities before rolling back, so every attempt starts afresh
+         blobEntity = toBlobEntity(blob, blobAccess, payload);
+         try {
+            replaceBlob(containerName, blobEntity);
+            break;
+         } catch (RuntimeException e) {
+            if (attempt < writeRetries && isWriteConflict(e)) {
+               continue;
+            }
+            chunkReclaimer.reclaim(payload.getChunks());
+            throw e;
+         }
+      }
+      chunkReclaimer.requestSweep();
+      return blobEntity;
+   }
+
+   private BlobEntity toBlobEntity(Blob blob, BlobAccess blobAccess, PayloadEntity payload) {
+      BlobEntity blobEntity = blobToBlobEntity.apply(blob);
+      blobEntity.getPayload().setChunks(payload.getChunks());
+      blobEntity.getPayload().setData(payload.getData());
+      blobEntity.getPayload().setContentMD5(payload.getContentMD5());
+      blobEntity.setKey(blob.getMetadata().getName());
+      blobEntity.setBlobAccess(blobAccess);
+      blobEntity.setEtag(base16().lowerCase().encode(payload.getContentMD5()));
+      return blobEntity;
+   }
+
+   /**
+    * Reads the payload into chunks, or into the payload row if it is small enough, and checks its MD5
+    *
+    * @return an unsaved payload holding the chunks, the inline data and the MD5 of the data
+    */
+   @Transactional(rollbackOn = IOException.class)
+   public PayloadEntity storePayload(Payload payload) throws IOException {
+      List<Long> chunks = ImmutableList.of();
+      byte[] inlineData = null;
+      Long contentLength = payload.getContentMetadata().getContentLength();
+      HashingInputStream his = new HashingInputStream(Hashing.md5(), payload.openStream());
       try {
-         chunks = storeData(his);
+         if (inlineThreshold > 0 && contentLength != null && contentLength <= inlineThreshold) {
+            inlineData = ByteStreams.toByteArray(ByteStreams.limit(his, inlineThreshold + 1));
+            if (inlineData.length > inlineThreshold) {
+               // The declared length was too small, store the data in chunks instead
+               chunks = storeData(new SequenceInputStream(new ByteArrayInputStream(inlineData), his), contentLength);
+               inlineData = null;
+            }
+         } else {
+            chunks = storeData(his, contentLength);
+         }
       } finally {
          Closeables2.closeQuietly(his);
       }
       HashCode actualHashCode = his.hash();
-      HashCode expectedHashCode = blob.getPayload().getContentMetadata().getContentMD5AsHashCode();
+      HashCode expectedHashCode = payload.getContentMetadata().getContentMD5AsHashCode();
       if (expectedHashCode != null && !actualHashCode.equals(expectedHashCode)) {
          throw new IOException("MD5 hash code mismatch, actual: " + actualHashCode +
                " expected: " + expectedHashCode);
       }
+      return PayloadEntity.builder()
+            .chunks(chunks)
+            .data(inlineData)
+            .contentMD5(actualHashCode.asBytes())
+            .build();
+   }
 
-      String key = blob.getMetadata().getName();
-      Date creationDate = null;
-      BlobEntity oldBlobEntity = findBlobById(containerName, key);
-      if (oldBlobEntity != null) {
-         creationDate = oldBlobEntity.getCreationDate();
-      }
-      BlobEntity blobEntity = blobToBlobEntity.apply(blob);
-      blobEntity.getPayload().setChunks(chunks);
+   /**
+    * Saves the blob over the stored blob with the same key, or inserts it if there is none, and reclaims the chunks of
+    * the replaced payload
+    */
+   @Transactional
+   public void replaceBlob(String containerName, BlobEntity blobEntity) {
       blobEntity.setContainerEntity(containerRepository.findContainerByName(containerName));
-      blobEntity.setKey(key);
-      blobEntity.setBlobAccess(blobAccess);
-      blobEntity.setCreationDate(creationDate);
+      blobEntity.setCreationDate(null);
+      blobEntity.setVersion(0);
       blobEntity.setLastModified(new Date());
-      blobEntity.setEtag(base16().lowerCase().encode(actualHashCode.asBytes()));
-      blobEntity.getPayload().setContentMD5(actualHashCode.asBytes());
-
-      BlobEntity result = blobRepository.save(blobEntity);
-      return result;
+      BlobEntity oldBlobEntity = supersede(blobEntity);
+      // Merging copies the new state onto the stored blob, so read its chunks first
+      chunkReclaimer.reclaim(chunksOf(oldBlobEntity));
+      save(blobEntity, oldBlobEntity);
    }
 
    @Transactional
@@ -150,7 +258,9 @@ public class JdbcService {
       blobEntity.setKey(blob.getMetadata().getName());
       blobEntity.setBlobAccess(blobAccess);
       blobEntity.setEtag(DIRECTORY_MD5);
-      return blobRepository.save(blobEntity);
+      BlobEntity oldBlobEntity = supersede(blobEntity);
+      chunkReclaimer.reclaim(chunksOf(oldBlobEntity));
+      return save(blobEntity, oldBlobEntity);
    }
 
    @Transactional
@@ -158,7 +268,6 @@ public class JdbcService {
       return createDirectoryBlob(containerName, blob, null);
    }
 
-   @Transactional(rollbackOn = IOException.class)
    public BlobEntity createOrModifyBlob(String containerName, Blob blob) throws IOException {
       return createOrModifyBlob(containerName, blob, null);
    }
@@ -169,11 +278,62 @@ public class JdbcService {
       return containerEntity == null ? null : blobRepository.find(new BlobEntityPK(containerEntity.getId(), key));
    }
 
+   /**
+    * Registers a reader of chunks, so that replaced chunks it may still read are not deleted until
+    * {@link #endRead(long)} is called with the returned ticket
+    */
+   public long beginRead() {
+      return chunkReclaimer.beginRead();
+   }
+
+   public void endRead(long ticket) {
+      chunkReclaimer.endRead(ticket);
+   }
+
    @Transactional
    public ChunkEntity findChunkById(Long id) {
       return chunkRepository.find(id);
    }
 
+   /**
+    * Loads several chunks in a single query
+    *
+    * @return the chunks in the same order as the given ids
+    * @throws IOException if any of the chunks does not exist
+    */
+   @Transactional
+   public List<ChunkEntity> findChunksByIds(List<Long> ids) throws IOException {
+      Map<Long, ChunkEntity> chunksById = Maps.newHashMap();
+      for (List<Long> partition : Lists.partition(ids, MAX_IDS_PER_QUERY)) {
+         for (ChunkEntity chunk : chunkRepository.findChunksByIds(partition)) {
+            chunksById.put(chunk.getId(), chunk);
+         }
+      }
+      ImmutableList.Builder<ChunkEntity> result = ImmutableList.builder();
+      for (Long id : ids) {
+         ChunkEntity chunk = chunksById.get(id);
+         if (chunk == null) {
+            throw new IOException("Could not find chunk " + id);
+         }
+         result.add(chunk);
+      }
+      return result.build();
+   }
+
+   /**
+    * Loads the sizes of several chunks without loading their data
+    */
+   @Transactional
+   public Map<Long, Integer> findChunkSizesByIds(List<Long> ids) {
+      Map<Long, Integer> result = Maps.newHashMap();
+      for (List<Long> partition : Lists.partition(ids, MAX_IDS_PER_QUERY)) {
+         for (Object[] row : chunkRepository.findChunkSizesByIds(partition)) {
+            result.put((Long) row[0], (Integer) row[1]);
+         }
+      }
+      return result;
+   }
+
    @Transactional
    public List<BlobEntity> findBlobsByContainer(String containerName) {
       return blobRepository.findBlobsByContainer(containerRepository.findContainerByName(containerName));
@@ -223,7 +383,7 @@ public class JdbcService {
    public void deleteBlob(String containerName, String key) {
       BlobEntity blobEntity = findBlobById(containerName, key);
       if (blobEntity != null) {
-         deleteChunks(blobEntity.getPayload().getChunks());
+         chunkReclaimer.reclaim(blobEntity.getPayload().getChunks());
          blobRepository.delete(blobEntity);
       }
    }
@@ -236,25 +396,212 @@ public class JdbcService {
    }
 
    @Transactional
-   private void deleteChunks(List<Long> chunkIds) {
-      for (Long chunkId : chunkIds) {
-         chunkRepository.delete(chunkRepository.find(chunkId));
-      }
+   public MultipartUploadEntity createMultipartUpload(String containerName, BlobMetadata blobMetadata,
+         BlobAccess blobAccess) {
+      MultipartUploadEntity upload = new MultipartUploadEntity(UUID.randomUUID().toString(),
+            containerRepository.findContainerByName(containerName), blobMetadata.getName(),
+            blobToBlobEntity.toPayloadEntity(blobMetadata.getContentMetadata()), blobMetadata.getUserMetadata(),
+            blobAccess);
+      return multipartUploadRepository.create(upload);
    }
 
+   @Transactional
+   public List<MultipartUploadEntity> findMultipartUploadsByContainer(String containerName) {
+      return multipartUploadRepository.findUploadsByContainer(containerRepository.findContainerByName(containerName));
+   }
+
+   @Transactional
+   public List<MultipartPartEntity> findMultipartParts(String uploadId) {
+      MultipartUploadEntity upload = multipartUploadRepository.find(uploadId);
+      return upload == null ? null : multipartPartRepository.findPartsByUpload(upload);
+   }
+
+   /**
+    * Stores the data of a part in its own transaction, replacing any previous upload of the same part number.
+    *
+    * @return the stored part, or null if the upload does not exist
+    */
    @Transactional(rollbackOn = IOException.class)
-   private List<Long> storeData(InputStream data) throws IOException {
+   public MultipartPartEntity createMultipartPart(String uploadId, int partNumber, Payload payload) throws IOException {
+      MultipartUploadEntity upload = multipartUploadRepository.find(uploadId);
+      if (upload == null) {
+         return null;
+      }
+      List<Long> chunks;
+      HashingInputStream his = new HashingInputStream(Hashing.md5(), payload.openStream());
+      CountingInputStream cis = new CountingInputStream(his);
+      try {
+         chunks = storeData(cis, payload.getContentMetadata().getContentLength());
+      } finally {
+         Closeables2.closeQuietly(cis);
+      }
+      HashCode actualHashCode = his.hash();
+      HashCode expectedHashCode = payload.getContentMetadata().getContentMD5AsHashCode();
+      if (expectedHashCode != null && !actualHashCode.equals(expectedHashCode)) {
+         throw new IOException("MD5 hash code mismatch, actual: " + actualHashCode +
+               " expected: " + expectedHashCode);
+      }
+
+      MultipartPartEntity oldPart = multipartPartRepository.findPart(upload, partNumber);
+      if (oldPart != null) {
+         chunkReclaimer.reclaim(oldPart.getChunks());
+         multipartPartRepository.delete(oldPart);
+      }
+      return multipartPartRepository.create(new MultipartPartEntity(upload, partNumber, chunks, cis.getCount(),
+            base16().lowerCase().encode(actualHashCode.asBytes())));
+   }
+
+   /**
+    * Creates the blob of an upload by concatenating the chunk lists of the given parts. Parts that are not listed are
+    * discarded.
+    *
+    * @return the created blob, or null if the upload does not exist
+    * @throws IllegalArgumentException if one of the part numbers was not uploaded
+    */
+   @Transactional
+   public BlobEntity completeMultipartUpload(String uploadId, List<Integer> partNumbers) {
+      MultipartUploadEntity upload = multipartUploadRepository.find(uploadId);
+      if (upload == null) {
+         return null;
+      }
+      Map<Integer, MultipartPartEntity> partsByNumber = Maps.newHashMap();
+      for (MultipartPartEntity part : multipartPartRepository.findPartsByUpload(upload)) {
+         partsByNumber.put(part.getPartNumber(), part);
+      }
+
       ImmutableList.Builder<Long> chunks = ImmutableList.builder();
+      Hasher md5 = Hashing.md5().newHasher();
+      long size = 0;
+      for (Integer partNumber : partNumbers) {
+         MultipartPartEntity part = partsByNumber.remove(partNumber);
+         checkArgument(part != null, "Part %s of upload %s does not exist", partNumber, uploadId);
+         chunks.addAll(part.getChunks());
+         md5.putBytes(base16().lowerCase().decode(part.getEtag()));
+         size += part.getSize();
+         multipartPartRepository.delete(part);
+      }
+      for (MultipartPartEntity part : partsByNumber.values()) {
+         chunkReclaimer.reclaim(part.getChunks());
+         multipartPartRepository.delete(part);
+      }
+
+      PayloadEntity uploadPayload = upload.getPayload();
+      PayloadEntity payload = PayloadEntity.builder()
+            .chunks(chunks.build())
+            .cacheControl(uploadPayload.getCacheControl())
+            .contentDisposition(uploadPayload.getContentDisposition())
+            .contentEncoding(uploadPayload.getContentEncoding())
+            .contentLanguage(uploadPayload.getContentLanguage())
+            .contentLength(size)
+            .contentType(uploadPayload.getContentType())
+            .expires(uploadPayload.getExpires())
+            .build();
+
+      BlobEntity blobEntity = BlobEntity.builder(upload.getContainerEntity(), upload.getKey())
+            .payload(payload)
+            .userMetadata(upload.getUserMetadata() == null ? null : Maps.newHashMap(upload.getUserMetadata()))
+            .blobAccess(upload.getBlobAccess())
+            .size(size)
+            .etag(md5.hash() + "-" + partNumbers.size())
+            .build();
+      blobEntity.setLastModified(new Date());
+      BlobEntity oldBlobEntity = supersede(blobEntity);
+      chunkReclaimer.reclaim(chunksOf(oldBlobEntity));
+
+      multipartUploadRepository.delete(upload);
+      return save(blobEntity, oldBlobEntity);
+   }
+
+   @Transactional
+   public void deleteMultipartUpload(String uploadId) {
+      MultipartUploadEntity upload = multipartUploadRepository.find(uploadId);
+      if (upload != null) {
+         for (MultipartPartEntity part : multipartPartRepository.findPartsByUpload(upload)) {
+            chunkReclaimer.reclaim(part.getChunks());
+            multipartPartRepository.delete(part);
+         }
+         multipartUploadRepository.delete(upload);
+      }
+   }
+
+   @Transactional
+   public void deleteMultipartUploadsByContainer(String containerName) {
+      for (MultipartUploadEntity upload : findMultipartUploadsByContainer(containerName)) {
+         deleteMultipartUpload(upload.getId());
+      }
+   }
+
+   /**
+    * Gives the blob the version and creation date of the stored blob with the same key, so that saving it replaces
+    * that version and fails if another write replaced it first.
+    *
+    * @return the stored blob, or null if there is none
+    */
+   private BlobEntity supersede(BlobEntity blobEntity) {
+      BlobEntity oldBlobEntity = blobRepository.find(new BlobEntityPK(blobEntity.getContainerEntity().getId(),
+            blobEntity.getKey()));
+      if (oldBlobEntity != null) {
+         blobEntity.setVersion(oldBlobEntity.getVersion());
+         blobEntity.setCreationDate(oldBlobEntity.getCreationDate());
+      }
+      return oldBlobEntity;
+   }
+
+   /**
+    * Merges the blob over the stored blob, or inserts it if there was none so that it fails on the primary key if a
+    * concurrent write inserted the same key first.
+    */
+   private BlobEntity save(BlobEntity blobEntity, BlobEntity oldBlobEntity) {
+      return oldBlobEntity == null ? blobRepository.create(blobEntity) : blobRepository.save(blobEntity);
+   }
+
+   private static List<Long> chunksOf(BlobEntity blobEntity) {
+      if (blobEntity == null || blobEntity.getPayload() == null || blobEntity.getPayload().getChunks() == null) {
+         return ImmutableList.of();
+      }
+      return ImmutableList.copyOf(blobEntity.getPayload().getChunks());
+   }
+
+   /**
+    * Whether the failure was caused by another transaction writing the same blob: a stale version, a duplicate key
+    * when both writers inserted the blob, or a serialization failure or deadlock reported by the database. Other
+    * integrity violations, such as a missing container, are not retried.
+    */
+   private static boolean isWriteConflict(RuntimeException e) {
+      for (Throwable cause : Throwables.getCausalChain(e)) {
+         if (cause instanceof OptimisticLockException || cause instanceof EntityExistsException
+               || cause instanceof PessimisticLockException) {
+            return true;
+         }
+         if (cause instanceof SQLException && WRITE_CONFLICT_STATES.contains(((SQLException) cause).getSQLState())) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Splits the data into chunks of the configured size. A single buffer is reused for every chunk: the chunk is
+    * streamed from it into its own row and detached from the persistence context, so neither the buffer nor the stored
+    * data are held until the transaction commits. The content length is only a hint used to size the list of chunk
+    * ids: the data is read until the end of the stream.
+    */
+   @Transactional(rollbackOn = IOException.class)
+   private List<Long> storeData(InputStream data, Long contentLength) throws IOException {
+      List<Long> chunks = contentLength == null || contentLength <= 0 ?
+            Lists.<Long>newArrayList() :
+            Lists.<Long>newArrayListWithCapacity((int) Math.min(contentLength / chunkSize + 1, MAX_PRESIZED_CHUNKS));
+      byte[] buffer = new byte[chunkSize];
       while (true) {
-         byte[] buffer = new byte[JdbcConstants.DEFAULT_CHUNK_SIZE];
-         int bytes = ByteStreams.read(data, buffer, 0, JdbcConstants.DEFAULT_CHUNK_SIZE);
+         int bytes = ByteStreams.read(data, buffer, 0, buffer.length);
          if (bytes == 0) {
             break;
-         } else if (bytes != buffer.length) {
-            buffer = Arrays.copyOf(buffer, bytes);
          }
-         chunks.add(chunkRepository.create(new ChunkEntity(buffer, bytes)).getId());
+         chunks.add(chunkRepository.createStreamed(buffer, bytes).getId());
+         if (bytes < buffer.length) {
+            break;
+         }
       }
-      return chunks.build();
+      return chunks;
    }
 }
@@ -156,13 +156,14 @@ public class JdbcStorageStrategy implements LocalStorageStrategy {
    }
 
    /**
-    * Deletes a container and all the blobs in it
+    * Deletes a container, all the blobs in it and its pending multipart uploads
     *
     * @param container the name of the container to delete
     */
    @Override
    public void deleteContainer(String container) {
       jdbcContainerNameValidator.validate(container);
+      jdbcService.deleteMultipartUploadsByContainer(container);
       jdbcService.deleteBlobsByContainer(container);
       jdbcService.deleteContainerByName(container);
    }
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.jdbc.util;
+
+import org.jclouds.jdbc.service.JdbcService;
+
+import com.google.common.io.ByteSource;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A {@link ByteSource} over the chunks of a payload. Slices open a {@link JdbcInputStream} positioned at the first
+ * chunk of the requested range, so ranged reads do not load the chunks before it.
+ */
+public class JdbcByteSource extends ByteSource {
+
+   private final JdbcService jdbcService;
+   private final List<Long> chunks;
+   private final Long size;
+   private final ListeningExecutorService executor;
+   private final int readAhead;
+
+   public JdbcByteSource(JdbcService jdbcService, List<Long> chunks, Long size, ListeningExecutorService executor,
+         int readAhead) {
+      this.jdbcService = checkNotNull(jdbcService, "jdbcService");
+      this.chunks = checkNotNull(chunks, "chunks");
+      this.size = size;
+      this.executor = executor;
+      this.readAhead = readAhead;
+   }
+
+   @Override
+   public InputStream openStream() {
+      return openStream(0);
+   }
+
+   @Override
+   public long size() throws IOException {
+      return size != null ? size : super.size();
+   }
+
+   @Override
+   public ByteSource slice(final long offset, final long length) {
+      checkArgument(offset >= 0, "offset (%s) may not be negative", offset);
+      checkArgument(length >= 0, "length (%s) may not be negative", length);
+      return new ByteSource() {
+         @Override
+         public InputStream openStream() {
+            return ByteStreams.limit(JdbcByteSource.this.openStream(offset), length);
+         }
+
+         @Override
+         public long size() throws IOException {
+            return Math.max(0, Math.min(length, JdbcByteSource.this.size() - offset));
+         }
+      };
+   }
+
+   private InputStream openStream(long offset) {
+      return new JdbcInputStream(jdbcService, chunks, offset, executor, readAhead);
+   }
+
+}
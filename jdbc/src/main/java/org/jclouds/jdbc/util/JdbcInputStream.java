@@ -19,36 +19,86 @@ package org.jclouds.jdbc.util;
 import org.jclouds.jdbc.entity.ChunkEntity;
 import org.jclouds.jdbc.service.JdbcService;
 
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
 
+/**
+ * Reads the chunks of a payload in order. Chunks are loaded lazily, starting from the chunk containing the requested
+ * offset, and when an executor is given the next chunks are fetched in the background while the current ones are
+ * being read.
+ * <p>
+ * The stream registers itself as a reader with the {@link JdbcService} until it is closed or fully read, so that the
+ * chunks are not reclaimed while it reads them, even if the blob is replaced in the meantime.
+ */
 public class JdbcInputStream extends InputStream {
 
-   private JdbcService jdbcService;
+   private final JdbcService jdbcService;
+   private final ListeningExecutorService executor;
+   private final int readAhead;
 
    private final List<Long> chunks;
+   private final LinkedList<ChunkEntity> buffered = new LinkedList<ChunkEntity>();
+   private ListenableFuture<List<ChunkEntity>> pending;
+   private Map<Long, Integer> chunkSizes;
+   private int nextChunk;
    private ChunkEntity currentChunk;
    private int bytesRead;
+   private final long readTicket;
+   private boolean readEnded;
 
    public JdbcInputStream(JdbcService jdbcService, List<Long> chunks) {
+      this(jdbcService, chunks, 0, null, 0);
+   }
+
+   /**
+    * @param offset the position in the payload to start reading from
+    * @param executor the executor used to read ahead, or null to load chunks synchronously
+    * @param readAhead the number of chunks to fetch in the background
+    */
+   public JdbcInputStream(JdbcService jdbcService, List<Long> chunks, long offset, ListeningExecutorService executor,
+         int readAhead) {
+      checkArgument(offset >= 0, "offset must be positive: %s", offset);
+      checkArgument(readAhead >= 0, "readAhead must be positive: %s", readAhead);
       this.jdbcService = checkNotNull(jdbcService, "jdbcService");
       // Need to remove duplicates due to https://hibernate.atlassian.net/browse/HHH-6783
       this.chunks = new ArrayList<Long>(new LinkedHashSet<Long>(checkNotNull(chunks, "chunks")));
+      this.executor = executor;
+      this.readAhead = readAhead;
+      this.readTicket = jdbcService.beginRead();
       try {
+         long skipped = offset > 0 ? skipUnreadChunks(offset) : 0;
          readNextChunk();
+         if (currentChunk != null) {
+            bytesRead = (int) Math.min(offset - skipped, currentChunk.getSize());
+         }
       } catch (IOException e) {
+         endRead();
          throw new IllegalArgumentException(e);
+      } catch (RuntimeException e) {
+         endRead();
+         throw e;
       }
    }
 
    @Override
    public synchronized int read() throws IOException {
       if (hasFinished()) {
+         endRead();
          return -1;
       }
       int b = currentChunk.getData()[bytesRead] & 0xff;
@@ -59,18 +109,153 @@ public class JdbcInputStream extends InputStream {
       return b;
    }
 
+   @Override
+   public synchronized int read(byte[] b, int off, int len) throws IOException {
+      checkPositionIndexes(off, off + len, b.length);
+      if (len == 0) {
+         return 0;
+      }
+      if (hasFinished()) {
+         endRead();
+         return -1;
+      }
+      int n = Math.min(len, currentChunk.getSize() - bytesRead);
+      System.arraycopy(currentChunk.getData(), bytesRead, b, off, n);
+      bytesRead = bytesRead + n;
+      if (bytesRead >= currentChunk.getSize()) {
+         readNextChunk();
+      }
+      return n;
+   }
+
+   /**
+    * Skips whole chunks that have not been loaded yet by looking at their sizes only, so seeking forward does not
+    * read the skipped data from the database.
+    */
+   @Override
+   public synchronized long skip(long n) throws IOException {
+      long skipped = 0;
+      while (skipped < n && !hasFinished()) {
+         int available = currentChunk.getSize() - bytesRead;
+         if (n - skipped < available) {
+            bytesRead = bytesRead + (int) (n - skipped);
+            return n;
+         }
+         skipped += available;
+         bytesRead = currentChunk.getSize();
+         if (buffered.isEmpty() && pending == null) {
+            skipped += skipUnreadChunks(n - skipped);
+         }
+         readNextChunk();
+      }
+      return skipped;
+   }
+
+   @Override
+   public synchronized int available() {
+      return hasFinished() ? 0 : currentChunk.getSize() - bytesRead;
+   }
+
+   @Override
+   public synchronized void close() {
+      if (pending != null) {
+         pending.cancel(false);
+         pending = null;
+      }
+      buffered.clear();
+      nextChunk = chunks.size();
+      currentChunk = null;
+      endRead();
+   }
+
+   private void endRead() {
+      if (!readEnded) {
+         readEnded = true;
+         jdbcService.endRead(readTicket);
+      }
+   }
+
    private boolean hasFinished() {
-      return currentChunk == null || (chunks.size() == 0 && bytesRead >= currentChunk.getSize());
+      return currentChunk == null
+            || (nextChunk >= chunks.size() && buffered.isEmpty() && pending == null
+                  && bytesRead >= currentChunk.getSize());
    }
 
    private void readNextChunk() throws IOException {
-      if (chunks.size() > 0) {
-         this.currentChunk = jdbcService.findChunkById(chunks.get(0));
-         if (currentChunk == null) {
+      if (buffered.isEmpty() && pending != null) {
+         buffered.addAll(await(pending));
+         pending = null;
+      }
+      if (buffered.isEmpty() && nextChunk < chunks.size()) {
+         ChunkEntity chunk = jdbcService.findChunkById(chunks.get(nextChunk));
+         if (chunk == null) {
             throw new IOException("Could not find chunk.");
          }
-         chunks.remove(0);
+         nextChunk++;
+         buffered.add(chunk);
+      }
+      if (!buffered.isEmpty()) {
+         this.currentChunk = buffered.removeFirst();
          this.bytesRead = 0;
+         readAhead();
+      }
+   }
+
+   /**
+    * Starts fetching the next chunks once the buffered ones have been handed out.
+    */
+   private void readAhead() {
+      if (executor == null || readAhead == 0 || pending != null || !buffered.isEmpty() || nextChunk >= chunks.size()) {
+         return;
+      }
+      int end = Math.min(nextChunk + readAhead, chunks.size());
+      final List<Long> ids = new ArrayList<Long>(chunks.subList(nextChunk, end));
+      nextChunk = end;
+      pending = executor.submit(new Callable<List<ChunkEntity>>() {
+         @Override
+         public List<ChunkEntity> call() throws IOException {
+            return jdbcService.findChunksByIds(ids);
+         }
+      });
+   }
+
+   /**
+    * Advances past the unread chunks that fit entirely in the given number of bytes.
+    *
+    * @return the number of bytes skipped
+    */
+   private long skipUnreadChunks(long n) throws IOException {
+      if (chunkSizes == null) {
+         chunkSizes = nextChunk < chunks.size() ?
+               jdbcService.findChunkSizesByIds(chunks.subList(nextChunk, chunks.size())) :
+               Collections.<Long, Integer>emptyMap();
+      }
+      long skipped = 0;
+      while (nextChunk < chunks.size()) {
+         Integer size = chunkSizes.get(chunks.get(nextChunk));
+         if (size == null) {
+            throw new IOException("Could not find chunk.");
+         }
+         if (skipped + size > n) {
+            break;
+         }
+         skipped += size;
+         nextChunk++;
+      }
+      return skipped;
+   }
+
+   private static List<ChunkEntity> await(ListenableFuture<List<ChunkEntity>> future) throws IOException {
+      try {
+         return future.get();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new IOException("Interrupted while reading chunks", e);
+      } catch (ExecutionException e) {
+         if (e.getCause() instanceof IOException) {
+            throw (IOException) e.getCause();
+         }
+         throw new IOException("Could not read chunks", e.getCause());
       }
    }
 
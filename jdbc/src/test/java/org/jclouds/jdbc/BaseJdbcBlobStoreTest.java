@@ -30,13 +30,18 @@ import org.jclouds.blobstore.BlobStoreContext;
 import org.jclouds.blobstore.ContainerNotFoundException;
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
 import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.domain.StorageMetadata;
 import org.jclouds.blobstore.domain.StorageType;
 import org.jclouds.blobstore.options.GetOptions;
 import org.jclouds.blobstore.options.ListContainerOptions;
+import org.jclouds.blobstore.options.PutOptions;
 import org.jclouds.http.HttpRequest;
+import org.jclouds.io.ByteStreams2;
 import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
 import org.jclouds.io.payloads.PhantomPayload;
 import org.jclouds.io.payloads.StringPayload;
 import org.jclouds.util.Closeables2;
@@ -47,6 +52,7 @@ import org.testng.annotations.Test;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -54,6 +60,7 @@ import java.util.UUID;
 
 import static com.google.common.io.BaseEncoding.base16;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.jclouds.jdbc.reference.JdbcConstants.DEFAULT_CHUNK_SIZE;
 import static org.jclouds.utils.TestUtils.randomByteSource;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
@@ -208,6 +215,20 @@ public abstract class BaseJdbcBlobStoreTest {
       checkForContainerContent(CONTAINER_NAME, "rrr/", blobsExpected);
    }
 
+   @Test
+   public void testListSubdirectoryWithWildcards() throws IOException {
+      blobStore.createContainerInLocation(null, CONTAINER_NAME);
+      checkForContainerContent(CONTAINER_NAME, null);
+
+      createBlobInContainer(CONTAINER_NAME, "rxr/1.jpg");
+      createBlobInContainer(CONTAINER_NAME, "r%r!/2.jpg");
+
+      List<String> blobsExpected = Lists.newArrayList();
+      blobsExpected.add(createBlobInContainer(CONTAINER_NAME, "r_r/3.jpg"));
+
+      checkForContainerContent(CONTAINER_NAME, "r_r", blobsExpected);
+   }
+
    @Test
    public void testClearContainerNotExistingContainer() {
       blobStore.clearContainer(CONTAINER_NAME);
@@ -620,6 +641,67 @@ public abstract class BaseJdbcBlobStoreTest {
       }
    }
 
+   @Test
+   public void testRangesAcrossChunks() throws IOException {
+      blobStore.createContainerInLocation(null, CONTAINER_NAME);
+      int chunk = DEFAULT_CHUNK_SIZE;
+      byte[] input = randomByteSource().slice(0, 3 * chunk + 1000).read();
+      blobStore.putBlob(CONTAINER_NAME, blobStore.blobBuilder(BLOB_NAME).payload(input).build());
+
+      // within a chunk, across one boundary, across a whole chunk, and exactly one chunk
+      assertRange(input, new GetOptions().range(10, 20), 10, 21);
+      assertRange(input, new GetOptions().range(chunk - 10, chunk + 9), chunk - 10, chunk + 10);
+      assertRange(input, new GetOptions().range(chunk - 1, 2 * chunk), chunk - 1, 2 * chunk + 1);
+      assertRange(input, new GetOptions().range(chunk, 2 * chunk - 1), chunk, 2 * chunk);
+      // open ended ranges starting in the middle of a chunk and reaching back over the last boundary
+      assertRange(input, new GetOptions().startAt(2 * chunk + 5), 2 * chunk + 5, input.length);
+      assertRange(input, new GetOptions().tail(1500), input.length - 1500, input.length);
+   }
+
+   private void assertRange(byte[] input, GetOptions options, int from, int to) throws IOException {
+      Blob blob = blobStore.getBlob(CONTAINER_NAME, BLOB_NAME, options);
+      assertThat(ByteStreams2.toByteArrayAndClose(blob.getPayload().openStream()))
+            .isEqualTo(Arrays.copyOfRange(input, from, to));
+   }
+
+   @Test
+   public void testMultipartUpload() throws IOException {
+      blobStore.createContainerInLocation(null, CONTAINER_NAME);
+      ByteSource part1 = randomByteSource().slice(0, 3 * 1024 * 1024);
+      ByteSource part2 = randomByteSource().slice(0, 1024);
+      BlobMetadata blobMetadata = blobStore.blobBuilder(BLOB_NAME).payload(ByteSource.empty())
+            .contentType("application/octet-stream").build().getMetadata();
+      MultipartUpload mpu = blobStore.initiateMultipartUpload(CONTAINER_NAME, blobMetadata, PutOptions.NONE);
+      assertThat(blobStore.listMultipartUploads(CONTAINER_NAME)).hasSize(1);
+
+      // parts are uploaded out of order and the first one twice
+      MultipartPart uploadedPart2 = blobStore.uploadMultipartPart(mpu, 2, Payloads.newByteSourcePayload(part2));
+      blobStore.uploadMultipartPart(mpu, 1, Payloads.newByteSourcePayload(part2));
+      MultipartPart uploadedPart1 = blobStore.uploadMultipartPart(mpu, 1, Payloads.newByteSourcePayload(part1));
+      assertThat(blobStore.listMultipartUpload(mpu)).hasSize(2);
+
+      String etag = blobStore.completeMultipartUpload(mpu, ImmutableList.of(uploadedPart1, uploadedPart2));
+      assertThat(etag).endsWith("-2");
+      assertThat(blobStore.listMultipartUploads(CONTAINER_NAME)).isEmpty();
+
+      Blob blob = blobStore.getBlob(CONTAINER_NAME, BLOB_NAME);
+      assertThat(blob.getMetadata().getContentMetadata().getContentType()).isEqualTo("application/octet-stream");
+      assertThat(blob.getMetadata().getContentMetadata().getContentLength()).isEqualTo(part1.size() + part2.size());
+      assertThat(ByteStreams2.toByteArrayAndClose(blob.getPayload().openStream()))
+            .isEqualTo(ByteSource.concat(part1, part2).read());
+   }
+
+   @Test
+   public void testAbortMultipartUpload() {
+      blobStore.createContainerInLocation(null, CONTAINER_NAME);
+      BlobMetadata blobMetadata = blobStore.blobBuilder(BLOB_NAME).payload(ByteSource.empty()).build().getMetadata();
+      MultipartUpload mpu = blobStore.initiateMultipartUpload(CONTAINER_NAME, blobMetadata, PutOptions.NONE);
+      blobStore.uploadMultipartPart(mpu, 1, Payloads.newByteSourcePayload(randomByteSource().slice(0, 1024)));
+      blobStore.abortMultipartUpload(mpu);
+      assertThat(blobStore.listMultipartUploads(CONTAINER_NAME)).isEmpty();
+      assertThat(blobStore.blobExists(CONTAINER_NAME, BLOB_NAME)).isFalse();
+   }
+
    @Test
    public void testBlobRequestSigner() throws Exception {
       String containerName = "container";
@@ -17,6 +17,9 @@
 package org.jclouds.jdbc;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+import org.jclouds.jdbc.entity.ChunkEntity;
 import org.jclouds.jdbc.service.JdbcService;
 import org.jclouds.jdbc.util.JdbcInputStream;
 import org.testng.annotations.BeforeMethod;
@@ -24,9 +27,12 @@ import org.testng.annotations.Test;
 
 import java.io.IOException;
 
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.easymock.EasyMock.createNiceMock;
 import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
 
 @Test(groups = "unit", testName = "JdbcInputStreamTest")
 public class JdbcInputStreamTest {
@@ -56,4 +62,57 @@ public class JdbcInputStreamTest {
       assertThat(jdbcInputStream.read()).isEqualTo(-1);
    }
 
+   @Test
+   public void testReadAcrossChunks() throws IOException {
+      expect(mockJdbcService.findChunkById(1L)).andReturn(chunk(1L, "abc"));
+      expect(mockJdbcService.findChunkById(2L)).andReturn(chunk(2L, "de"));
+      replay(mockJdbcService);
+      JdbcInputStream jdbcInputStream = new JdbcInputStream(mockJdbcService, ImmutableList.of(1L, 2L));
+      assertThat(new String(ByteStreams.toByteArray(jdbcInputStream))).isEqualTo("abcde");
+      verify(mockJdbcService);
+   }
+
+   @Test
+   public void testOffsetSkipsLeadingChunks() throws IOException {
+      expect(mockJdbcService.findChunkSizesByIds(ImmutableList.of(1L, 2L, 3L)))
+            .andReturn(ImmutableMap.of(1L, 3, 2L, 3, 3L, 2));
+      expect(mockJdbcService.findChunkById(2L)).andReturn(chunk(2L, "def"));
+      expect(mockJdbcService.findChunkById(3L)).andReturn(chunk(3L, "gh"));
+      replay(mockJdbcService);
+      JdbcInputStream jdbcInputStream = new JdbcInputStream(mockJdbcService, ImmutableList.of(1L, 2L, 3L), 4, null, 0);
+      assertThat(new String(ByteStreams.toByteArray(jdbcInputStream))).isEqualTo("efgh");
+      verify(mockJdbcService);
+   }
+
+   @Test
+   public void testSkipDoesNotLoadSkippedChunks() throws IOException {
+      expect(mockJdbcService.findChunkById(1L)).andReturn(chunk(1L, "abc"));
+      expect(mockJdbcService.findChunkSizesByIds(ImmutableList.of(2L, 3L))).andReturn(ImmutableMap.of(2L, 3, 3L, 2));
+      expect(mockJdbcService.findChunkById(3L)).andReturn(chunk(3L, "gh"));
+      replay(mockJdbcService);
+      JdbcInputStream jdbcInputStream = new JdbcInputStream(mockJdbcService, ImmutableList.of(1L, 2L, 3L));
+      assertThat(jdbcInputStream.read()).isEqualTo('a');
+      assertThat(jdbcInputStream.skip(6)).isEqualTo(6);
+      assertThat(new String(ByteStreams.toByteArray(jdbcInputStream))).isEqualTo("h");
+      verify(mockJdbcService);
+   }
+
+   @Test
+   public void testReadAheadFetchesNextChunks() throws IOException {
+      expect(mockJdbcService.findChunkById(1L)).andReturn(chunk(1L, "abc"));
+      expect(mockJdbcService.findChunksByIds(ImmutableList.of(2L, 3L)))
+            .andReturn(ImmutableList.of(chunk(2L, "def"), chunk(3L, "gh")));
+      replay(mockJdbcService);
+      JdbcInputStream jdbcInputStream = new JdbcInputStream(mockJdbcService, ImmutableList.of(1L, 2L, 3L), 0,
+            sameThreadExecutor(), 2);
+      assertThat(new String(ByteStreams.toByteArray(jdbcInputStream))).isEqualTo("abcdefgh");
+      verify(mockJdbcService);
+   }
+
+   private static ChunkEntity chunk(Long id, String data) {
+      ChunkEntity chunk = new ChunkEntity(data.getBytes(), data.length());
+      chunk.setId(id);
+      return chunk;
+   }
+
 }
@@ -17,12 +17,25 @@
 package org.jclouds.jdbc.module;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.name.Names;
+import org.jclouds.concurrent.config.ExecutorServiceModule;
+import org.jclouds.jdbc.JdbcApiMetadata;
 import org.jclouds.jdbc.config.JPAInitializer;
 
+import java.util.Properties;
+
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static org.jclouds.jdbc.reference.JdbcConstants.PROPERTY_RECLAIM_DELAY;
+
 public class TestContextModule extends AbstractModule {
 
    @Override
    protected void configure() {
+      Properties properties = JdbcApiMetadata.defaultProperties();
+      // Reclaim replaced chunks as soon as no stream reads them
+      properties.setProperty(PROPERTY_RECLAIM_DELAY, "0");
+      Names.bindProperties(binder(), properties);
+      install(new ExecutorServiceModule(sameThreadExecutor()));
       bind(JPAInitializer.class).asEagerSingleton();
    }
 
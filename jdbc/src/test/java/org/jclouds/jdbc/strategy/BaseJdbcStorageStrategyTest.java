@@ -17,10 +17,13 @@
 package org.jclouds.jdbc.strategy;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.Module;
 import com.google.inject.persist.PersistService;
+import com.google.inject.persist.UnitOfWork;
 import com.google.inject.persist.jpa.JpaPersistModule;
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobAccess;
@@ -29,15 +32,26 @@ import org.jclouds.blobstore.domain.StorageMetadata;
 import org.jclouds.blobstore.domain.StorageType;
 import org.jclouds.blobstore.domain.internal.BlobBuilderImpl;
 import org.jclouds.blobstore.options.CreateContainerOptions;
+import org.jclouds.jdbc.entity.BlobEntity;
+import org.jclouds.jdbc.entity.PayloadEntity;
 import org.jclouds.jdbc.module.TestContextModule;
+import org.jclouds.jdbc.service.ChunkReclaimer;
+import org.jclouds.jdbc.service.JdbcService;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import javax.persistence.EntityManager;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.jclouds.utils.TestUtils.randomByteSource;
@@ -64,6 +78,7 @@ public abstract class BaseJdbcStorageStrategyTest {
 
    @AfterMethod
    protected void tearDown() {
+      injector.getInstance(ChunkReclaimer.class).close();
       injector.getInstance(PersistService.class).stop();
    }
 
@@ -167,6 +182,132 @@ public abstract class BaseJdbcStorageStrategyTest {
         }
     }
 
+   @Test
+   public void testGetBlobWithSeveralFullChunks() throws IOException {
+      assertThat(storageStrategy.createContainerInLocation(CONTAINER_NAME, null, null)).isTrue();
+      byte[] content = randomByteSource().slice(0, 4 * 1024 * 1024 + 1000).read();
+      storageStrategy.putBlob(CONTAINER_NAME, new BlobBuilderImpl().name(BLOB_NAME).payload(content).build());
+      assertThat(injector.getInstance(JdbcService.class).findBlobById(CONTAINER_NAME, BLOB_NAME).getPayload()
+            .getChunks()).hasSize(5);
+      InputStream data = storageStrategy.getBlob(CONTAINER_NAME, BLOB_NAME).getPayload().openStream();
+      assertThat(ByteStreams.toByteArray(data)).isEqualTo(content);
+   }
+
+   @Test
+   public void testPutBlobWithWrongContentLength() throws IOException {
+      assertThat(storageStrategy.createContainerInLocation(CONTAINER_NAME, null, null)).isTrue();
+      byte[] content = randomByteSource().slice(0, 2 * 1024 * 1024).read();
+      Blob blob = new BlobBuilderImpl().name(BLOB_NAME).payload(content).build();
+      blob.getPayload().getContentMetadata().setContentLength(0L);
+      storageStrategy.putBlob(CONTAINER_NAME, blob);
+      assertThat(injector.getInstance(JdbcService.class).findBlobById(CONTAINER_NAME, BLOB_NAME).getPayload()
+            .getChunks()).hasSize(2);
+      InputStream data = storageStrategy.getBlob(CONTAINER_NAME, BLOB_NAME).getPayload().openStream();
+      assertThat(ByteStreams.toByteArray(data)).isEqualTo(content);
+   }
+
+   @Test
+   public void testPutSmallBlobInline() throws IOException {
+      assertThat(storageStrategy.createContainerInLocation(CONTAINER_NAME, null, null)).isTrue();
+      byte[] content = getByteArray('b', 200);
+      storageStrategy.putBlob(CONTAINER_NAME, new BlobBuilderImpl().name(BLOB_NAME).payload(content).build());
+      PayloadEntity payload = injector.getInstance(JdbcService.class).findBlobById(CONTAINER_NAME, BLOB_NAME).getPayload();
+      assertThat(payload.getChunks()).isEmpty();
+      assertThat(payload.getData()).isEqualTo(content);
+      InputStream data = storageStrategy.getBlob(CONTAINER_NAME, BLOB_NAME).getPayload().openStream();
+      assertThat(ByteStreams.toByteArray(data)).isEqualTo(content);
+   }
+
+   @Test
+   public void testOverwriteBlobReclaimsChunks() throws IOException {
+      assertThat(storageStrategy.createContainerInLocation(CONTAINER_NAME, null, null)).isTrue();
+      JdbcService jdbcService = injector.getInstance(JdbcService.class);
+      storageStrategy.putBlob(CONTAINER_NAME,
+            new BlobBuilderImpl().name(BLOB_NAME).payload(randomByteSource().slice(0, 4 * 1024 * 1024)).build());
+      BlobEntity first = jdbcService.findBlobById(CONTAINER_NAME, BLOB_NAME);
+      List<Long> firstChunks = first.getPayload().getChunks();
+      assertThat(firstChunks).isNotEmpty();
+
+      byte[] content = getByteArray('c', 2 * 1024 * 1024);
+      storageStrategy.putBlob(CONTAINER_NAME, new BlobBuilderImpl().name(BLOB_NAME).payload(content).build());
+      BlobEntity second = jdbcService.findBlobById(CONTAINER_NAME, BLOB_NAME);
+      assertThat(second.getVersion()).isGreaterThan(first.getVersion());
+      assertThat(second.getCreationDate()).isEqualTo(first.getCreationDate());
+      assertThat(jdbcService.findChunkSizesByIds(firstChunks)).isEmpty();
+      InputStream data = storageStrategy.getBlob(CONTAINER_NAME, BLOB_NAME).getPayload().openStream();
+      assertThat(ByteStreams.toByteArray(data)).isEqualTo(content);
+   }
+
+   @Test
+   public void testOverwriteKeepsChunksOfOpenStreams() throws IOException {
+      assertThat(storageStrategy.createContainerInLocation(CONTAINER_NAME, null, null)).isTrue();
+      JdbcService jdbcService = injector.getInstance(JdbcService.class);
+      byte[] firstContent = getByteArray('a', 4 * 1024 * 1024);
+      storageStrategy.putBlob(CONTAINER_NAME, new BlobBuilderImpl().name(BLOB_NAME).payload(firstContent).build());
+      List<Long> firstChunks = jdbcService.findBlobById(CONTAINER_NAME, BLOB_NAME).getPayload().getChunks();
+      InputStream firstData = storageStrategy.getBlob(CONTAINER_NAME, BLOB_NAME).getPayload().openStream();
+      assertThat(firstData.read()).isEqualTo('a');
+
+      byte[] content = getByteArray('d', 2 * 1024 * 1024);
+      storageStrategy.putBlob(CONTAINER_NAME, new BlobBuilderImpl().name(BLOB_NAME).payload(content).build());
+      assertThat(jdbcService.findChunkSizesByIds(firstChunks)).hasSize(firstChunks.size());
+      assertThat(ByteStreams.toByteArray(firstData)).isEqualTo(Arrays.copyOfRange(firstContent, 1, firstContent.length));
+      assertThat(jdbcService.findChunkSizesByIds(firstChunks)).isEmpty();
+   }
+
+   @Test
+   public void testConcurrentWritesOfTheSameKey() throws Exception {
+      assertThat(storageStrategy.createContainerInLocation(CONTAINER_NAME, null, null)).isTrue();
+      final byte[][] contents = { getByteArray('e', 8 * 1024), getByteArray('f', 8 * 1024) };
+      int rounds = 5;
+      ExecutorService writers = Executors.newFixedThreadPool(contents.length);
+      try {
+         for (int round = 0; round < rounds; round++) {
+            final CyclicBarrier start = new CyclicBarrier(contents.length);
+            List<Future<Void>> writes = Lists.newArrayList();
+            for (final byte[] content : contents) {
+               writes.add(writers.submit(new Callable<Void>() {
+                  @Override
+                  public Void call() throws Exception {
+                     start.await();
+                     storageStrategy.putBlob(CONTAINER_NAME,
+                           new BlobBuilderImpl().name(BLOB_NAME).payload(content).build());
+                     return null;
+                  }
+               }));
+            }
+            // Each write conflicts with at most one other, so it must succeed within the retries
+            for (Future<Void> write : writes) {
+               write.get();
+            }
+         }
+      } finally {
+         writers.shutdownNow();
+      }
+
+      BlobEntity blob = injector.getInstance(JdbcService.class).findBlobById(CONTAINER_NAME, BLOB_NAME);
+      // Every write replaced the previous version, none of them was lost
+      assertThat(blob.getVersion()).isEqualTo(contents.length * rounds - 1);
+      byte[] data = ByteStreams.toByteArray(storageStrategy.getBlob(CONTAINER_NAME, BLOB_NAME).getPayload().openStream());
+      assertThat((char) data[0]).isIn('e', 'f');
+      assertThat(data).hasSize(8 * 1024).containsOnly(data[0]);
+      injector.getInstance(ChunkReclaimer.class).sweep();
+      assertThat(countChunks()).isEqualTo(blob.getPayload().getChunks().size());
+   }
+
+   @Test
+   public void testRemoveBlobReclaimsChunks() throws IOException {
+      assertThat(storageStrategy.createContainerInLocation(CONTAINER_NAME, null, null)).isTrue();
+      JdbcService jdbcService = injector.getInstance(JdbcService.class);
+      storageStrategy.putBlob(CONTAINER_NAME,
+            new BlobBuilderImpl().name(BLOB_NAME).payload(randomByteSource().slice(0, 4 * 1024 * 1024)).build());
+      List<Long> chunks = jdbcService.findBlobById(CONTAINER_NAME, BLOB_NAME).getPayload().getChunks();
+      assertThat(chunks).isNotEmpty();
+      storageStrategy.removeBlob(CONTAINER_NAME, BLOB_NAME);
+      injector.getInstance(ChunkReclaimer.class).sweep();
+      assertThat(jdbcService.findChunkSizesByIds(chunks)).isEmpty();
+   }
+
    @Test
    public void testRemoveBlob() throws IOException {
       assertThat(storageStrategy.createContainerInLocation(CONTAINER_NAME, null, null)).isTrue();
@@ -203,6 +344,18 @@ public abstract class BaseJdbcStorageStrategyTest {
       assertThat(storageStrategy.containerExists(CONTAINER_NAME)).isFalse();
    }
 
+   private long countChunks() {
+      UnitOfWork unitOfWork = injector.getInstance(UnitOfWork.class);
+      unitOfWork.begin();
+      try {
+         return injector.getInstance(EntityManager.class)
+               .createQuery("SELECT COUNT(c) FROM ChunkEntity c", Long.class)
+               .getSingleResult();
+      } finally {
+         unitOfWork.end();
+      }
+   }
+
     private byte[] getByteArray(char c, int len) {
         byte[] array = new byte[len];
         Arrays.fill(array, (byte) c);
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.postgresql.jdbc;
+
+import static org.jclouds.postgresql.jdbc.reference.PostgreSQLJdbcConstants.DEFAULT_BATCH_SIZE;
+import static org.jclouds.postgresql.jdbc.reference.PostgreSQLJdbcConstants.DEFAULT_FETCH_SIZE;
+import static org.jclouds.postgresql.jdbc.reference.PostgreSQLJdbcConstants.DEFAULT_POOL_SIZE;
+import static org.jclouds.postgresql.jdbc.reference.PostgreSQLJdbcConstants.DEFAULT_URL;
+import static org.jclouds.postgresql.jdbc.reference.PostgreSQLJdbcConstants.DEFAULT_USER;
+import static org.jclouds.postgresql.jdbc.reference.PostgreSQLJdbcConstants.PROPERTY_BATCH_SIZE;
+import static org.jclouds.postgresql.jdbc.reference.PostgreSQLJdbcConstants.PROPERTY_FETCH_SIZE;
+import static org.jclouds.postgresql.jdbc.reference.PostgreSQLJdbcConstants.PROPERTY_PASSWORD;
+import static org.jclouds.postgresql.jdbc.reference.PostgreSQLJdbcConstants.PROPERTY_POOL_SIZE;
+import static org.jclouds.postgresql.jdbc.reference.PostgreSQLJdbcConstants.PROPERTY_URL;
+import static org.jclouds.postgresql.jdbc.reference.PostgreSQLJdbcConstants.PROPERTY_USER;
+
+import java.util.Properties;
+
+import org.jclouds.jdbc.JdbcApiMetadata;
+import org.jclouds.postgresql.jdbc.config.PostgreSQLJdbcBlobStoreContextModule;
+import org.jclouds.providers.ProviderMetadata;
+import org.jclouds.providers.internal.BaseProviderMetadata;
+
+import com.google.auto.service.AutoService;
+
+@AutoService(ProviderMetadata.class)
+public class PostgreSQLJdbcProviderMetadata extends BaseProviderMetadata {
+
+   public static Builder builder() {
+      return new Builder();
+   }
+
+   @Override
+   public Builder toBuilder() {
+      return builder().fromProviderMetadata(this);
+   }
+
+   public PostgreSQLJdbcProviderMetadata() {
+      super(builder());
+   }
+
+   public PostgreSQLJdbcProviderMetadata(Builder builder) {
+      super(builder);
+   }
+
+   public static Properties defaultProperties() {
+      Properties properties = JdbcApiMetadata.defaultProperties();
+      properties.setProperty(PROPERTY_URL, DEFAULT_URL);
+      properties.setProperty(PROPERTY_USER, DEFAULT_USER);
+      properties.setProperty(PROPERTY_PASSWORD, "");
+      properties.setProperty(PROPERTY_POOL_SIZE, String.valueOf(DEFAULT_POOL_SIZE));
+      properties.setProperty(PROPERTY_BATCH_SIZE, String.valueOf(DEFAULT_BATCH_SIZE));
+      properties.setProperty(PROPERTY_FETCH_SIZE, String.valueOf(DEFAULT_FETCH_SIZE));
+      return properties;
+   }
+
+   public static class Builder extends BaseProviderMetadata.Builder {
+      protected Builder() {
+         id("postgresql-jdbc")
+               .name("PostgreSQL Jdbc")
+               .apiMetadata(new JdbcApiMetadata()
+                     .toBuilder()
+                     .defaultModule(PostgreSQLJdbcBlobStoreContextModule.class)
+                     .build())
+               .defaultProperties(PostgreSQLJdbcProviderMetadata.defaultProperties());
+      }
+
+      @Override
+      public PostgreSQLJdbcProviderMetadata build() {
+         return new PostgreSQLJdbcProviderMetadata(this);
+      }
+
+      @Override
+      public Builder fromProviderMetadata(ProviderMetadata in) {
+         super.fromProviderMetadata(in);
+         return this;
+      }
+   }
+}
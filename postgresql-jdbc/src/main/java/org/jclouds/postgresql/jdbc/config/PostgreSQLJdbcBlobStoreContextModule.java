@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.postgresql.jdbc.config;
+
+import java.util.Properties;
+
+import org.jclouds.jdbc.config.JdbcBlobStoreContextModule;
+
+import com.google.inject.name.Names;
+import com.google.inject.persist.jpa.JpaPersistModule;
+
+public class PostgreSQLJdbcBlobStoreContextModule extends JdbcBlobStoreContextModule {
+
+   static final String PERSISTENCE_UNIT = "jclouds-postgresql";
+
+   protected void configure() {
+      super.configure();
+
+      // Filled in by PostgreSQLJdbcPersistenceProperties before the persistence service starts
+      Properties properties = new Properties();
+      bind(Properties.class).annotatedWith(Names.named(PERSISTENCE_UNIT)).toInstance(properties);
+
+      install(new JpaPersistModule(PERSISTENCE_UNIT).properties(properties));
+   }
+
+   @Override
+   protected void bindJPAInitializer() {
+      bind(PostgreSQLJdbcJPAInitializer.class).asEagerSingleton();
+   }
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.postgresql.jdbc.config;
+
+import java.sql.Types;
+
+import org.hibernate.dialect.PostgreSQL82Dialect;
+import org.hibernate.type.descriptor.sql.BinaryTypeDescriptor;
+import org.hibernate.type.descriptor.sql.SqlTypeDescriptor;
+
+/**
+ * PostgreSQL dialect that stores {@code @Lob byte[]} columns as {@code bytea} instead of large objects.
+ * <p>
+ * Hibernate maps blobs to {@code oid} columns on PostgreSQL, so every chunk would be written to a separate large object
+ * that is never unlinked when its row is deleted. Chunks are stored inline as {@code bytea} instead, and removed
+ * together with their row. Hibernate binds and reads the column as plain binary; the chunk data itself is written by
+ * {@link org.jclouds.jdbc.repository.ChunkRepository} with {@code setBinaryStream}, which the driver streams into the
+ * bind message without copying it into a separate array.
+ */
+public class PostgreSQLJdbcDialect extends PostgreSQL82Dialect {
+
+   public PostgreSQLJdbcDialect() {
+      super();
+      registerColumnType(Types.BLOB, "bytea");
+   }
+
+   @Override
+   public SqlTypeDescriptor remapSqlTypeDescriptor(SqlTypeDescriptor sqlTypeDescriptor) {
+      if (sqlTypeDescriptor.getSqlType() == Types.BLOB) {
+         return BinaryTypeDescriptor.INSTANCE;
+      }
+      return super.remapSqlTypeDescriptor(sqlTypeDescriptor);
+   }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.postgresql.jdbc.config;
+
+import javax.inject.Inject;
+
+import org.jclouds.jdbc.config.JPAInitializer;
+import org.jclouds.lifecycle.Closer;
+
+import com.google.inject.persist.PersistService;
+
+/**
+ * Starts the persistence service once the {@link PostgreSQLJdbcPersistenceProperties} have been filled in, then
+ * migrates the schema.
+ */
+public class PostgreSQLJdbcJPAInitializer extends JPAInitializer {
+
+   @Inject
+   PostgreSQLJdbcJPAInitializer(PersistService persistService, Closer closer,
+         PostgreSQLJdbcPersistenceProperties properties, PostgreSQLJdbcSchemaMigrator schemaMigrator) {
+      super(persistService, closer);
+      schemaMigrator.migrate();
+   }
+
+}
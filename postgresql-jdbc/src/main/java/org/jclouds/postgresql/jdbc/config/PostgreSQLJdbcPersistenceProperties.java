@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.postgresql.jdbc.config;
+
+import static org.jclouds.postgresql.jdbc.reference.PostgreSQLJdbcConstants.PROPERTY_BATCH_SIZE;
+import static org.jclouds.postgresql.jdbc.reference.PostgreSQLJdbcConstants.PROPERTY_FETCH_SIZE;
+import static org.jclouds.postgresql.jdbc.reference.PostgreSQLJdbcConstants.PROPERTY_PASSWORD;
+import static org.jclouds.postgresql.jdbc.reference.PostgreSQLJdbcConstants.PROPERTY_POOL_SIZE;
+import static org.jclouds.postgresql.jdbc.reference.PostgreSQLJdbcConstants.PROPERTY_URL;
+import static org.jclouds.postgresql.jdbc.reference.PostgreSQLJdbcConstants.PROPERTY_USER;
+
+import java.util.Properties;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+/**
+ * Fills the persistence unit properties from the provider properties: the jdbc url and credentials, the HikariCP
+ * connection pool and the Hibernate batching settings.
+ */
+@Singleton
+public class PostgreSQLJdbcPersistenceProperties {
+
+   private static final String HIKARI_CONNECTION_PROVIDER = "org.hibernate.hikaricp.internal.HikariCPConnectionProvider";
+
+   @Inject
+   PostgreSQLJdbcPersistenceProperties(@Named(PostgreSQLJdbcBlobStoreContextModule.PERSISTENCE_UNIT) Properties properties,
+         @Named(PROPERTY_URL) String url, @Named(PROPERTY_USER) String user, @Named(PROPERTY_PASSWORD) String password,
+         @Named(PROPERTY_POOL_SIZE) int poolSize, @Named(PROPERTY_BATCH_SIZE) int batchSize,
+         @Named(PROPERTY_FETCH_SIZE) int fetchSize) {
+      properties.setProperty("hibernate.connection.url", url);
+      properties.setProperty("hibernate.connection.username", user);
+      properties.setProperty("hibernate.connection.password", password);
+      properties.setProperty("hibernate.connection.provider_class", HIKARI_CONNECTION_PROVIDER);
+      properties.setProperty("hibernate.hikari.maximumPoolSize", String.valueOf(poolSize));
+      // Let the driver rewrite batched inserts into multi-row statements
+      properties.setProperty("hibernate.hikari.dataSource.reWriteBatchedInserts", "true");
+      properties.setProperty("hibernate.jdbc.batch_size", String.valueOf(batchSize));
+      properties.setProperty("hibernate.jdbc.fetch_size", String.valueOf(fetchSize));
+      properties.setProperty("hibernate.order_inserts", "true");
+      properties.setProperty("hibernate.order_updates", "true");
+   }
+
+}
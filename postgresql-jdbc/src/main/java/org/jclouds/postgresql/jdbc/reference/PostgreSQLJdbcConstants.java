@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.postgresql.jdbc.reference;
+
+/**
+ * Configuration properties of the postgresql jdbc provider
+ */
+public final class PostgreSQLJdbcConstants {
+
+   /**
+    * Jdbc url of the postgresql database
+    */
+   public static final String PROPERTY_URL = "jclouds.postgresql.jdbc.url";
+
+   /**
+    * Database user
+    */
+   public static final String PROPERTY_USER = "jclouds.postgresql.jdbc.user";
+
+   /**
+    * Password of the database user. Empty by default, which only works when the server does not ask for a password.
+    */
+   public static final String PROPERTY_PASSWORD = "jclouds.postgresql.jdbc.password";
+
+   /**
+    * Maximum number of pooled connections to the database
+    */
+   public static final String PROPERTY_POOL_SIZE = "jclouds.postgresql.jdbc.pool-size";
+
+   /**
+    * Number of statements Hibernate sends to the database in a single jdbc batch
+    */
+   public static final String PROPERTY_BATCH_SIZE = "jclouds.postgresql.jdbc.batch-size";
+
+   /**
+    * Number of rows fetched from the database per round trip
+    */
+   public static final String PROPERTY_FETCH_SIZE = "jclouds.postgresql.jdbc.fetch-size";
+
+   public static final String DEFAULT_URL = "jdbc:postgresql://localhost:5432/jclouds";
+
+   public static final String DEFAULT_USER = "jclouds";
+
+   public static final int DEFAULT_POOL_SIZE = 10;
+
+   public static final int DEFAULT_BATCH_SIZE = 50;
+
+   public static final int DEFAULT_FETCH_SIZE = 100;
+
+   private PostgreSQLJdbcConstants() {
+      throw new AssertionError("Intentionally Unimplemented");
+   }
+}
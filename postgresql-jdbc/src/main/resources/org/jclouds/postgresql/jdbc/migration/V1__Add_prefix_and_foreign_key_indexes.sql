@@ -0,0 +1,23 @@
+--
+-- Licensed to the Apache Software Foundation (ASF) under one or more
+-- contributor license agreements.  See the NOTICE file distributed with
+-- this work for additional information regarding copyright ownership.
+-- The ASF licenses this file to You under the Apache License, Version 2.0
+-- (the "License"); you may not use this file except in compliance with
+-- the License.  You may obtain a copy of the License at
+--
+--     http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+-- Prefix scans of blob keys use LIKE 'prefix%', which only uses an index with the text_pattern_ops operator class
+CREATE INDEX IF NOT EXISTS blob_container_key_prefix_idx ON BlobEntity (id, key text_pattern_ops);
+-- Foreign keys are not indexed automatically by postgresql
+CREATE INDEX IF NOT EXISTS blob_payload_idx ON BlobEntity (payload_id);
+CREATE INDEX IF NOT EXISTS payload_chunks_payload_idx ON PayloadEntity_chunks (PayloadEntity_id);
+CREATE INDEX IF NOT EXISTS multipart_upload_container_idx ON MultipartUploadEntity (containerEntity_id);
+CREATE INDEX IF NOT EXISTS multipart_part_upload_idx ON MultipartPartEntity (upload_id);
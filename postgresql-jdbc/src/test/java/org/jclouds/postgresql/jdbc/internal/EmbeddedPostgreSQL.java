@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.postgresql.jdbc.internal;
+
+import static org.jclouds.postgresql.jdbc.reference.PostgreSQLJdbcConstants.PROPERTY_PASSWORD;
+import static org.jclouds.postgresql.jdbc.reference.PostgreSQLJdbcConstants.PROPERTY_URL;
+import static org.jclouds.postgresql.jdbc.reference.PostgreSQLJdbcConstants.PROPERTY_USER;
+
+import java.io.IOException;
+import java.util.Properties;
+
+import ru.yandex.qatools.embed.postgresql.PostgresExecutable;
+import ru.yandex.qatools.embed.postgresql.PostgresProcess;
+import ru.yandex.qatools.embed.postgresql.PostgresStarter;
+import ru.yandex.qatools.embed.postgresql.config.PostgresConfig;
+
+/**
+ * Starts a single embedded postgresql server shared by all the tests of the module. The server is stopped when the
+ * jvm exits.
+ */
+public final class EmbeddedPostgreSQL {
+
+   private static final String DATABASE = "jclouds";
+   private static final String USER = "jclouds";
+   private static final String PASSWORD = "jclouds";
+
+   private static PostgresConfig config;
+
+   /**
+    * Starts the server if needed and points the given properties at it.
+    */
+   public static synchronized Properties configure(Properties properties) {
+      if (config == null) {
+         config = start();
+      }
+      properties.setProperty(PROPERTY_URL, String.format("jdbc:postgresql://%s:%d/%s", config.net().host(),
+            config.net().port(), config.storage().dbName()));
+      properties.setProperty(PROPERTY_USER, USER);
+      properties.setProperty(PROPERTY_PASSWORD, PASSWORD);
+      return properties;
+   }
+
+   private static PostgresConfig start() {
+      try {
+         PostgresConfig config = PostgresConfig.defaultWithDbName(DATABASE, USER, PASSWORD);
+         PostgresExecutable executable = PostgresStarter.getDefaultInstance().prepare(config);
+         final PostgresProcess process = executable.start();
+         Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+               process.stop();
+            }
+         });
+         return config;
+      } catch (IOException e) {
+         throw new IllegalStateException("Could not start the embedded postgresql server", e);
+      }
+   }
+
+   private EmbeddedPostgreSQL() {
+      throw new AssertionError("Intentionally Unimplemented");
+   }
+}